@@ -19,6 +19,7 @@ import lombok.Data;
 import lombok.experimental.Accessors;
 
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 
 /**
@@ -68,4 +69,21 @@ public class MessageContent<T> implements Serializable {
      * 内容String 格式
      */
     private String bodyMessage;
+
+    /**
+     * 内容原始字节，传输支持二进制时存在
+     */
+    private byte[] bodyBytes;
+
+    /**
+     * 获取内容String 格式，未设置时按 UTF-8 解码原始字节并缓存
+     *
+     * @return 内容String 格式
+     */
+    public String getBodyMessage() {
+        if (bodyMessage == null && bodyBytes != null) {
+            bodyMessage = new String(bodyBytes, StandardCharsets.UTF_8);
+        }
+        return bodyMessage;
+    }
 }
@@ -70,4 +70,12 @@ public @interface MessageListener {
      * @return 最大缓存信息数
      */
     int maxCacheMessageCount() default 1024;
+
+    /**
+     * 消息编解码器名称，如 json、jsonb、raw、compact<br>
+     * 为空时使用消息实体 MessageName 注解或全局配置
+     *
+     * @return 编解码器名称
+     */
+    String codec() default "";
 }
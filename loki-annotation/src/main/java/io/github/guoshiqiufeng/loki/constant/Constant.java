@@ -35,7 +35,57 @@ public interface Constant {
     String REDIS_KEY_PREFIX = "loki:message:";
 
     /**
-     * redis延时发送列表
+     * redis延时发送列表（旧版，启动时迁移到 REDIS_DELIVERY_TIMER_KEY）
      */
     String REDIS_DELIVERY_KEY = "loki:delivery";
+
+    /**
+     * redis延时消息投递时间 zset，score 为投递时间戳
+     */
+    String REDIS_DELIVERY_TIMER_KEY = "{loki:delivery}:timer";
+
+    /**
+     * redis延时消息内容 hash，与 REDIS_DELIVERY_TIMER_KEY 位于同一 slot
+     */
+    String REDIS_DELIVERY_PAYLOAD_KEY = "{loki:delivery}:payload";
+
+    /**
+     * redis延时消息处理租约，值为 owner:token
+     */
+    String REDIS_DELIVERY_LEASE_KEY = "{loki:delivery}:lease";
+
+    /**
+     * redis延时消息历史数据恢复租约
+     */
+    String REDIS_DELIVERY_RECOVERY_KEY = "{loki:delivery}:recovery";
+
+    /**
+     * redis延时消息租约 fencing token 计数
+     */
+    String REDIS_DELIVERY_FENCING_KEY = "{loki:delivery}:fencing";
+
+    /**
+     * redis延时消息处理实例心跳 zset，分桶时用于计算每个实例处理的桶数
+     */
+    String REDIS_DELIVERY_INSTANCES_KEY = "loki:delivery:instances";
+
+    /**
+     * redis延时消息使用过的最大分桶数量，调整分桶数量后用于迁移旧桶中的延时消息
+     */
+    String REDIS_DELIVERY_BUCKETS_KEY = "loki:delivery:buckets";
+
+    /**
+     * redis stream key 前缀
+     */
+    String REDIS_STREAM_KEY_PREFIX = "loki:stream:";
+
+    /**
+     * redis stream 消息内容字段
+     */
+    String REDIS_STREAM_MESSAGE_FIELD = "message";
+
+    /**
+     * redis stream 死信后缀，超过最大投递次数的消息写入 loki:stream:{topic}:dead-letter
+     */
+    String REDIS_STREAM_DEAD_LETTER_SUFFIX = ":dead-letter";
 }
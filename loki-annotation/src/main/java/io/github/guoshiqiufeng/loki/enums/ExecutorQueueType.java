@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 线程池队列类型
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 17:20
+ */
+@Getter
+@AllArgsConstructor
+public enum ExecutorQueueType {
+
+    /**
+     * 链表队列，容量小于等于0时不限制
+     */
+    LINKED("linked", "链表队列"),
+
+    /**
+     * 数组队列，必须指定容量
+     */
+    ARRAY("array", "数组队列"),
+
+    /**
+     * 同步移交队列，不缓存任务，无空闲线程时直接创建新线程
+     */
+    SYNCHRONOUS("synchronous", "同步移交队列"),
+
+    ;
+
+
+    /**
+     * 值
+     */
+    private final String value;
+
+    /**
+     * 描述
+     */
+    private final String desc;
+}
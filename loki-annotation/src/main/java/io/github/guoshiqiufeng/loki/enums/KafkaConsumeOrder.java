@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * kafka 并行消费顺序
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 22:35
+ */
+@Getter
+@AllArgsConstructor
+public enum KafkaConsumeOrder {
+
+    /**
+     * 同一分区的消息依次处理，并行度不超过分区数
+     */
+    PARTITION("partition", "按分区顺序"),
+
+    /**
+     * 同一 key 的消息依次处理，无 key 的消息按分区处理
+     */
+    KEY("key", "按消息key顺序"),
+
+    /**
+     * 不保证顺序，所有线程共享一个队列
+     */
+    UNORDERED("unordered", "不保证顺序"),
+
+    ;
+
+
+    /**
+     * 值
+     */
+    private final String value;
+
+    /**
+     * 描述
+     */
+    private final String desc;
+}
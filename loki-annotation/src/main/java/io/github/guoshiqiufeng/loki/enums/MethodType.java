@@ -39,6 +39,16 @@ public enum MethodType {
      */
     SEND_ASYNC("sendAsync", "异步发送"),
 
+    /**
+     * 批量发送消息
+     */
+    SEND_BATCH("sendBatch", "批量发送"),
+
+    /**
+     * 异步批量发送消息
+     */
+    SEND_BATCH_ASYNC("sendBatchAsync", "异步批量发送"),
+
 
     ;
 
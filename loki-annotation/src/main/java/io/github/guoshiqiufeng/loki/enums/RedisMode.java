@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * redis 消息模式
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 19:40
+ */
+@Getter
+@AllArgsConstructor
+public enum RedisMode {
+
+    /**
+     * 发布订阅，消息不持久化，每个实例都会收到全部消息
+     */
+    PUBSUB("pubsub", "发布订阅"),
+
+    /**
+     * stream 消费组，消息持久化，同一消费组内负载均衡
+     */
+    STREAM("stream", "Stream 消费组"),
+
+    ;
+
+
+    /**
+     * 值
+     */
+    private final String value;
+
+    /**
+     * 描述
+     */
+    private final String desc;
+}
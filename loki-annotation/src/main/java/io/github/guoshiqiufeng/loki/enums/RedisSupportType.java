@@ -37,6 +37,11 @@ public enum RedisSupportType {
      */
     SPRING_DATA("spring-data", "Spring Data 实现"),
 
+    /**
+     * 使用lettuce，需自行引入 lettuce-core
+     */
+    LETTUCE("lettuce", "Lettuce 异步实现"),
+
     ;
 
 
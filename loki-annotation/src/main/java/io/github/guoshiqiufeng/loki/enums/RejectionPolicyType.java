@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 线程池拒绝策略
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 17:20
+ */
+@Getter
+@AllArgsConstructor
+public enum RejectionPolicyType {
+
+    /**
+     * 由提交任务的线程执行
+     */
+    CALLER_RUNS("caller-runs", "调用者执行"),
+
+    /**
+     * 抛出 RejectedExecutionException
+     */
+    ABORT("abort", "抛出异常"),
+
+    /**
+     * 丢弃当前任务
+     */
+    DISCARD("discard", "丢弃任务"),
+
+    /**
+     * 丢弃队列中最早的任务
+     */
+    DISCARD_OLDEST("discard-oldest", "丢弃最早任务"),
+
+    /**
+     * 阻塞提交任务的线程直到队列有空位，不乱序；超过 block-timeout-millis 仍无空位时抛出 RejectedExecutionException
+     */
+    BLOCK("block", "阻塞等待"),
+
+    ;
+
+
+    /**
+     * 值
+     */
+    private final String value;
+
+    /**
+     * 描述
+     */
+    private final String desc;
+}
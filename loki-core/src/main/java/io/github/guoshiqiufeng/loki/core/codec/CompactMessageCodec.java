@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.core.codec;
+
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.JSONWriter;
+
+/**
+ * 紧凑二进制编解码器
+ * <p>
+ * 以实体类字段顺序作为 schema，按位置写入字段值而不写字段名，
+ * 生产者与消费者的实体字段定义需保持一致
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 15:52
+ */
+public class CompactMessageCodec implements MessageCodec {
+
+    /**
+     * 名称
+     */
+    public static final String NAME = "compact";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isBinary() {
+        return true;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        return JSONB.toBytes(value, JSONWriter.Feature.BeanToArray);
+    }
+
+    @Override
+    public <T> T decode(byte[] data, Class<T> type) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        return JSONB.parseObject(data, type, JSONReader.Feature.SupportArrayToBean);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.core.codec;
+
+import com.alibaba.fastjson2.JSON;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * fastjson2 文本 JSON 编解码器
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 15:45
+ */
+public class JsonMessageCodec implements MessageCodec {
+
+    /**
+     * 名称
+     */
+    public static final String NAME = "json";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isBinary() {
+        return false;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        return JSON.toJSONBytes(value);
+    }
+
+    @Override
+    public <T> T decode(byte[] data, Class<T> type) {
+        if (data == null) {
+            return null;
+        }
+        return decodeFromString(new String(data, StandardCharsets.UTF_8), type);
+    }
+
+    @Override
+    public String encodeToString(Object value) {
+        return JSON.toJSONString(value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T decodeFromString(String text, Class<T> type) {
+        if (text == null) {
+            return null;
+        }
+        if (String.class.equals(type)) {
+            return (T) text;
+        }
+        if (text.trim().startsWith("{")) {
+            return JSON.parseObject(text, type);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.core.codec;
+
+import com.alibaba.fastjson2.JSONB;
+
+/**
+ * fastjson2 JSONB 二进制编解码器
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 15:48
+ */
+public class JsonbMessageCodec implements MessageCodec {
+
+    /**
+     * 名称
+     */
+    public static final String NAME = "jsonb";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isBinary() {
+        return true;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        return JSONB.toBytes(value);
+    }
+
+    @Override
+    public <T> T decode(byte[] data, Class<T> type) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        return JSONB.parseObject(data, type);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.core.codec;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 消息编解码器
+ * <p>
+ * 二进制编码的消息在 kafka、rocketmq 中直接以字节发送；redis 仅支持文本传输，二进制内容会以 Base64 发送。
+ * 自定义编解码器可通过 {@link MessageCodecUtils#register(MessageCodec)} 注册，
+ * 或在 META-INF/services 中声明后自动加载
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 15:40
+ */
+public interface MessageCodec {
+
+    /**
+     * 编解码器名称
+     *
+     * @return 名称
+     */
+    String getName();
+
+    /**
+     * 是否二进制编码，文本编码的消息以字符串传输
+     *
+     * @return 是否二进制
+     */
+    boolean isBinary();
+
+    /**
+     * 编码
+     *
+     * @param value 消息实体
+     * @return 编码后内容
+     */
+    byte[] encode(Object value);
+
+    /**
+     * 解码
+     *
+     * @param data 消息内容
+     * @param type 消息类型
+     * @param <T>  消息类型
+     * @return 消息实体
+     */
+    <T> T decode(byte[] data, Class<T> type);
+
+    /**
+     * 编码为字符串，文本编码使用
+     *
+     * @param value 消息实体
+     * @return 编码后内容
+     */
+    default String encodeToString(Object value) {
+        return new String(encode(value), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 从字符串解码，文本编码使用
+     *
+     * @param text 消息内容
+     * @param type 消息类型
+     * @param <T>  消息类型
+     * @return 消息实体
+     */
+    default <T> T decodeFromString(String text, Class<T> type) {
+        return decode(text.getBytes(StandardCharsets.UTF_8), type);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.core.codec;
+
+import io.github.guoshiqiufeng.loki.support.core.exception.LokiException;
+import io.github.guoshiqiufeng.loki.support.core.util.StringUtils;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 消息编解码器工具类
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 16:00
+ */
+@Slf4j
+@UtilityClass
+public class MessageCodecUtils {
+
+    /**
+     * 已注册编解码器
+     */
+    private final Map<String, MessageCodec> CODEC_MAP = new ConcurrentHashMap<>();
+
+    static {
+        register(new JsonMessageCodec());
+        register(new JsonbMessageCodec());
+        register(new RawMessageCodec());
+        register(new CompactMessageCodec());
+        for (MessageCodec codec : ServiceLoader.load(MessageCodec.class, MessageCodecUtils.class.getClassLoader())) {
+            register(codec);
+        }
+    }
+
+    /**
+     * 注册编解码器，同名覆盖
+     *
+     * @param codec 编解码器
+     */
+    public void register(MessageCodec codec) {
+        CODEC_MAP.put(codec.getName().toLowerCase(Locale.ROOT), codec);
+        if (log.isDebugEnabled()) {
+            log.debug("MessageCodecUtils# register codec:{}", codec.getName());
+        }
+    }
+
+    /**
+     * 获取编解码器
+     *
+     * @param name        编解码器名称
+     * @param defaultName 名称为空时使用的名称
+     * @return 编解码器
+     */
+    public MessageCodec getCodec(String name, String defaultName) {
+        if (StringUtils.isEmpty(name)) {
+            name = StringUtils.isEmpty(defaultName) ? JsonMessageCodec.NAME : defaultName;
+        }
+        MessageCodec codec = CODEC_MAP.get(name);
+        if (codec == null) {
+            codec = CODEC_MAP.get(name.toLowerCase(Locale.ROOT));
+        }
+        if (codec == null) {
+            throw new LokiException("No message codec %s", name);
+        }
+        return codec;
+    }
+}
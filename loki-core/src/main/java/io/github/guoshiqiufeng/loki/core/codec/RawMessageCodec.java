@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.core.codec;
+
+import io.github.guoshiqiufeng.loki.support.core.exception.LokiException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 原始内容编解码器，byte[]、String 直接透传
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 15:55
+ */
+public class RawMessageCodec implements MessageCodec {
+
+    /**
+     * 名称
+     */
+    public static final String NAME = "raw";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isBinary() {
+        return true;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        if (value == null) {
+            return new byte[0];
+        }
+        if (value instanceof byte[]) {
+            return (byte[]) value;
+        }
+        if (value instanceof String) {
+            return ((String) value).getBytes(StandardCharsets.UTF_8);
+        }
+        throw new LokiException("raw codec not support type %s", value.getClass().getName());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T decode(byte[] data, Class<T> type) {
+        if (data == null) {
+            return null;
+        }
+        if (byte[].class.equals(type)) {
+            return (T) data;
+        }
+        if (String.class.equals(type) || Object.class.equals(type)) {
+            return (T) new String(data, StandardCharsets.UTF_8);
+        }
+        throw new LokiException("raw codec not support type %s", type.getName());
+    }
+}
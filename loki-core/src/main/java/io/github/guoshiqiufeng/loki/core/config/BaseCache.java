@@ -18,9 +18,11 @@ package io.github.guoshiqiufeng.loki.core.config;
 import io.github.guoshiqiufeng.loki.core.handler.HandlerHolder;
 import io.github.guoshiqiufeng.loki.core.mapper.BaseMapper;
 import io.github.guoshiqiufeng.loki.core.mapper.BaseMapperImpl;
+import io.github.guoshiqiufeng.loki.core.toolkit.EntityInfoHelper;
 import io.github.guoshiqiufeng.loki.support.core.config.LokiProperties;
 import io.github.guoshiqiufeng.loki.support.core.exception.LokiException;
 import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
 
 import java.util.Map;
 import java.util.Optional;
@@ -33,6 +35,7 @@ import java.util.concurrent.ConcurrentHashMap;
  * @version 1.0
  * @since 2023/11/21 14:07
  */
+@Slf4j
 @UtilityClass
 public class BaseCache {
 
@@ -61,6 +64,14 @@ public class BaseCache {
         baseMapper.setEntityClass(entityClass);
         BASE_MAPPER_INSTANCE_MAP.put(mapperInterface, baseMapper);
         BASE_ENTITY_INSTANCE_MAP.put(mapperInterface, entityClass);
+        // 预先解析实体发送信息，避免发送时反射
+        try {
+            EntityInfoHelper.getEntityInfo(entityClass);
+        } catch (LokiException e) {
+            if (log.isWarnEnabled()) {
+                log.warn("BaseCache# init entity info error, entity:{}, error:{}", entityClass.getName(), e.getMessage());
+            }
+        }
     }
 
     /**
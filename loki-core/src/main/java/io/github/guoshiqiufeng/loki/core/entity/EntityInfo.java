@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.core.entity;
+
+import io.github.guoshiqiufeng.loki.support.core.exception.LokiException;
+import lombok.Getter;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+
+/**
+ * 实体发送信息（预编译）
+ * <p>
+ * 每个实体类只解析一次注解，发送时直接读取，不再进行反射
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 10:12
+ */
+@Getter
+public final class EntityInfo {
+
+    /**
+     * 实体类class
+     */
+    private final Class<?> entityClass;
+
+    /**
+     * topic
+     */
+    private final String topic;
+
+    /**
+     * tag
+     */
+    private final String tag;
+
+    /**
+     * 生产者
+     */
+    private final String producer;
+
+    /**
+     * 延时
+     */
+    private final Long deliveryTimestamp;
+
+    /**
+     * 消费者
+     */
+    private final String consumerGroup;
+
+    /**
+     * 消费线程数
+     */
+    private final Integer consumptionThreadCount;
+
+    /**
+     * 最大缓存信息数
+     */
+    private final Integer maxCacheMessageCount;
+
+    /**
+     * 编解码器名称
+     */
+    private final String codec;
+
+    /**
+     * 消息key取值器，签名为 (Object)Object
+     */
+    private final MethodHandle[] messageKeyGetters;
+
+    /**
+     * 构造函数
+     *
+     * @param entityClass       实体类class
+     * @param messageInfo       消息信息
+     * @param messageKeyGetters 消息key取值器
+     */
+    public EntityInfo(Class<?> entityClass, MessageInfo messageInfo, MethodHandle[] messageKeyGetters) {
+        this.entityClass = entityClass;
+        this.topic = messageInfo.getTopic();
+        this.tag = messageInfo.getTag();
+        this.producer = messageInfo.getProducer();
+        this.deliveryTimestamp = messageInfo.getDeliveryTimestamp();
+        this.consumerGroup = messageInfo.getConsumerGroup();
+        this.consumptionThreadCount = messageInfo.getConsumptionThreadCount();
+        this.maxCacheMessageCount = messageInfo.getMaxCacheMessageCount();
+        this.codec = messageInfo.getCodec();
+        this.messageKeyGetters = messageKeyGetters;
+    }
+
+    /**
+     * 获取消息key
+     *
+     * @param entity 实体
+     * @return 消息key，不存在时返回null
+     */
+    public String[] getMessageKeys(Object entity) {
+        int length = messageKeyGetters.length;
+        if (length == 0) {
+            return null;
+        }
+        String[] keys = null;
+        int size = 0;
+        for (MethodHandle getter : messageKeyGetters) {
+            String messageKey = getMessageKey(getter, entity);
+            if (messageKey == null || contains(keys, size, messageKey)) {
+                continue;
+            }
+            if (keys == null) {
+                keys = new String[length];
+            }
+            keys[size++] = messageKey;
+        }
+        if (keys == null) {
+            return null;
+        }
+        return size == length ? keys : Arrays.copyOf(keys, size);
+    }
+
+    /**
+     * 转换为消息信息
+     *
+     * @return 消息信息
+     */
+    public MessageInfo toMessageInfo() {
+        return new MessageInfo()
+                .setTopic(topic)
+                .setTag(tag)
+                .setProducer(producer)
+                .setDeliveryTimestamp(deliveryTimestamp)
+                .setConsumerGroup(consumerGroup)
+                .setConsumptionThreadCount(consumptionThreadCount)
+                .setMaxCacheMessageCount(maxCacheMessageCount)
+                .setCodec(codec);
+    }
+
+    private String getMessageKey(MethodHandle getter, Object entity) {
+        Object value;
+        try {
+            value = (Object) getter.invokeExact(entity);
+        } catch (Throwable e) {
+            throw new LokiException("send entity get message key error");
+        }
+        return value == null ? null : value.toString();
+    }
+
+    private boolean contains(String[] keys, int size, String key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -64,4 +64,9 @@ public class MessageInfo {
      */
     private Integer maxCacheMessageCount;
 
+    /**
+     * 编解码器名称
+     */
+    private String codec;
+
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.core.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.function.Function;
+
+/**
+ * SendMessage 注解方法信息（预编译）
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 14:35
+ */
+@Getter
+@AllArgsConstructor
+public final class SendMessageInfo {
+
+    /**
+     * 是否异步发送
+     */
+    private final boolean async;
+
+    /**
+     * 生产者
+     */
+    private final String producer;
+
+    /**
+     * 主题
+     */
+    private final String topic;
+
+    /**
+     * 标签
+     */
+    private final String tag;
+
+    /**
+     * 延时时间
+     */
+    private final Long deliveryTimestamp;
+
+    /**
+     * 消息表达式求值函数，未配置时为null
+     */
+    private final Function<Object[], Object> messageEvaluator;
+
+    /**
+     * 消息key表达式求值函数，未配置时为null
+     */
+    private final Function<Object[], Object> messageKeyEvaluator;
+
+    /**
+     * 方法返回类型名称
+     */
+    private final String returnTypeName;
+}
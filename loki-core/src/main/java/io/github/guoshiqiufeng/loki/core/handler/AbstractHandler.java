@@ -19,6 +19,9 @@ import io.github.guoshiqiufeng.loki.support.core.config.LokiProperties;
 import io.github.guoshiqiufeng.loki.support.core.util.StringUtils;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * 消息处理事件抽象类
  *
@@ -83,4 +86,36 @@ public abstract class AbstractHandler implements Handler {
         }
         return true;
     }
+
+    /**
+     * 校验参数
+     */
+    protected boolean validateParameters(String topic, byte[] body) {
+        if (StringUtils.isEmpty(topic)) {
+            if (log.isErrorEnabled()) {
+                log.error("{}# send message error: topic is null", this.getClass().getSimpleName());
+            }
+            return false;
+        }
+        if (body == null || body.length == 0) {
+            if (log.isErrorEnabled()) {
+                log.error("{}# send message error: body is null", this.getClass().getSimpleName());
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 转换keys
+     *
+     * @param keys keys
+     * @return keys，为空时返回null
+     */
+    protected List<String> getKeys(String... keys) {
+        if (keys == null || keys.length == 0) {
+            return null;
+        }
+        return Arrays.asList(keys);
+    }
 }
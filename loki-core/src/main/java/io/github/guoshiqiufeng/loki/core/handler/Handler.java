@@ -17,7 +17,11 @@ package io.github.guoshiqiufeng.loki.core.handler;
 
 import io.github.guoshiqiufeng.loki.MessageContent;
 import io.github.guoshiqiufeng.loki.support.core.consumer.ConsumerConfig;
+import io.github.guoshiqiufeng.loki.support.core.producer.ProducerRecord;
+import io.github.guoshiqiufeng.loki.support.core.producer.ProducerResult;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
@@ -93,6 +97,50 @@ public interface Handler {
      */
     CompletableFuture<String> sendAsync(String producerName, String topic, String tag, String message, Long deliveryTimestamp, String... keys);
 
+    /**
+     * 发送消息
+     *
+     * @param producerName      生产者名称
+     * @param topic             消息主题
+     * @param tag               消息标签
+     * @param body              消息内容（二进制）
+     * @param deliveryTimestamp 延时发送时间
+     * @param keys              keys
+     * @return messageId 消息id
+     */
+    String send(String producerName, String topic, String tag, byte[] body, Long deliveryTimestamp, String... keys);
+
+    /**
+     * 异步发送消息
+     *
+     * @param producerName      生产者名称
+     * @param topic             消息主题
+     * @param tag               消息标签
+     * @param body              消息内容（二进制）
+     * @param deliveryTimestamp 延时发送时间
+     * @param keys              keys
+     * @return messageId 消息id
+     */
+    CompletableFuture<String> sendAsync(String producerName, String topic, String tag, byte[] body, Long deliveryTimestamp, String... keys);
+
+    /**
+     * 批量发送消息
+     *
+     * @param producerName    生产者名称
+     * @param producerRecords 消息列表
+     * @return 发送结果，与消息顺序一致
+     */
+    List<ProducerResult> sendBatch(String producerName, Collection<ProducerRecord> producerRecords);
+
+    /**
+     * 异步批量发送消息
+     *
+     * @param producerName    生产者名称
+     * @param producerRecords 消息列表
+     * @return 发送结果，与消息顺序一致
+     */
+    CompletableFuture<List<ProducerResult>> sendBatchAsync(String producerName, Collection<ProducerRecord> producerRecords);
+
     /**
      * 消息监听
      *
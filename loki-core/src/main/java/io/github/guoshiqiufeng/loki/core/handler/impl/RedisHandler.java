@@ -26,7 +26,8 @@ import io.github.guoshiqiufeng.loki.support.core.producer.ProducerResult;
 import io.github.guoshiqiufeng.loki.support.redis.RedisClient;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
@@ -72,17 +73,45 @@ public class RedisHandler extends AbstractHandler {
         if (!validateParameters(topic, body)) {
             return null;
         }
-        // 发送消息
-        try {
-            ProducerRecord producerRecord = new ProducerRecord(topic, tag, body, deliveryTimestamp, Arrays.asList(keys));
-            ProducerResult producerResult = redisClient.send(topic, producerRecord);
-            return producerResult.getMsgId();
-        } catch (Exception e) {
-            if (log.isErrorEnabled()) {
-                log.error("RedisHandler# send message error:{}", e.getMessage());
-            }
-            throw new RuntimeException(e);
+        return doSend(producerName, new ProducerRecord(topic, tag, body, deliveryTimestamp, getKeys(keys)));
+    }
+
+    /**
+     * 发送消息
+     *
+     * @param producerName      生产者名称
+     * @param topic             消息主题
+     * @param tag               消息标签
+     * @param body              消息内容（二进制）
+     * @param deliveryTimestamp 延时发送时间
+     * @param keys              keys
+     * @return messageId 消息id
+     */
+    @Override
+    public String send(String producerName, String topic, String tag, byte[] body, Long deliveryTimestamp, String... keys) {
+        if (!validateParameters(topic, body)) {
+            return null;
+        }
+        return doSend(producerName, new ProducerRecord(topic, tag, null, deliveryTimestamp, getKeys(keys), body));
+    }
+
+    /**
+     * 异步发送消息
+     *
+     * @param producerName      生产者名称
+     * @param topic             消息主题
+     * @param tag               消息标签
+     * @param body              消息内容
+     * @param deliveryTimestamp 延时发送时间
+     * @param keys              keys
+     * @return messageId 消息id
+     */
+    @Override
+    public CompletableFuture<String> sendAsync(String producerName, String topic, String tag, String body, Long deliveryTimestamp, String... keys) {
+        if (!validateParameters(topic, body)) {
+            return null;
         }
+        return doSendAsync(producerName, new ProducerRecord(topic, tag, body, deliveryTimestamp, getKeys(keys)));
     }
 
     /**
@@ -91,20 +120,24 @@ public class RedisHandler extends AbstractHandler {
      * @param producerName      生产者名称
      * @param topic             消息主题
      * @param tag               消息标签
-     * @param message           消息内容
+     * @param body              消息内容（二进制）
      * @param deliveryTimestamp 延时发送时间
      * @param keys              keys
      * @return messageId 消息id
      */
     @Override
-    public CompletableFuture<String> sendAsync(String producerName, String topic, String tag, String message, Long deliveryTimestamp, String... keys) {
-        if (!validateParameters(topic, message)) {
+    public CompletableFuture<String> sendAsync(String producerName, String topic, String tag, byte[] body, Long deliveryTimestamp, String... keys) {
+        if (!validateParameters(topic, body)) {
             return null;
         }
+        return doSendAsync(producerName, new ProducerRecord(topic, tag, null, deliveryTimestamp, getKeys(keys), body));
+    }
+
+    private String doSend(String producerName, ProducerRecord producerRecord) {
         // 发送消息
         try {
-            ProducerRecord producerRecord = new ProducerRecord(topic, tag, message, deliveryTimestamp, Arrays.asList(keys));
-            return redisClient.sendAsync(topic, producerRecord).thenApply(ProducerResult::getMsgId);
+            ProducerResult producerResult = redisClient.send(producerRecord.getTopic(), producerRecord);
+            return producerResult.getMsgId();
         } catch (Exception e) {
             if (log.isErrorEnabled()) {
                 log.error("RedisHandler# send message error:{}", e.getMessage());
@@ -113,6 +146,42 @@ public class RedisHandler extends AbstractHandler {
         }
     }
 
+    private CompletableFuture<String> doSendAsync(String producerName, ProducerRecord producerRecord) {
+        // 发送消息
+        try {
+            return redisClient.sendAsync(producerRecord.getTopic(), producerRecord).thenApply(ProducerResult::getMsgId);
+        } catch (Exception e) {
+            if (log.isErrorEnabled()) {
+                log.error("RedisHandler# send message error:{}", e.getMessage());
+            }
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 批量发送消息
+     *
+     * @param producerName    生产者名称
+     * @param producerRecords 消息列表
+     * @return 发送结果，与消息顺序一致
+     */
+    @Override
+    public List<ProducerResult> sendBatch(String producerName, Collection<ProducerRecord> producerRecords) {
+        return redisClient.sendBatch(producerName, producerRecords);
+    }
+
+    /**
+     * 异步批量发送消息
+     *
+     * @param producerName    生产者名称
+     * @param producerRecords 消息列表
+     * @return 发送结果，与消息顺序一致
+     */
+    @Override
+    public CompletableFuture<List<ProducerResult>> sendBatchAsync(String producerName, Collection<ProducerRecord> producerRecords) {
+        return redisClient.sendBatchAsync(producerName, producerRecords);
+    }
+
     /**
      * 消息监听
      *
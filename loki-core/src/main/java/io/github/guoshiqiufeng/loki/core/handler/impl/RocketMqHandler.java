@@ -26,7 +26,8 @@ import io.github.guoshiqiufeng.loki.support.core.producer.ProducerResult;
 import io.github.guoshiqiufeng.loki.support.rocketmq.RocketClient;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
@@ -71,23 +72,26 @@ public class RocketMqHandler extends AbstractHandler {
         if (!validateParameters(topic, body)) {
             return null;
         }
-        // 发送消息
-        try {
-            ProducerRecord producerRecord = new ProducerRecord(topic, tag, body, deliveryTimestamp, Arrays.asList(keys));
-            if (log.isDebugEnabled()) {
-                log.debug("RocketMqHandler# send producerRecord:{}", producerRecord);
-            }
-            ProducerResult send = rocketClient.send(producerName, producerRecord);
-            if (log.isDebugEnabled()) {
-                log.debug("RocketMqHandler# send messageId:{}", send.getMsgId());
-            }
-            return send.getMsgId();
-        } catch (Exception e) {
-            if (log.isErrorEnabled()) {
-                log.error("RocketMqHandler# send message error:{}", e.getMessage());
-            }
-            throw new RuntimeException(e);
+        return doSend(producerName, new ProducerRecord(topic, tag, body, deliveryTimestamp, getKeys(keys)));
+    }
+
+    /**
+     * 发送消息
+     *
+     * @param producerName      生产者名称
+     * @param topic             消息主题
+     * @param tag               消息标签
+     * @param body              消息内容（二进制）
+     * @param deliveryTimestamp 延时发送时间
+     * @param keys              keys
+     * @return messageId 消息id
+     */
+    @Override
+    public String send(String producerName, String topic, String tag, byte[] body, Long deliveryTimestamp, String... keys) {
+        if (!validateParameters(topic, body)) {
+            return null;
         }
+        return doSend(producerName, new ProducerRecord(topic, tag, null, deliveryTimestamp, getKeys(keys), body));
     }
 
     /**
@@ -106,9 +110,50 @@ public class RocketMqHandler extends AbstractHandler {
         if (!validateParameters(topic, body)) {
             return null;
         }
+        return doSendAsync(producerName, new ProducerRecord(topic, tag, body, deliveryTimestamp, getKeys(keys)));
+    }
+
+    /**
+     * 异步发送消息
+     *
+     * @param producerName      生产者名称
+     * @param topic             消息主题
+     * @param tag               消息标签
+     * @param body              消息内容（二进制）
+     * @param deliveryTimestamp 延时发送时间
+     * @param keys              keys
+     * @return messageId 消息id
+     */
+    @Override
+    public CompletableFuture<String> sendAsync(String producerName, String topic, String tag, byte[] body, Long deliveryTimestamp, String... keys) {
+        if (!validateParameters(topic, body)) {
+            return null;
+        }
+        return doSendAsync(producerName, new ProducerRecord(topic, tag, null, deliveryTimestamp, getKeys(keys), body));
+    }
+
+    private String doSend(String producerName, ProducerRecord producerRecord) {
+        // 发送消息
+        try {
+            if (log.isDebugEnabled()) {
+                log.debug("RocketMqHandler# send producerRecord:{}", producerRecord);
+            }
+            ProducerResult send = rocketClient.send(producerName, producerRecord);
+            if (log.isDebugEnabled()) {
+                log.debug("RocketMqHandler# send messageId:{}", send.getMsgId());
+            }
+            return send.getMsgId();
+        } catch (Exception e) {
+            if (log.isErrorEnabled()) {
+                log.error("RocketMqHandler# send message error:{}", e.getMessage());
+            }
+            throw new RuntimeException(e);
+        }
+    }
+
+    private CompletableFuture<String> doSendAsync(String producerName, ProducerRecord producerRecord) {
         // 发送消息
         try {
-            ProducerRecord producerRecord = new ProducerRecord(topic, tag, body, deliveryTimestamp, Arrays.asList(keys));
             if (log.isDebugEnabled()) {
                 log.debug("RocketMqHandler# send producerRecord:{}", producerRecord);
             }
@@ -122,6 +167,30 @@ public class RocketMqHandler extends AbstractHandler {
         }
     }
 
+    /**
+     * 批量发送消息
+     *
+     * @param producerName    生产者名称
+     * @param producerRecords 消息列表
+     * @return 发送结果，与消息顺序一致
+     */
+    @Override
+    public List<ProducerResult> sendBatch(String producerName, Collection<ProducerRecord> producerRecords) {
+        return rocketClient.sendBatch(producerName, producerRecords);
+    }
+
+    /**
+     * 异步批量发送消息
+     *
+     * @param producerName    生产者名称
+     * @param producerRecords 消息列表
+     * @return 发送结果，与消息顺序一致
+     */
+    @Override
+    public CompletableFuture<List<ProducerResult>> sendBatchAsync(String producerName, Collection<ProducerRecord> producerRecords) {
+        return rocketClient.sendBatchAsync(producerName, producerRecords);
+    }
+
     /**
      * 消息监听
      *
@@ -26,7 +26,8 @@ import io.github.guoshiqiufeng.loki.support.core.producer.ProducerResult;
 import io.github.guoshiqiufeng.loki.support.rocketmq.remoting.RocketRemotingClient;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
@@ -63,19 +64,26 @@ public class RocketMqRemotingHandler extends AbstractHandler {
         if (!validateParameters(topic, body)) {
             return null;
         }
-        // 发送消息
-        try {
-            ProducerRecord producerRecord = new ProducerRecord(topic, tag, body, deliveryTimestamp, Arrays.asList(keys));
-            if (log.isDebugEnabled()) {
-                log.debug("RocketMqRemotingHandler# send producerRecord:{}", producerRecord);
-            }
-            return rocketRemotingClient.send(producerName, producerRecord).getMsgId();
-        } catch (Exception e) {
-            if (log.isErrorEnabled()) {
-                log.error("RocketMqRemotingHandler# send message error:{}", e.getMessage());
-            }
-            throw new RuntimeException(e);
+        return doSend(producerName, new ProducerRecord(topic, tag, body, deliveryTimestamp, getKeys(keys)));
+    }
+
+    /**
+     * 发送消息
+     *
+     * @param producerName      生产者名称
+     * @param topic             消息主题
+     * @param tag               消息标签
+     * @param body              消息内容（二进制）
+     * @param deliveryTimestamp 延时发送时间
+     * @param keys              keys
+     * @return messageId 消息id
+     */
+    @Override
+    public String send(String producerName, String topic, String tag, byte[] body, Long deliveryTimestamp, String... keys) {
+        if (!validateParameters(topic, body)) {
+            return null;
         }
+        return doSend(producerName, new ProducerRecord(topic, tag, null, deliveryTimestamp, getKeys(keys), body));
     }
 
     /**
@@ -94,12 +102,49 @@ public class RocketMqRemotingHandler extends AbstractHandler {
         if (!validateParameters(topic, body)) {
             return null;
         }
-        ProducerRecord producerRecord = new ProducerRecord(topic, tag, body, deliveryTimestamp, Arrays.asList(keys));
-        if (log.isDebugEnabled()) {
-            log.debug("RocketMqRemotingHandler# sendAsync producerRecord:{}", producerRecord);
+        return doSendAsync(producerName, new ProducerRecord(topic, tag, body, deliveryTimestamp, getKeys(keys)));
+    }
+
+    /**
+     * 异步发送消息
+     *
+     * @param producerName      生产者名称
+     * @param topic             消息主题
+     * @param tag               消息标签
+     * @param body              消息内容（二进制）
+     * @param deliveryTimestamp 延时发送时间
+     * @param keys              keys
+     * @return messageId 消息id
+     */
+    @Override
+    public CompletableFuture<String> sendAsync(String producerName, String topic, String tag, byte[] body, Long deliveryTimestamp, String... keys) {
+        if (!validateParameters(topic, body)) {
+            return null;
         }
+        return doSendAsync(producerName, new ProducerRecord(topic, tag, null, deliveryTimestamp, getKeys(keys), body));
+    }
+
+    private String doSend(String producerName, ProducerRecord producerRecord) {
         // 发送消息
         try {
+            if (log.isDebugEnabled()) {
+                log.debug("RocketMqRemotingHandler# send producerRecord:{}", producerRecord);
+            }
+            return rocketRemotingClient.send(producerName, producerRecord).getMsgId();
+        } catch (Exception e) {
+            if (log.isErrorEnabled()) {
+                log.error("RocketMqRemotingHandler# send message error:{}", e.getMessage());
+            }
+            throw new RuntimeException(e);
+        }
+    }
+
+    private CompletableFuture<String> doSendAsync(String producerName, ProducerRecord producerRecord) {
+        // 发送消息
+        try {
+            if (log.isDebugEnabled()) {
+                log.debug("RocketMqRemotingHandler# sendAsync producerRecord:{}", producerRecord);
+            }
             return rocketRemotingClient.sendAsync(producerName, producerRecord).thenApply(ProducerResult::getMsgId);
         } catch (Exception e) {
             if (log.isErrorEnabled()) {
@@ -109,6 +154,30 @@ public class RocketMqRemotingHandler extends AbstractHandler {
         }
     }
 
+    /**
+     * 批量发送消息
+     *
+     * @param producerName    生产者名称
+     * @param producerRecords 消息列表
+     * @return 发送结果，与消息顺序一致
+     */
+    @Override
+    public List<ProducerResult> sendBatch(String producerName, Collection<ProducerRecord> producerRecords) {
+        return rocketRemotingClient.sendBatch(producerName, producerRecords);
+    }
+
+    /**
+     * 异步批量发送消息
+     *
+     * @param producerName    生产者名称
+     * @param producerRecords 消息列表
+     * @return 发送结果，与消息顺序一致
+     */
+    @Override
+    public CompletableFuture<List<ProducerResult>> sendBatchAsync(String producerName, Collection<ProducerRecord> producerRecords) {
+        return rocketRemotingClient.sendBatchAsync(producerName, producerRecords);
+    }
+
     /**
      * 消息监听
      *
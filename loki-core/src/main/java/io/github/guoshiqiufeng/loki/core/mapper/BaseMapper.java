@@ -15,6 +15,10 @@
  */
 package io.github.guoshiqiufeng.loki.core.mapper;
 
+import io.github.guoshiqiufeng.loki.support.core.producer.ProducerResult;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -43,5 +47,20 @@ public interface BaseMapper<T> extends Mapper<T> {
      */
     CompletableFuture<String> sendAsync(T entity);
 
+    /**
+     * 批量发送消息
+     *
+     * @param entities 消息实体
+     * @return 发送结果，与消息实体顺序一致
+     */
+    List<ProducerResult> sendBatch(Collection<T> entities);
+
+    /**
+     * 异步批量发送消息
+     *
+     * @param entities 消息实体
+     * @return 发送结果，与消息实体顺序一致
+     */
+    CompletableFuture<List<ProducerResult>> sendBatchAsync(Collection<T> entities);
 
 }
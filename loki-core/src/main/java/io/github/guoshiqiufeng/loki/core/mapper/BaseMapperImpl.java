@@ -17,23 +17,31 @@ package io.github.guoshiqiufeng.loki.core.mapper;
 
 import com.alibaba.fastjson2.JSON;
 import io.github.guoshiqiufeng.loki.annotation.SendMessage;
-import io.github.guoshiqiufeng.loki.core.entity.MessageInfo;
+import io.github.guoshiqiufeng.loki.core.codec.MessageCodec;
+import io.github.guoshiqiufeng.loki.core.codec.MessageCodecUtils;
+import io.github.guoshiqiufeng.loki.core.entity.EntityInfo;
+import io.github.guoshiqiufeng.loki.core.entity.SendMessageInfo;
+import io.github.guoshiqiufeng.loki.core.handler.Handler;
 import io.github.guoshiqiufeng.loki.core.handler.HandlerHolder;
 import io.github.guoshiqiufeng.loki.core.toolkit.EntityInfoHelper;
+import io.github.guoshiqiufeng.loki.core.toolkit.ExpressionHelper;
 import io.github.guoshiqiufeng.loki.enums.MqType;
+import io.github.guoshiqiufeng.loki.support.core.config.GlobalConfig;
 import io.github.guoshiqiufeng.loki.support.core.config.LokiProperties;
+import io.github.guoshiqiufeng.loki.support.core.producer.ProducerRecord;
+import io.github.guoshiqiufeng.loki.support.core.producer.ProducerResult;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.expression.MethodBasedEvaluationContext;
-import org.springframework.core.DefaultParameterNameDiscoverer;
-import org.springframework.core.ParameterNameDiscoverer;
-import org.springframework.expression.ExpressionParser;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 基础mapper实现类
@@ -70,26 +78,31 @@ public class BaseMapperImpl<T> implements BaseMapper<T> {
     @Setter
     private Class<?> entityClass;
 
-    private final ExpressionParser expressionParser = new SpelExpressionParser();
-
-    private final ParameterNameDiscoverer nameDiscoverer = new DefaultParameterNameDiscoverer();
+    /**
+     * 注解方法信息缓存，表达式只解析一次
+     */
+    private final Map<Method, SendMessageInfo> sendMessageInfoCache = new ConcurrentHashMap<>();
 
     /**
-     * 发送消息
+     * 发送消息，在调用线程中直接发送
      *
      * @param entity 消息实体
      * @return messageId 消息id
      */
     @Override
     public String send(T entity) {
-        try {
-            return doSend(entity, false).get();
-        } catch (InterruptedException | ExecutionException e) {
-            if (log.isErrorEnabled()) {
-                log.error("BaseMapperImpl# send message error:{}", e.getMessage());
-            }
-            throw new RuntimeException(e);
+        EntityInfo entityInfo = getEntityInfo(entity);
+        // 获取@MessageKey注解字段值
+        String[] messageKeys = entityInfo.getMessageKeys(entity);
+        // 根据编解码器序列化消息
+        MessageCodec codec = getCodec(entityInfo.getCodec());
+        Handler handler = handlerHolder.route(getMqType());
+        if (codec.isBinary()) {
+            return handler.send(entityInfo.getProducer(), entityInfo.getTopic(), entityInfo.getTag(),
+                    codec.encode(entity), entityInfo.getDeliveryTimestamp(), messageKeys);
         }
+        return handler.send(entityInfo.getProducer(), entityInfo.getTopic(), entityInfo.getTag(),
+                codec.encodeToString(entity), entityInfo.getDeliveryTimestamp(), messageKeys);
     }
 
     /**
@@ -100,31 +113,93 @@ public class BaseMapperImpl<T> implements BaseMapper<T> {
      */
     @Override
     public CompletableFuture<String> sendAsync(T entity) {
-        return doSend(entity, true);
+        EntityInfo entityInfo = getEntityInfo(entity);
+        // 获取@MessageKey注解字段值
+        String[] messageKeys = entityInfo.getMessageKeys(entity);
+        // 根据编解码器序列化消息
+        MessageCodec codec = getCodec(entityInfo.getCodec());
+        Handler handler = handlerHolder.route(getMqType());
+        if (codec.isBinary()) {
+            return handler.sendAsync(entityInfo.getProducer(), entityInfo.getTopic(), entityInfo.getTag(),
+                    codec.encode(entity), entityInfo.getDeliveryTimestamp(), messageKeys);
+        }
+        return handler.sendAsync(entityInfo.getProducer(), entityInfo.getTopic(), entityInfo.getTag(),
+                codec.encodeToString(entity), entityInfo.getDeliveryTimestamp(), messageKeys);
     }
 
-    private CompletableFuture<String> doSend(T entity, boolean async) {
-        if (entity == null) {
-            throw new IllegalArgumentException("send entity must not be null");
+    /**
+     * 批量发送消息
+     *
+     * @param entities 消息实体
+     * @return 发送结果，与消息实体顺序一致
+     */
+    @Override
+    public List<ProducerResult> sendBatch(Collection<T> entities) {
+        if (entities == null || entities.isEmpty()) {
+            return Collections.emptyList();
         }
-        if (log.isDebugEnabled()) {
-            log.debug("BaseMapperImpl# sendAsync message:{}", entity);
+        EntityInfo entityInfo = EntityInfoHelper.getEntityInfo(entityClass);
+        return handlerHolder.route(getMqType()).sendBatch(entityInfo.getProducer(),
+                toProducerRecords(entityInfo, entities));
+    }
+
+    /**
+     * 异步批量发送消息
+     *
+     * @param entities 消息实体
+     * @return 发送结果，与消息实体顺序一致
+     */
+    @Override
+    public CompletableFuture<List<ProducerResult>> sendBatchAsync(Collection<T> entities) {
+        if (entities == null || entities.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
         }
-        MessageInfo messageInfo = EntityInfoHelper.getMessageInfo(entityClass);
+        EntityInfo entityInfo = EntityInfoHelper.getEntityInfo(entityClass);
+        return handlerHolder.route(getMqType()).sendBatchAsync(entityInfo.getProducer(),
+                toProducerRecords(entityInfo, entities));
+    }
 
-        // 遍历字段， 获取是否存在@MessageKey注解
-        String[] messageKeys = EntityInfoHelper.getMessageKeys(entityClass, entity);
+    /**
+     * 批量构建发送信息，编解码器与 topic 等信息只获取一次
+     *
+     * @param entityInfo 实体发送信息
+     * @param entities   消息实体
+     * @return 发送信息
+     */
+    private List<ProducerRecord> toProducerRecords(EntityInfo entityInfo, Collection<T> entities) {
+        MessageCodec codec = getCodec(entityInfo.getCodec());
+        List<ProducerRecord> producerRecords = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            if (entity == null) {
+                throw new IllegalArgumentException("send entity must not be null");
+            }
+            String[] messageKeys = entityInfo.getMessageKeys(entity);
+            List<String> keys = messageKeys == null ? null : Arrays.asList(messageKeys);
+            if (codec.isBinary()) {
+                producerRecords.add(new ProducerRecord(entityInfo.getTopic(), entityInfo.getTag(), null,
+                        entityInfo.getDeliveryTimestamp(), keys, codec.encode(entity)));
+            } else {
+                producerRecords.add(new ProducerRecord(entityInfo.getTopic(), entityInfo.getTag(),
+                        codec.encodeToString(entity), entityInfo.getDeliveryTimestamp(), keys));
+            }
+        }
+        return producerRecords;
+    }
 
-        // TODO 根据序列化方式序列化消息
-        String message = JSON.toJSONString(entity);
-        if (async) {
-            return handlerHolder.route(getMqType()).sendAsync(messageInfo.getProducer(),
-                    messageInfo.getTopic(), messageInfo.getTag(),
-                    message, messageInfo.getDeliveryTimestamp(), messageKeys);
+    /**
+     * 校验消息实体并获取实体发送信息
+     *
+     * @param entity 消息实体
+     * @return 实体发送信息
+     */
+    private EntityInfo getEntityInfo(T entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("send entity must not be null");
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("BaseMapperImpl# send message:{}", entity);
         }
-        return CompletableFuture.supplyAsync(() -> handlerHolder.route(getMqType()).send(messageInfo.getProducer(),
-                messageInfo.getTopic(), messageInfo.getTag(),
-                message, messageInfo.getDeliveryTimestamp(), messageKeys));
+        return EntityInfoHelper.getEntityInfo(entityClass);
     }
 
     /**
@@ -136,56 +211,27 @@ public class BaseMapperImpl<T> implements BaseMapper<T> {
      * @return messageId 消息id
      */
     public Object sendByAnnotation(SendMessage sendMessageAnnotation, Method method, Object[] args) {
-
-        // send message
-        boolean async = sendMessageAnnotation.async();
-        String messageExpression = sendMessageAnnotation.message();
-        String messageKeyExpression = sendMessageAnnotation.messageKey();
-
-        String producer = sendMessageAnnotation.producer();
-        String topic = sendMessageAnnotation.topic();
-        String tag = sendMessageAnnotation.tag();
-        long deliveryTimestamp = sendMessageAnnotation.deliveryTimestamp();
-
-        if (topic == null || topic.isEmpty()) {
-            // 获取默认topic
-            MessageInfo messageInfo = EntityInfoHelper.getMessageInfo(entityClass);
-            if (messageInfo != null && messageInfo.getTopic() != null && !messageInfo.getTopic().isEmpty()) {
-                topic = messageInfo.getTopic();
-                if (log.isDebugEnabled()) {
-                    log.debug("BaseMapperImpl# sendByAnnotation set default topic:{}", topic);
-                }
-            }
-        }
-
-        StandardEvaluationContext context = new MethodBasedEvaluationContext(null, method, args, nameDiscoverer);
+        SendMessageInfo sendMessageInfo = getSendMessageInfo(sendMessageAnnotation, method);
 
         String messageContent = "";
-        if (messageExpression != null && !messageExpression.isEmpty()) {
-            Object messageContentValue = expressionParser.parseExpression(messageExpression).getValue(context);
-            if (messageContentValue instanceof String) {
-                messageContent = (String) messageContentValue;
-            } else {
-                messageContent = JSON.toJSONString(messageContentValue);
-            }
+        if (sendMessageInfo.getMessageEvaluator() != null) {
+            messageContent = toMessageString(sendMessageInfo.getMessageEvaluator().apply(args));
         }
         String messageKeys = null;
-        if (messageKeyExpression != null && !messageKeyExpression.isEmpty()) {
-            Object messageKeyValue = expressionParser.parseExpression(messageKeyExpression).getValue(context);
-            if (messageKeyValue instanceof String) {
-                messageKeys = (String) messageKeyValue;
-            } else {
-                messageKeys = JSON.toJSONString(messageKeyValue);
-            }
+        if (sendMessageInfo.getMessageKeyEvaluator() != null) {
+            messageKeys = toMessageString(sendMessageInfo.getMessageKeyEvaluator().apply(args));
         }
 
-        Object messageId = async ? handlerHolder.route(getMqType()).sendAsync(producer, topic, tag,
+        String producer = sendMessageInfo.getProducer();
+        String topic = sendMessageInfo.getTopic();
+        String tag = sendMessageInfo.getTag();
+        Long deliveryTimestamp = sendMessageInfo.getDeliveryTimestamp();
+        Object messageId = sendMessageInfo.isAsync() ? handlerHolder.route(getMqType()).sendAsync(producer, topic, tag,
                 messageContent, deliveryTimestamp, messageKeys) :
                 handlerHolder.route(getMqType()).send(producer, topic, tag,
                         messageContent, deliveryTimestamp, messageKeys);
 
-        Class<?> returnType = method.getReturnType();
-        switch (returnType.getName()) {
+        switch (sendMessageInfo.getReturnTypeName()) {
             case "java.lang.String":
             case "java.util.concurrent.CompletableFuture":
                 return messageId;
@@ -196,6 +242,49 @@ public class BaseMapperImpl<T> implements BaseMapper<T> {
         }
     }
 
+    /**
+     * 获取注解方法信息
+     *
+     * @param sendMessageAnnotation 注解
+     * @param method                方法
+     * @return 注解方法信息
+     */
+    private SendMessageInfo getSendMessageInfo(SendMessage sendMessageAnnotation, Method method) {
+        SendMessageInfo sendMessageInfo = sendMessageInfoCache.get(method);
+        if (sendMessageInfo != null) {
+            return sendMessageInfo;
+        }
+        return sendMessageInfoCache.computeIfAbsent(method, m -> buildSendMessageInfo(sendMessageAnnotation, m));
+    }
+
+    private SendMessageInfo buildSendMessageInfo(SendMessage sendMessageAnnotation, Method method) {
+        String topic = sendMessageAnnotation.topic();
+        if (topic == null || topic.isEmpty()) {
+            // 获取默认topic
+            EntityInfo entityInfo = EntityInfoHelper.getEntityInfo(entityClass);
+            if (entityInfo != null && entityInfo.getTopic() != null && !entityInfo.getTopic().isEmpty()) {
+                topic = entityInfo.getTopic();
+                if (log.isDebugEnabled()) {
+                    log.debug("BaseMapperImpl# sendByAnnotation set default topic:{}", topic);
+                }
+            }
+        }
+        GlobalConfig globalConfig = lokiProperties == null ? null : lokiProperties.getGlobalConfig();
+        String compilerMode = globalConfig == null ? null : globalConfig.getSpelCompilerMode();
+        return new SendMessageInfo(sendMessageAnnotation.async(), sendMessageAnnotation.producer(), topic,
+                sendMessageAnnotation.tag(), sendMessageAnnotation.deliveryTimestamp(),
+                ExpressionHelper.compile(sendMessageAnnotation.message(), method, compilerMode),
+                ExpressionHelper.compile(sendMessageAnnotation.messageKey(), method, compilerMode),
+                method.getReturnType().getName());
+    }
+
+    private String toMessageString(Object value) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        return JSON.toJSONString(value);
+    }
+
     /**
      * 获取mq类型
      *
@@ -204,4 +293,15 @@ public class BaseMapperImpl<T> implements BaseMapper<T> {
     private MqType getMqType() {
         return lokiProperties.getGlobalConfig().getMqConfig().getMqType();
     }
+
+    /**
+     * 获取编解码器
+     *
+     * @param codecName 编解码器名称，为空时使用全局配置
+     * @return 编解码器
+     */
+    private MessageCodec getCodec(String codecName) {
+        GlobalConfig globalConfig = lokiProperties == null ? null : lokiProperties.getGlobalConfig();
+        return MessageCodecUtils.getCodec(codecName, globalConfig == null ? null : globalConfig.getCodec());
+    }
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.core.proxy;
+
+/**
+ * mapper 方法调用器
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 15:10
+ */
+@FunctionalInterface
+public interface MapperMethodInvoker {
+
+    /**
+     * 调用方法
+     *
+     * @param args 方法参数
+     * @return 方法返回值
+     * @throws Throwable 调用异常
+     */
+    Object invoke(Object[] args) throws Throwable;
+}
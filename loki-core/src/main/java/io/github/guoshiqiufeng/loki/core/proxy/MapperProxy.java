@@ -25,6 +25,10 @@ import io.github.guoshiqiufeng.loki.support.core.exception.LokiException;
 import java.io.Serializable;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * 代理类
@@ -40,6 +44,11 @@ public class MapperProxy<T> implements InvocationHandler, Serializable {
      */
     private final Class<T> mapperInterface;
 
+    /**
+     * Precomputed method invokers, built once when the proxy is created.
+     */
+    private final transient Map<Method, MapperMethodInvoker> methodInvokers;
+
     /**
      * Constructs a new {@code MapperProxy} instance for the specified mapper interface.
      *
@@ -47,6 +56,18 @@ public class MapperProxy<T> implements InvocationHandler, Serializable {
      */
     public MapperProxy(Class<T> mapperInterface) {
         this.mapperInterface = mapperInterface;
+        this.methodInvokers = Collections.emptyMap();
+    }
+
+    /**
+     * Constructs a new {@code MapperProxy} instance and precomputes the invoker of every mapper method.
+     *
+     * @param mapperInterface The class object representing the mapper interface.
+     * @param baseMapper      The {@code BaseMapper} instance the mapper methods are dispatched to.
+     */
+    public MapperProxy(Class<T> mapperInterface, BaseMapper<?> baseMapper) {
+        this.mapperInterface = mapperInterface;
+        this.methodInvokers = createMethodInvokers(mapperInterface, baseMapper);
     }
 
     /**
@@ -61,6 +82,12 @@ public class MapperProxy<T> implements InvocationHandler, Serializable {
      */
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Map<Method, MapperMethodInvoker> invokers = methodInvokers;
+        MapperMethodInvoker invoker = invokers == null ? null : invokers.get(method);
+        if (invoker != null) {
+            return invoker.invoke(args);
+        }
+
         // Retrieve the dynamically obtained instance of BaseMapper associated with the mapperInterface
         BaseMapper<?> baseMapperInstance = BaseCache.getBaseMapperInstance(mapperInterface);
 
@@ -78,4 +105,50 @@ public class MapperProxy<T> implements InvocationHandler, Serializable {
         throw new LokiException("No support method %s, in %s", method.getName(), mapperInterface);
     }
 
+    /**
+     * Builds the {@code Method -> invoker} table of the mapper interface.
+     *
+     * @param mapperInterface the mapper interface
+     * @param baseMapper      the {@code BaseMapper} instance
+     * @return method invokers
+     */
+    private static Map<Method, MapperMethodInvoker> createMethodInvokers(Class<?> mapperInterface,
+                                                                         BaseMapper<?> baseMapper) {
+        Map<Method, MapperMethodInvoker> invokers = new HashMap<>();
+        for (Method method : mapperInterface.getMethods()) {
+            MapperMethodInvoker invoker = createMethodInvoker(method, baseMapper);
+            if (invoker != null) {
+                invokers.put(method, invoker);
+            }
+        }
+        return invokers;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MapperMethodInvoker createMethodInvoker(Method method, BaseMapper<?> baseMapper) {
+        MethodType methodType = MethodType.getByCode(method.getName());
+        if (methodType != null && method.getDeclaringClass().isInstance(baseMapper)) {
+            BaseMapper<Object> mapper = (BaseMapper<Object>) baseMapper;
+            switch (methodType) {
+                case SEND:
+                    return args -> mapper.send(args[0]);
+                case SEND_ASYNC:
+                    return args -> mapper.sendAsync(args[0]);
+                case SEND_BATCH:
+                    return args -> mapper.sendBatch((Collection<Object>) args[0]);
+                case SEND_BATCH_ASYNC:
+                    return args -> mapper.sendBatchAsync((Collection<Object>) args[0]);
+                default:
+                    break;
+            }
+        }
+
+        SendMessage sendMessageAnnotation = method.getAnnotation(SendMessage.class);
+        if (sendMessageAnnotation != null && baseMapper instanceof BaseMapperImpl) {
+            BaseMapperImpl<?> mapper = (BaseMapperImpl<?>) baseMapper;
+            return args -> mapper.sendByAnnotation(sendMessageAnnotation, method, args);
+        }
+        return null;
+    }
+
 }
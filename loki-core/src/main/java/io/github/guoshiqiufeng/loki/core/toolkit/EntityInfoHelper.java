@@ -17,6 +17,7 @@ package io.github.guoshiqiufeng.loki.core.toolkit;
 
 import io.github.guoshiqiufeng.loki.annotation.MessageKey;
 import io.github.guoshiqiufeng.loki.annotation.MessageName;
+import io.github.guoshiqiufeng.loki.core.entity.EntityInfo;
 import io.github.guoshiqiufeng.loki.core.entity.MessageInfo;
 import io.github.guoshiqiufeng.loki.support.core.exception.LokiException;
 import io.github.guoshiqiufeng.loki.support.core.util.StringUtils;
@@ -24,11 +25,16 @@ import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
-import java.util.HashSet;
-import java.util.Optional;
-import java.util.Set;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 实体信息工具类
@@ -41,6 +47,25 @@ import java.util.Set;
 @UtilityClass
 public class EntityInfoHelper {
 
+    /**
+     * 实体信息缓存
+     */
+    private final Map<Class<?>, EntityInfo> ENTITY_INFO_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 获取实体信息，首次获取时解析并缓存
+     *
+     * @param entityClass 实体类class
+     * @return 实体信息
+     */
+    public EntityInfo getEntityInfo(Class<?> entityClass) {
+        EntityInfo entityInfo = ENTITY_INFO_CACHE.get(entityClass);
+        if (entityInfo != null) {
+            return entityInfo;
+        }
+        return ENTITY_INFO_CACHE.computeIfAbsent(entityClass, EntityInfoHelper::buildEntityInfo);
+    }
+
     /**
      * 获取消息信息
      *
@@ -48,6 +73,37 @@ public class EntityInfoHelper {
      * @return 消息信息
      */
     public MessageInfo getMessageInfo(Class<?> entityClass) {
+        return getEntityInfo(entityClass).toMessageInfo();
+    }
+
+    /**
+     * 获取消息key
+     *
+     * @param entityClass 实体类class
+     * @param entity      实体类
+     * @return 消息key
+     */
+    public String[] getMessageKeys(Class<?> entityClass, Object entity) {
+        return getEntityInfo(entityClass).getMessageKeys(entity);
+    }
+
+    /**
+     * 解析实体信息
+     *
+     * @param entityClass 实体类class
+     * @return 实体信息
+     */
+    private EntityInfo buildEntityInfo(Class<?> entityClass) {
+        return new EntityInfo(entityClass, resolveMessageInfo(entityClass), resolveMessageKeyGetters(entityClass));
+    }
+
+    /**
+     * 解析消息信息
+     *
+     * @param entityClass 实体类class
+     * @return 消息信息
+     */
+    private MessageInfo resolveMessageInfo(Class<?> entityClass) {
         MessageInfo result = new MessageInfo();
         // 获取实体注解中信息
         MessageName annotation = getAnnotation(entityClass, MessageName.class);
@@ -77,43 +133,39 @@ public class EntityInfoHelper {
                 .setDeliveryTimestamp(deliveryTimestamp)
                 .setConsumptionThreadCount(consumptionThreadCount)
                 .setMaxCacheMessageCount(maxCacheMessageCount)
+                .setCodec(annotation.codec())
         ;
         return result;
     }
 
     /**
-     * 获取消息key
+     * 解析@MessageKey字段取值器，静态字段忽略实体参数
      *
      * @param entityClass 实体类class
-     * @param entity      实体类
-     * @return 消息key
+     * @return 取值器
      */
-    public String[] getMessageKeys(Class<?> entityClass, Object entity) {
-        Set<String> keys = new HashSet<>();
-        Field[] declaredFields = entityClass.getDeclaredFields();
-        for (Field declaredField : declaredFields) {
-            MessageKey messageKeyAnnotation = declaredField.getAnnotation(MessageKey.class);
-            if (messageKeyAnnotation != null) {
-                try {
-                    declaredField.setAccessible(true);
-                    Object value = declaredField.get(entity);
-                    String messageKey = Optional.ofNullable(value)
-                            .map(Object::toString).orElse(null);
-                    if (log.isErrorEnabled()) {
-                        log.debug("EntityInfoHelper# send message key:{}", messageKey);
-                    }
-                    if (messageKey != null) {
-                        keys.add(messageKey);
-                    }
-                } catch (Exception e) {
-                    throw new LokiException("send entity get message key error");
+    private MethodHandle[] resolveMessageKeyGetters(Class<?> entityClass) {
+        List<MethodHandle> getters = new ArrayList<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (Field declaredField : entityClass.getDeclaredFields()) {
+            if (declaredField.getAnnotation(MessageKey.class) == null) {
+                continue;
+            }
+            try {
+                declaredField.setAccessible(true);
+                MethodHandle getter = lookup.unreflectGetter(declaredField);
+                if (Modifier.isStatic(declaredField.getModifiers())) {
+                    getter = MethodHandles.dropArguments(getter, 0, Object.class);
                 }
+                getters.add(getter.asType(MethodType.methodType(Object.class, Object.class)));
+            } catch (Exception e) {
+                throw new LokiException("send entity get message key error, field:" + declaredField.getName(), e);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("EntityInfoHelper# {} message key field:{}", entityClass.getName(), declaredField.getName());
             }
         }
-        if (keys.isEmpty()) {
-            return null;
-        }
-        return keys.toArray(new String[0]);
+        return getters.toArray(new MethodHandle[0]);
     }
 
     /**
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.core.toolkit;
+
+import io.github.guoshiqiufeng.loki.support.core.util.StringUtils;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 方法参数表达式工具类
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 14:20
+ */
+@Slf4j
+@UtilityClass
+public class ExpressionHelper {
+
+    /**
+     * 仅引用单个参数的表达式，如 #name、#p0、#a0
+     */
+    private final Pattern PARAMETER_REFERENCE = Pattern.compile("^\\s*#([A-Za-z_$][A-Za-z0-9_$]*)\\s*$");
+
+    private final Pattern PARAMETER_INDEX = Pattern.compile("^[pa](\\d+)$");
+
+    private final ParameterNameDiscoverer NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+    /**
+     * 编译方法参数表达式
+     *
+     * @param expression   表达式
+     * @param method       方法
+     * @param compilerMode 编译模式 off、immediate、mixed
+     * @return 表达式求值函数，入参为方法参数；表达式为空时返回null
+     */
+    public Function<Object[], Object> compile(String expression, Method method, String compilerMode) {
+        if (StringUtils.isEmpty(expression)) {
+            return null;
+        }
+        String[] parameterNames = getParameterNames(method);
+
+        // 直接引用参数时无需解析表达式
+        int index = getParameterIndex(expression, parameterNames);
+        if (index >= 0) {
+            if (log.isDebugEnabled()) {
+                log.debug("ExpressionHelper# {} use parameter {} directly", expression, index);
+            }
+            return args -> args == null || args.length <= index ? null : args[index];
+        }
+
+        SpelParserConfiguration configuration = new SpelParserConfiguration(getCompilerMode(compilerMode),
+                method.getDeclaringClass().getClassLoader());
+        Expression parsed = new SpelExpressionParser(configuration).parseExpression(expression);
+        String[] indexNames = getIndexNames(parameterNames.length);
+        return args -> parsed.getValue(createContext(parameterNames, indexNames, args));
+    }
+
+    /**
+     * 创建求值上下文，变量与 MethodBasedEvaluationContext 保持一致
+     *
+     * @param parameterNames 参数名
+     * @param indexNames     下标参数名 a0、p0
+     * @param args           参数
+     * @return 求值上下文
+     */
+    private StandardEvaluationContext createContext(String[] parameterNames, String[] indexNames, Object[] args) {
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        if (args == null) {
+            return context;
+        }
+        int length = Math.min(parameterNames.length, args.length);
+        for (int i = 0; i < length; i++) {
+            context.setVariable(indexNames[i << 1], args[i]);
+            context.setVariable(indexNames[(i << 1) + 1], args[i]);
+            if (parameterNames[i] != null) {
+                context.setVariable(parameterNames[i], args[i]);
+            }
+        }
+        return context;
+    }
+
+    /**
+     * 获取表达式直接引用的参数下标
+     *
+     * @param expression     表达式
+     * @param parameterNames 参数名
+     * @return 参数下标，非直接引用时返回-1
+     */
+    private int getParameterIndex(String expression, String[] parameterNames) {
+        Matcher matcher = PARAMETER_REFERENCE.matcher(expression);
+        if (!matcher.matches()) {
+            return -1;
+        }
+        String name = matcher.group(1);
+        for (int i = 0; i < parameterNames.length; i++) {
+            if (name.equals(parameterNames[i])) {
+                return i;
+            }
+        }
+        Matcher indexMatcher = PARAMETER_INDEX.matcher(name);
+        if (indexMatcher.matches()) {
+            int index = Integer.parseInt(indexMatcher.group(1));
+            return index < parameterNames.length ? index : -1;
+        }
+        return -1;
+    }
+
+    private String[] getIndexNames(int parameterCount) {
+        String[] indexNames = new String[parameterCount << 1];
+        for (int i = 0; i < parameterCount; i++) {
+            indexNames[i << 1] = "a" + i;
+            indexNames[(i << 1) + 1] = "p" + i;
+        }
+        return indexNames;
+    }
+
+    private String[] getParameterNames(Method method) {
+        String[] parameterNames = NAME_DISCOVERER.getParameterNames(method);
+        return parameterNames == null ? new String[method.getParameterCount()] : parameterNames;
+    }
+
+    private SpelCompilerMode getCompilerMode(String compilerMode) {
+        if (StringUtils.isEmpty(compilerMode)) {
+            return SpelCompilerMode.OFF;
+        }
+        try {
+            return SpelCompilerMode.valueOf(compilerMode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            if (log.isWarnEnabled()) {
+                log.warn("ExpressionHelper# unknown spel compiler mode:{}, use off", compilerMode);
+            }
+            return SpelCompilerMode.OFF;
+        }
+    }
+}
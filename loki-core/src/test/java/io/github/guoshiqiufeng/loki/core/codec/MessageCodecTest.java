@@ -0,0 +1,90 @@
+package io.github.guoshiqiufeng.loki.core.codec;
+
+import io.github.guoshiqiufeng.loki.support.core.exception.LokiException;
+import lombok.Data;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 23:40
+ */
+public class MessageCodecTest {
+
+    @Test
+    public void testJsonRoundTrip() {
+        MessageCodec codec = MessageCodecUtils.getCodec(JsonMessageCodec.NAME, null);
+        Assertions.assertFalse(codec.isBinary());
+
+        TestMessage message = createMessage();
+        Assertions.assertEquals(message, codec.decode(codec.encode(message), TestMessage.class));
+        Assertions.assertEquals(message, codec.decodeFromString(codec.encodeToString(message), TestMessage.class));
+        Assertions.assertEquals("plain text", codec.decodeFromString("plain text", String.class));
+    }
+
+    @Test
+    public void testJsonbRoundTrip() {
+        MessageCodec codec = MessageCodecUtils.getCodec(JsonbMessageCodec.NAME, null);
+        Assertions.assertTrue(codec.isBinary());
+
+        TestMessage message = createMessage();
+        Assertions.assertEquals(message, codec.decode(codec.encode(message), TestMessage.class));
+    }
+
+    @Test
+    public void testCompactRoundTrip() {
+        MessageCodec codec = MessageCodecUtils.getCodec(CompactMessageCodec.NAME, null);
+        Assertions.assertTrue(codec.isBinary());
+
+        TestMessage message = createMessage();
+        Assertions.assertEquals(message, codec.decode(codec.encode(message), TestMessage.class));
+        Assertions.assertNull(codec.decode(new byte[0], TestMessage.class));
+    }
+
+    @Test
+    public void testRawRoundTrip() {
+        MessageCodec codec = MessageCodecUtils.getCodec(RawMessageCodec.NAME, null);
+        Assertions.assertTrue(codec.isBinary());
+
+        byte[] bytes = "raw message".getBytes(StandardCharsets.UTF_8);
+        Assertions.assertSame(bytes, codec.decode(codec.encode(bytes), byte[].class));
+        Assertions.assertEquals("raw message", codec.decode(codec.encode("raw message"), String.class));
+        Assertions.assertNull(codec.decode(null, String.class));
+    }
+
+    @Test
+    public void testRawNotSupportType() {
+        Assertions.assertThrows(LokiException.class,
+                () -> MessageCodecUtils.getCodec(RawMessageCodec.NAME, null).encode(createMessage()));
+    }
+
+    @Test
+    public void testGetCodec() {
+        Assertions.assertEquals(JsonMessageCodec.NAME, MessageCodecUtils.getCodec(null, null).getName());
+        Assertions.assertEquals(CompactMessageCodec.NAME, MessageCodecUtils.getCodec("", CompactMessageCodec.NAME).getName());
+        Assertions.assertEquals(JsonbMessageCodec.NAME, MessageCodecUtils.getCodec("JSONB", null).getName());
+    }
+
+    @Test
+    public void testGetUnknownCodec() {
+        Assertions.assertThrows(LokiException.class, () -> MessageCodecUtils.getCodec("unknown", null));
+    }
+
+    private TestMessage createMessage() {
+        TestMessage message = new TestMessage();
+        message.setId(1L);
+        message.setName("loki");
+        return message;
+    }
+
+    @Data
+    public static class TestMessage {
+
+        private Long id;
+
+        private String name;
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.guoshiqiufeng.loki.core.toolkit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.function.Function;
+
+/**
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 23:45
+ */
+public class ExpressionHelperTest {
+
+    private final Method method = getMethod();
+
+    @Test
+    public void testEmptyExpression() {
+        Assertions.assertNull(ExpressionHelper.compile(null, method, null));
+        Assertions.assertNull(ExpressionHelper.compile("", method, null));
+    }
+
+    @Test
+    public void testParameterReference() {
+        Object key = new Object();
+        Object[] args = new Object[]{key, 2};
+
+        // 直接引用参数时返回参数本身
+        Assertions.assertSame(key, ExpressionHelper.compile("#p0", method, null).apply(args));
+        Assertions.assertSame(key, ExpressionHelper.compile(" #a0 ", method, null).apply(args));
+        Assertions.assertEquals(2, ExpressionHelper.compile("#p1", method, null).apply(args));
+        Assertions.assertNull(ExpressionHelper.compile("#p1", method, null).apply(new Object[]{key}));
+        Assertions.assertNull(ExpressionHelper.compile("#p0", method, null).apply(null));
+    }
+
+    @Test
+    public void testSpelExpression() {
+        Object[] args = new Object[]{"loki", 2};
+
+        Assertions.assertEquals("loki-2", ExpressionHelper.compile("#p0 + '-' + #a1", method, null).apply(args));
+        Assertions.assertEquals(4, ExpressionHelper.compile("#p0.length()", method, null).apply(args));
+        Assertions.assertNull(ExpressionHelper.compile("#p5", method, null).apply(args));
+    }
+
+    @Test
+    public void testCompilerMode() {
+        Object[] args = new Object[]{"loki", 2};
+
+        Function<Object[], Object> immediate = ExpressionHelper.compile("#p1 * 2", method, "immediate");
+        Assertions.assertEquals(4, immediate.apply(args));
+        Assertions.assertEquals(4, immediate.apply(args));
+
+        Function<Object[], Object> unknown = ExpressionHelper.compile("#p1 * 2", method, "unknown");
+        Assertions.assertEquals(4, unknown.apply(args));
+    }
+
+    private static Method getMethod() {
+        try {
+            return ExpressionHelperTest.class.getDeclaredMethod("sample", Object.class, Integer.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static String sample(Object key, Integer count) {
+        return String.valueOf(key) + count;
+    }
+}
@@ -19,7 +19,11 @@ import io.github.guoshiqiufeng.loki.MessageContent;
 import io.github.guoshiqiufeng.loki.support.core.consumer.ConsumerConfig;
 import io.github.guoshiqiufeng.loki.support.core.producer.ProducerRecord;
 import io.github.guoshiqiufeng.loki.support.core.producer.ProducerResult;
+import io.github.guoshiqiufeng.loki.support.core.util.ExecutorUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
@@ -70,6 +74,46 @@ public interface LokiClient {
      */
     CompletableFuture<ProducerResult> sendAsync(String groupName, ProducerRecord producerRecord);
 
+    /**
+     * 批量发送消息
+     *
+     * @param producerRecords 发送信息
+     * @return 发送消息结果，与发送信息顺序一致
+     */
+    default List<ProducerResult> sendBatch(Collection<ProducerRecord> producerRecords) {
+        return sendBatch(null, producerRecords);
+    }
+
+    /**
+     * 批量发送消息，默认逐条发送，客户端可使用原生批量能力覆盖
+     *
+     * @param groupName       组名称
+     * @param producerRecords 发送信息
+     * @return 发送消息结果，与发送信息顺序一致
+     */
+    default List<ProducerResult> sendBatch(String groupName, Collection<ProducerRecord> producerRecords) {
+        List<ProducerResult> results = new ArrayList<>(producerRecords.size());
+        for (ProducerRecord producerRecord : producerRecords) {
+            try {
+                results.add(send(groupName, producerRecord));
+            } catch (Exception e) {
+                results.add(ProducerResult.failure(producerRecord == null ? null : producerRecord.getTopic(), e));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 异步批量发送消息
+     *
+     * @param groupName       组名称
+     * @param producerRecords 发送信息
+     * @return 发送消息结果，与发送信息顺序一致
+     */
+    default CompletableFuture<List<ProducerResult>> sendBatchAsync(String groupName, Collection<ProducerRecord> producerRecords) {
+        return CompletableFuture.supplyAsync(() -> sendBatch(groupName, producerRecords), ExecutorUtils.getSendExecutor());
+    }
+
     /**
      * 消费消息
      *
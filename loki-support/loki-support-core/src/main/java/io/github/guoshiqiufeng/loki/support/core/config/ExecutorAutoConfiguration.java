@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.core.config;
+
+import io.github.guoshiqiufeng.loki.support.core.util.ExecutorUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.AutoConfigureOrder;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * 线程池配置，优先于其他配置加载，容器关闭时关闭线程池
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 17:50
+ */
+@Configuration
+@AutoConfigureOrder(Ordered.HIGHEST_PRECEDENCE)
+public class ExecutorAutoConfiguration implements DisposableBean {
+
+    /**
+     * 构造函数
+     *
+     * @param lokiProperties loki配置
+     */
+    public ExecutorAutoConfiguration(LokiProperties lokiProperties) {
+        GlobalConfig globalConfig = lokiProperties.getGlobalConfig();
+        ExecutorUtils.init(lokiProperties.getExecutors(), globalConfig != null && globalConfig.isVirtualThreads());
+    }
+
+    @Override
+    public void destroy() {
+        ExecutorUtils.shutdown();
+    }
+}
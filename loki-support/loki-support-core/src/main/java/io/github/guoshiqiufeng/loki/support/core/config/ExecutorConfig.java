@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.core.config;
+
+import io.github.guoshiqiufeng.loki.enums.ExecutorQueueType;
+import io.github.guoshiqiufeng.loki.enums.RejectionPolicyType;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+
+/**
+ * 线程池配置，对应 loki.executors.*
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 17:25
+ */
+@Data
+@Accessors(chain = true)
+public class ExecutorConfig implements Serializable {
+
+    /**
+     * 发送线程池，用于异步发送
+     */
+    private PoolConfig send;
+
+    /**
+     * 消费线程池，用于消息处理、历史数据恢复等有限任务；拉取、订阅等常驻循环运行在独立线程中，不占用该线程池
+     */
+    private PoolConfig consume;
+
+    /**
+     * 调度线程池，用于延时、周期任务，队列配置不生效
+     */
+    private PoolConfig scheduler;
+
+    /**
+     * 线程池配置类
+     */
+    @Data
+    @Accessors(chain = true)
+    public static class PoolConfig implements Serializable {
+
+        /**
+         * 线程名前缀
+         */
+        private String threadNamePrefix;
+
+        /**
+         * 核心线程数
+         */
+        private int corePoolSize;
+
+        /**
+         * 最大线程数
+         */
+        private int maxPoolSize;
+
+        /**
+         * 空闲线程存活时间，单位秒
+         */
+        private long keepAliveSeconds;
+
+        /**
+         * 核心线程是否允许超时回收
+         */
+        private boolean allowCoreThreadTimeOut;
+
+        /**
+         * 队列类型
+         */
+        private ExecutorQueueType queueType;
+
+        /**
+         * 队列容量
+         */
+        private int queueCapacity;
+
+        /**
+         * 拒绝策略
+         */
+        private RejectionPolicyType rejectionPolicy;
+
+        /**
+         * 关闭时等待任务结束时间，单位秒
+         */
+        private long awaitTerminationSeconds;
+
+        /**
+         * 拒绝策略为 block 时等待队列空位的最长时间，单位毫秒，超时后拒绝任务，小于等于0时使用默认 60000
+         */
+        private long blockTimeoutMillis;
+    }
+}
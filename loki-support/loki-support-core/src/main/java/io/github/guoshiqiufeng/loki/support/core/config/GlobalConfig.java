@@ -54,6 +54,24 @@ public class GlobalConfig implements Serializable {
      */
     private long redisHistoryDelayMessageSendTime;
 
+    /**
+     * SendMessage 注解表达式编译模式 off、immediate、mixed<br>
+     * 默认 off，不编译
+     */
+    private String spelCompilerMode;
+
+    /**
+     * 消息编解码器 json、jsonb、raw、compact<br>
+     * 默认 json
+     */
+    private String codec;
+
+    /**
+     * 是否使用虚拟线程执行发送与消费任务，需要 Java 21 及以上运行环境<br>
+     * 默认 false，运行环境不支持时使用平台线程
+     */
+    private boolean virtualThreads;
+
     /**
      * mq配置类
      */
@@ -95,5 +113,10 @@ public class GlobalConfig implements Serializable {
          * 发送最大尝试次数, 默认3次
          */
         private int maxAttempts;
+
+        /**
+         * 同步发送等待超时时间，单位毫秒，默认30000ms，小于等于0时一直等待
+         */
+        private long sendTimeout;
     }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.core.config;
+
+import io.github.guoshiqiufeng.loki.enums.KafkaConsumeOrder;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+
+/**
+ * kafka 配置
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 22:35
+ */
+@Data
+@Accessors(chain = true)
+public class KafkaConfig implements Serializable {
+
+    /**
+     * 是否并行消费，默认 false<br>
+     * 开启后一次拉取的消息交给 consumptionThreadCount 个线程处理，处理中的消息超过 maxCacheMessageCount 时暂停拉取；
+     * 分区位点只在之前的消息全部处理完成后提交，并关闭该消费者的自动提交
+     */
+    private boolean parallelConsume;
+
+    /**
+     * 并行消费顺序，默认 key
+     */
+    private KafkaConsumeOrder consumeOrder;
+
+    /**
+     * 是否由 loki 管理位点，默认 true<br>
+     * 开启后关闭自动提交，只提交处理完成的位点，保证至少一次消费；并行消费时始终开启
+     */
+    private boolean managedCommit;
+
+    /**
+     * 位点提交条数，每处理完成多少条消息异步提交一次，默认 100
+     */
+    private int commitBatchSize;
+
+    /**
+     * 位点提交间隔，单位毫秒，默认 1000
+     */
+    private long commitIntervalMillis;
+
+    /**
+     * 监听处理失败时的重试次数，默认 3<br>
+     * 由 loki 管理位点时失败的消息重新拉取，超过重试次数后跳过
+     */
+    private int listenerRetryTimes;
+
+    /**
+     * 监听处理失败后重试的间隔，单位毫秒，默认 1000<br>
+     * 等待期间暂停失败的分区，其他分区正常消费
+     */
+    private long listenerRetryIntervalMillis;
+
+    /**
+     * 是否使用静态成员，默认 true<br>
+     * group.instance.id 为 消费分组_实例标识_监听序号[_消费者序号]，重启后保持不变，在 session.timeout.ms 内重启不会触发重平衡
+     */
+    private boolean staticMembership;
+
+    /**
+     * 静态成员实例标识，默认使用主机名；同一主机运行多个实例时需分别配置
+     */
+    private String instanceId;
+
+    /**
+     * 并行消费时分区回收等待处理中消息完成的最长时间，单位毫秒，默认 10000，需小于 max.poll.interval.ms
+     */
+    private long rebalanceDrainTimeoutMillis;
+
+    /**
+     * 顺序消费时是否按 consumptionThreadCount 为每个监听启动多个消费者，默认 true<br>
+     * 开启后消费者数量为 consumptionThreadCount、maxConsumersPerListener 与订阅分区数的最小值，
+     * 每个消费者占用一个连接与一个线程
+     */
+    private boolean multiConsumer;
+
+    /**
+     * 顺序消费时每个监听的最大消费者数量，默认 4
+     */
+    private int maxConsumersPerListener;
+
+    /**
+     * 单个监听拉取的最大字节数，按监听的消费者数量平分为每个消费者的 fetch.max.bytes，默认 0 使用 kafka 配置
+     */
+    private int fetchMaxBytes;
+}
@@ -44,4 +44,16 @@ public class LokiProperties implements Serializable {
 
     @NestedConfigurationProperty
     private RedisConfig redis;
+
+    /**
+     * kafka 配置
+     */
+    @NestedConfigurationProperty
+    private KafkaConfig kafka;
+
+    /**
+     * 线程池配置
+     */
+    @NestedConfigurationProperty
+    private ExecutorConfig executors;
 }
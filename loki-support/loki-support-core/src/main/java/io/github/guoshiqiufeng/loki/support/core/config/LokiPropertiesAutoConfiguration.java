@@ -15,7 +15,11 @@
  */
 package io.github.guoshiqiufeng.loki.support.core.config;
 
+import io.github.guoshiqiufeng.loki.enums.KafkaConsumeOrder;
+import io.github.guoshiqiufeng.loki.enums.RedisMode;
 import io.github.guoshiqiufeng.loki.enums.RedisSupportType;
+import io.github.guoshiqiufeng.loki.enums.RejectionPolicyType;
+import io.github.guoshiqiufeng.loki.support.core.util.ExecutorUtils;
 import io.github.guoshiqiufeng.loki.support.core.util.GlobalConfigUtils;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -43,7 +47,44 @@ public class LokiPropertiesAutoConfiguration {
     public LokiProperties lokiProperties() {
         LokiProperties autoConfigurationProperties = new LokiProperties();
         autoConfigurationProperties.setGlobalConfig(GlobalConfigUtils.defaults());
-        autoConfigurationProperties.setRedis(new RedisConfig().setSupportType(RedisSupportType.DEFAULT));
+        autoConfigurationProperties.setRedis(new RedisConfig()
+                .setSupportType(RedisSupportType.DEFAULT)
+                .setListenerOrderly(false)
+                .setListenerOverflowPolicy(RejectionPolicyType.ABORT)
+                .setShardedPubSub(false)
+                .setSubscriberConnections(1)
+                .setPublishBatchEnabled(false)
+                .setPublishBatchSize(100)
+                .setPublishBatchBytes(64 * 1024)
+                .setPublishLingerMillis(1)
+                .setMode(RedisMode.PUBSUB)
+                .setStreamMaxLen(100000)
+                .setStreamBatchSize(100)
+                .setStreamBlockMillis(1000)
+                .setStreamClaimIdleMillis(60000)
+                .setStreamMaxDeliveries(16)
+                .setStreamConsumerExpireMillis(3600000)
+                .setDeliveryPollIntervalMillis(500)
+                .setDeliveryBatchSize(100)
+                .setDeliveryRetryIntervalMillis(30000)
+                .setDeliveryLeaseMillis(10000)
+                .setDeliveryBuckets(1)
+                .setDeliveryRecoveryBatchSize(500)
+                .setDeliveryRecoveryParallelism(4));
+        autoConfigurationProperties.setKafka(new KafkaConfig()
+                .setParallelConsume(false)
+                .setConsumeOrder(KafkaConsumeOrder.KEY)
+                .setManagedCommit(true)
+                .setCommitBatchSize(100)
+                .setCommitIntervalMillis(1000)
+                .setListenerRetryTimes(3)
+                .setListenerRetryIntervalMillis(1000)
+                .setStaticMembership(true)
+                .setRebalanceDrainTimeoutMillis(10000)
+                .setMultiConsumer(true)
+                .setMaxConsumersPerListener(4)
+                .setFetchMaxBytes(0));
+        autoConfigurationProperties.setExecutors(ExecutorUtils.defaults());
         return autoConfigurationProperties;
     }
 }
@@ -15,7 +15,9 @@
  */
 package io.github.guoshiqiufeng.loki.support.core.config;
 
+import io.github.guoshiqiufeng.loki.enums.RedisMode;
 import io.github.guoshiqiufeng.loki.enums.RedisSupportType;
+import io.github.guoshiqiufeng.loki.enums.RejectionPolicyType;
 import lombok.Data;
 import lombok.experimental.Accessors;
 
@@ -32,4 +34,129 @@ public class RedisConfig implements Serializable {
 
     private RedisSupportType supportType;
 
+    /**
+     * 监听是否按频道保证顺序<br>
+     * 开启后同一频道的消息由同一线程依次处理，默认 false
+     */
+    private boolean listenerOrderly;
+
+    /**
+     * 监听缓存队列已满时的处理策略，默认 abort<br>
+     * block：阻塞订阅线程，订阅连接上的所有频道都停止接收，消息积压在 redis 服务端输出缓冲区，
+     * 超过 client-output-buffer-limit pubsub 后连接会被断开；
+     * caller-runs：在订阅线程中直接处理，不保证顺序；
+     * discard、discard-oldest：丢弃消息；abort：丢弃消息并记录日志
+     */
+    private RejectionPolicyType listenerOverflowPolicy;
+
+    /**
+     * 集群模式下是否使用分片发布订阅（SPUBLISH/SSUBSCRIBE），需要 redis 7.0 以上，默认 false<br>
+     * 开启后消息只发送到频道所在 slot 的节点，不再通过集群总线广播到所有节点；仅对 jedis 集群实现生效，不支持 topicPattern；每个节点共用一个订阅连接
+     */
+    private boolean shardedPubSub;
+
+    /**
+     * jedis 订阅连接数，默认 1<br>
+     * 所有频道与规则按哈希分配到这些连接上，每个连接占用一个线程，连接断开后自动重连并重新订阅
+     */
+    private int subscriberConnections;
+
+    /**
+     * 是否合并并发的发布请求，默认 false<br>
+     * 开启后发布请求先进入累加器，达到 publishBatchSize、publishBatchBytes 或等待 publishLingerMillis 后通过 pipeline 一次发布
+     */
+    private boolean publishBatchEnabled;
+
+    /**
+     * 合并发布的最大消息数
+     */
+    private int publishBatchSize;
+
+    /**
+     * 合并发布的最大字节数（按字符数估算）
+     */
+    private long publishBatchBytes;
+
+    /**
+     * 合并发布的最大等待时间，单位毫秒，为 0 时不等待
+     */
+    private long publishLingerMillis;
+
+    /**
+     * 消息模式，默认 pubsub<br>
+     * stream 模式下消息写入 loki:stream:{topic}，消费者按 consumerGroup 加入消费组
+     */
+    private RedisMode mode;
+
+    /**
+     * stream 最大长度，写入时按 MAXLEN ~ 近似裁剪，小于等于 0 时不裁剪
+     */
+    private long streamMaxLen;
+
+    /**
+     * stream 每次 XREADGROUP 拉取的最大消息数
+     */
+    private int streamBatchSize;
+
+    /**
+     * stream 无消息时 XREADGROUP 阻塞等待时间，单位毫秒，应小于连接读超时时间
+     */
+    private long streamBlockMillis;
+
+    /**
+     * stream 消息未确认超过该时间后由其他消费者通过 XAUTOCLAIM 接管，同时作为接管检查间隔，单位毫秒，默认 60000<br>
+     * 处理失败的消息只通过接管重新投递并统计投递次数，不能关闭，小于等于 0 时使用默认值
+     */
+    private long streamClaimIdleMillis;
+
+    /**
+     * stream 消息最大投递次数，默认 16，小于等于 0 时不限制<br>
+     * 接管时投递次数已达到该值的消息写入死信 stream loki:stream:{topic}:dead-letter 后确认，不再重新投递
+     */
+    private int streamMaxDeliveries;
+
+    /**
+     * stream 消费者空闲超过该时间且没有未确认消息时从消费组中删除，单位毫秒，默认 1 小时，小于等于 0 时不删除<br>
+     * 消费者名称包含进程号，重启后旧的消费者不再使用
+     */
+    private long streamConsumerExpireMillis;
+
+    /**
+     * 延时消息到期检查间隔，单位毫秒
+     */
+    private long deliveryPollIntervalMillis;
+
+    /**
+     * 延时消息每次领取的最大数量
+     */
+    private int deliveryBatchSize;
+
+    /**
+     * 延时消息领取后未确认时重新投递的间隔，单位毫秒，发送失败或实例宕机时生效
+     */
+    private long deliveryRetryIntervalMillis;
+
+    /**
+     * 延时消息处理租约时长，单位毫秒<br>
+     * 同一时间只有持有租约的实例领取延时消息，持有者宕机后最多经过该时长由其他实例接管
+     */
+    private long deliveryLeaseMillis;
+
+    /**
+     * 延时消息分桶数量，默认 1<br>
+     * 每个桶使用独立的 hash tag 与租约，集群模式下建议不小于主节点数，使延时消息分布到多个节点并由多个实例同时处理；
+     * 调整数量后启动时将不再使用的桶中的延时消息迁移到当前的桶
+     */
+    private int deliveryBuckets;
+
+    /**
+     * 启动时恢复历史延时消息每批 HSCAN 的数量
+     */
+    private int deliveryRecoveryBatchSize;
+
+    /**
+     * 启动时恢复历史延时消息同时处理的批次数
+     */
+    private int deliveryRecoveryParallelism;
+
 }
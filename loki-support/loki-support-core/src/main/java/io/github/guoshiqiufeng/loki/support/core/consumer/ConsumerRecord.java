@@ -15,10 +15,12 @@
  */
 package io.github.guoshiqiufeng.loki.support.core.consumer;
 
+import io.github.guoshiqiufeng.loki.MessageContent;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 
 /**
@@ -60,4 +62,54 @@ public class ConsumerRecord {
      * 内容String 格式
      */
     private String bodyMessage;
+
+    /**
+     * 内容原始字节，传输支持二进制时存在
+     */
+    private byte[] body;
+
+    /**
+     * 构造函数
+     *
+     * @param topic        topic
+     * @param tag          tag
+     * @param messageId    消息id
+     * @param messageGroup 消息组
+     * @param keys         keys
+     * @param bodyMessage  内容String 格式
+     */
+    public ConsumerRecord(String topic, String tag, String messageId, String messageGroup,
+                          Collection<String> keys, String bodyMessage) {
+        this(topic, tag, messageId, messageGroup, keys, bodyMessage, null);
+    }
+
+    /**
+     * 获取内容String 格式，未设置时按 UTF-8 解码原始字节并缓存
+     *
+     * @return 内容String 格式
+     */
+    public String getBodyMessage() {
+        if (bodyMessage == null && body != null) {
+            bodyMessage = new String(body, StandardCharsets.UTF_8);
+        }
+        return bodyMessage;
+    }
+
+    /**
+     * 转换为消息内容，body 为内容String 格式，尚未解码时按 UTF-8 解码原始字节
+     *
+     * @return 消息内容
+     */
+    public MessageContent<String> toMessageContent() {
+        String message = getBodyMessage();
+        return new MessageContent<String>()
+                .setMessageId(messageId)
+                .setMessageGroup(messageGroup)
+                .setTopic(topic)
+                .setTag(tag)
+                .setKeys(keys)
+                .setBody(message)
+                .setBodyMessage(message)
+                .setBodyBytes(body);
+    }
 }
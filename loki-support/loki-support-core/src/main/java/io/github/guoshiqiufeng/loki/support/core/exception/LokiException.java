@@ -38,4 +38,14 @@ public class LokiException extends RuntimeException {
     public LokiException(String message, Object... args) {
         super(String.format(message, args));
     }
+
+    /**
+     * 构造函数
+     *
+     * @param message 消息
+     * @param cause   原始异常
+     */
+    public LokiException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
@@ -56,4 +56,22 @@ public class ProducerRecord implements Serializable {
      * key
      */
     private List<String> keys;
+
+    /**
+     * 消息内容（二进制），不为空时优先于 message 发送
+     */
+    private byte[] messageBody;
+
+    /**
+     * 构造函数
+     *
+     * @param topic             主题
+     * @param tag               标签
+     * @param message           消息内容
+     * @param deliveryTimestamp 延时时间
+     * @param keys              key
+     */
+    public ProducerRecord(String topic, String tag, String message, Long deliveryTimestamp, List<String> keys) {
+        this(topic, tag, message, deliveryTimestamp, keys, null);
+    }
 }
@@ -34,4 +34,32 @@ public class ProducerResult {
      * 消息id
      */
     private String msgId;
+
+    /**
+     * 发送异常，发送成功时为null
+     */
+    private Throwable cause;
+
+    /**
+     * 是否发送成功
+     *
+     * @return 是否成功
+     */
+    public boolean isSuccess() {
+        return cause == null;
+    }
+
+    /**
+     * 创建发送失败结果
+     *
+     * @param topic 主题
+     * @param cause 发送异常
+     * @return 发送结果
+     */
+    public static ProducerResult failure(String topic, Throwable cause) {
+        ProducerResult result = new ProducerResult();
+        result.setTopic(topic);
+        result.setCause(cause);
+        return result;
+    }
 }
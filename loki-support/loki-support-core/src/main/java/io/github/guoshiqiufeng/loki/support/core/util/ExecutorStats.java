@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.core.util;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+
+/**
+ * 线程池运行状态
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 17:30
+ */
+@Data
+@Accessors(chain = true)
+public class ExecutorStats implements Serializable {
+
+    /**
+     * 线程池名称
+     */
+    private String name;
+
+    /**
+     * 当前线程数
+     */
+    private int poolSize;
+
+    /**
+     * 核心线程数
+     */
+    private int corePoolSize;
+
+    /**
+     * 最大线程数
+     */
+    private int maximumPoolSize;
+
+    /**
+     * 历史最大线程数
+     */
+    private int largestPoolSize;
+
+    /**
+     * 活跃线程数
+     */
+    private int activeCount;
+
+    /**
+     * 队列中等待的任务数
+     */
+    private int queueSize;
+
+    /**
+     * 队列剩余容量
+     */
+    private int queueRemainingCapacity;
+
+    /**
+     * 已完成任务数
+     */
+    private long completedTaskCount;
+}
@@ -0,0 +1,515 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.core.util;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import io.github.guoshiqiufeng.loki.enums.ExecutorQueueType;
+import io.github.guoshiqiufeng.loki.enums.RejectionPolicyType;
+import io.github.guoshiqiufeng.loki.support.core.config.ExecutorConfig;
+import io.github.guoshiqiufeng.loki.support.core.exception.LokiException;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 线程池注册中心
+ * <p>
+ * 统一管理 loki 使用的线程池，内置 send、consume、scheduler 三个线程池，按需创建；
+ * 所有线程池均带有线程名前缀，在应用关闭时统一关闭。
+ * <p>
+ * 开启虚拟线程且运行在 Java 21 及以上时，send、consume 线程池为每个任务创建虚拟线程，不受最大线程数与队列限制；
+ * 通过 register 注册的线程池使用虚拟线程，但仍按配置限制线程数与队列
+ * <p>
+ * 消费拉取、订阅等常驻任务不会归还线程，通过 runLoop 在独立线程中运行，consume 线程池只用于有限任务
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 17:35
+ */
+@Slf4j
+@UtilityClass
+public class ExecutorUtils {
+
+    /**
+     * 发送线程池名称
+     */
+    public final String SEND = "send";
+
+    /**
+     * 消费线程池名称
+     */
+    public final String CONSUME = "consume";
+
+    /**
+     * 调度线程池名称
+     */
+    public final String SCHEDULER = "scheduler";
+
+    /**
+     * 已创建的线程池
+     */
+    private final Map<String, ThreadPoolExecutor> EXECUTORS = new ConcurrentHashMap<>();
+
+    /**
+     * 线程池配置
+     */
+    private final Map<String, ExecutorConfig.PoolConfig> POOL_CONFIG = new ConcurrentHashMap<>();
+
+    /**
+     * 运行中的常驻任务线程
+     */
+    private final Set<Thread> LOOP_THREADS = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean SHUTDOWN_HOOK = new AtomicBoolean();
+
+    /**
+     * block 拒绝策略默认等待队列空位的最长时间，单位毫秒
+     */
+    private final long DEFAULT_BLOCK_TIMEOUT_MILLIS = 60000;
+
+    /**
+     * 是否使用虚拟线程
+     */
+    private volatile boolean virtualThreads;
+
+    /**
+     * 获取默认线程池配置
+     *
+     * @return 默认线程池配置
+     */
+    public ExecutorConfig defaults() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        return new ExecutorConfig()
+                .setSend(new ExecutorConfig.PoolConfig()
+                        .setThreadNamePrefix("loki-send-")
+                        .setCorePoolSize(processors)
+                        .setMaxPoolSize(processors * 2)
+                        .setKeepAliveSeconds(60)
+                        .setAllowCoreThreadTimeOut(true)
+                        .setQueueType(ExecutorQueueType.LINKED)
+                        .setQueueCapacity(1024)
+                        .setRejectionPolicy(RejectionPolicyType.CALLER_RUNS)
+                        .setAwaitTerminationSeconds(10))
+                .setConsume(new ExecutorConfig.PoolConfig()
+                        .setThreadNamePrefix("loki-consume-")
+                        .setCorePoolSize(0)
+                        .setMaxPoolSize(256)
+                        .setKeepAliveSeconds(60)
+                        .setAllowCoreThreadTimeOut(false)
+                        .setQueueType(ExecutorQueueType.SYNCHRONOUS)
+                        .setQueueCapacity(0)
+                        .setRejectionPolicy(RejectionPolicyType.ABORT)
+                        .setAwaitTerminationSeconds(10))
+                .setScheduler(new ExecutorConfig.PoolConfig()
+                        .setThreadNamePrefix("loki-scheduler-")
+                        .setCorePoolSize(2)
+                        .setMaxPoolSize(2)
+                        .setKeepAliveSeconds(60)
+                        .setAllowCoreThreadTimeOut(false)
+                        .setRejectionPolicy(RejectionPolicyType.ABORT)
+                        .setAwaitTerminationSeconds(10));
+    }
+
+    /**
+     * 初始化线程池配置，已创建的线程池不受影响
+     *
+     * @param executorConfig 线程池配置
+     */
+    public void init(ExecutorConfig executorConfig) {
+        init(executorConfig, false);
+    }
+
+    /**
+     * 初始化线程池配置，已创建的线程池不受影响
+     *
+     * @param executorConfig 线程池配置
+     * @param virtualThreads 是否使用虚拟线程
+     */
+    public void init(ExecutorConfig executorConfig, boolean virtualThreads) {
+        ExecutorUtils.virtualThreads = virtualThreads;
+        ExecutorConfig defaults = defaults();
+        ExecutorConfig config = executorConfig == null ? defaults : executorConfig;
+        putConfig(SEND, config.getSend(), defaults.getSend());
+        putConfig(CONSUME, config.getConsume(), defaults.getConsume());
+        putConfig(SCHEDULER, config.getScheduler(), defaults.getScheduler());
+    }
+
+    /**
+     * 获取发送线程池
+     *
+     * @return 发送线程池
+     */
+    public ExecutorService getSendExecutor() {
+        return getExecutor(SEND);
+    }
+
+    /**
+     * 获取消费线程池
+     *
+     * @return 消费线程池
+     */
+    public ExecutorService getConsumeExecutor() {
+        return getExecutor(CONSUME);
+    }
+
+    /**
+     * 获取调度线程池
+     *
+     * @return 调度线程池
+     */
+    public ScheduledExecutorService getScheduler() {
+        return (ScheduledExecutorService) getExecutor(SCHEDULER);
+    }
+
+    /**
+     * 在独立线程中运行常驻任务，如消费拉取循环、订阅循环，不占用 consume 线程池
+     *
+     * @param name 任务名称，作为线程名前缀
+     * @param task 任务
+     * @return 任务结束时完成，异常结束时以该异常完成
+     */
+    public CompletableFuture<Void> runLoop(String name, Runnable task) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        String threadNamePrefix = "loki-" + name + "-";
+        ThreadFactory threadFactory = createVirtualThreadFactory(threadNamePrefix);
+        if (threadFactory == null) {
+            threadFactory = ThreadFactoryBuilder.create().setNamePrefix(threadNamePrefix).build();
+        }
+        Thread thread = threadFactory.newThread(() -> {
+            try {
+                task.run();
+                future.complete(null);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                LOOP_THREADS.remove(Thread.currentThread());
+            }
+        });
+        LOOP_THREADS.add(thread);
+        registerShutdownHook();
+        thread.start();
+        return future;
+    }
+
+    /**
+     * 获取常驻任务执行器，每个任务在独立线程中运行
+     *
+     * @param name 任务名称，作为线程名前缀
+     * @return 执行器
+     */
+    public Executor getLoopExecutor(String name) {
+        return task -> runLoop(name, task);
+    }
+
+    /**
+     * 获取线程池，不存在时按配置创建
+     *
+     * @param name 线程池名称
+     * @return 线程池
+     */
+    public ExecutorService getExecutor(String name) {
+        ThreadPoolExecutor executor = EXECUTORS.get(name);
+        if (executor != null) {
+            return executor;
+        }
+        return EXECUTORS.computeIfAbsent(name, key -> createExecutor(key, getConfig(key)));
+    }
+
+    /**
+     * 注册线程池，已存在时直接返回；不再使用时通过 {@link #unregister(String)} 关闭并移除
+     *
+     * @param name       线程池名称
+     * @param poolConfig 线程池配置
+     * @return 线程池
+     */
+    public ExecutorService register(String name, ExecutorConfig.PoolConfig poolConfig) {
+        if (POOL_CONFIG.putIfAbsent(name, poolConfig) != null && log.isWarnEnabled()) {
+            log.warn("ExecutorUtils# executor {} already registered, reuse the existing executor", name);
+        }
+        return getExecutor(name);
+    }
+
+    /**
+     * 关闭并移除通过 register 注册的线程池，内置线程池只关闭不移除配置
+     *
+     * @param name 线程池名称
+     */
+    public void unregister(String name) {
+        shutdown(name);
+        if (!SEND.equals(name) && !CONSUME.equals(name) && !SCHEDULER.equals(name)) {
+            POOL_CONFIG.remove(name);
+        }
+    }
+
+    /**
+     * 获取所有线程池运行状态
+     *
+     * @return 线程池名称 -> 运行状态
+     */
+    public Map<String, ExecutorStats> getStats() {
+        Map<String, ExecutorStats> stats = new LinkedHashMap<>(EXECUTORS.size());
+        EXECUTORS.forEach((name, executor) -> stats.put(name, getStats(name, executor)));
+        return stats;
+    }
+
+    /**
+     * 获取线程池队列中等待的任务数
+     *
+     * @param name 线程池名称
+     * @return 等待的任务数，线程池不存在时返回0
+     */
+    public int getQueueSize(String name) {
+        ThreadPoolExecutor executor = EXECUTORS.get(name);
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    /**
+     * 获取线程池活跃线程数
+     *
+     * @param name 线程池名称
+     * @return 活跃线程数，线程池不存在时返回0
+     */
+    public int getActiveCount(String name) {
+        ThreadPoolExecutor executor = EXECUTORS.get(name);
+        return executor == null ? 0 : executor.getActiveCount();
+    }
+
+    /**
+     * 关闭所有线程池
+     */
+    public void shutdown() {
+        for (Thread thread : LOOP_THREADS) {
+            thread.interrupt();
+        }
+        for (String name : EXECUTORS.keySet()) {
+            shutdown(name);
+        }
+    }
+
+    /**
+     * 关闭线程池，等待任务结束，超时后强制关闭
+     *
+     * @param name 线程池名称
+     */
+    public void shutdown(String name) {
+        ThreadPoolExecutor executor = EXECUTORS.remove(name);
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        long awaitTerminationSeconds = getConfig(name).getAwaitTerminationSeconds();
+        try {
+            if (!executor.awaitTermination(awaitTerminationSeconds, TimeUnit.SECONDS)) {
+                if (log.isWarnEnabled()) {
+                    log.warn("ExecutorUtils# executor {} not terminated in {}s, shutdown now", name,
+                            awaitTerminationSeconds);
+                }
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void putConfig(String name, ExecutorConfig.PoolConfig poolConfig, ExecutorConfig.PoolConfig defaults) {
+        POOL_CONFIG.put(name, poolConfig == null ? defaults : poolConfig);
+        if (EXECUTORS.containsKey(name) && log.isWarnEnabled()) {
+            log.warn("ExecutorUtils# executor {} already created, new config will not take effect", name);
+        }
+    }
+
+    private ExecutorConfig.PoolConfig getConfig(String name) {
+        ExecutorConfig.PoolConfig poolConfig = POOL_CONFIG.get(name);
+        if (poolConfig != null) {
+            return poolConfig;
+        }
+        switch (name) {
+            case SEND:
+                return defaults().getSend();
+            case CONSUME:
+                return defaults().getConsume();
+            case SCHEDULER:
+                return defaults().getScheduler();
+            default:
+                throw new LokiException("No executor %s", name);
+        }
+    }
+
+    private ThreadPoolExecutor createExecutor(String name, ExecutorConfig.PoolConfig poolConfig) {
+        String threadNamePrefix = StringUtils.isEmpty(poolConfig.getThreadNamePrefix())
+                ? "loki-" + name + "-" : poolConfig.getThreadNamePrefix();
+        RejectedExecutionHandler handler = createRejectedHandler(name, poolConfig);
+        ThreadFactory virtualThreadFactory = SCHEDULER.equals(name) ? null : createVirtualThreadFactory(threadNamePrefix);
+        ThreadFactory threadFactory = virtualThreadFactory != null ? virtualThreadFactory
+                : ThreadFactoryBuilder.create().setNamePrefix(threadNamePrefix).build();
+        ThreadPoolExecutor executor;
+        if (virtualThreadFactory != null && (SEND.equals(name) || CONSUME.equals(name))) {
+            // 虚拟线程无需池化，每个任务直接创建新线程
+            executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE,
+                    Math.max(1, poolConfig.getKeepAliveSeconds()), TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), virtualThreadFactory, handler);
+        } else if (SCHEDULER.equals(name)) {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(
+                    Math.max(1, poolConfig.getCorePoolSize()), threadFactory, handler);
+            scheduler.setRemoveOnCancelPolicy(true);
+            executor = scheduler;
+        } else {
+            int corePoolSize = Math.max(0, poolConfig.getCorePoolSize());
+            int maxPoolSize = Math.max(Math.max(1, corePoolSize), poolConfig.getMaxPoolSize());
+            executor = new ThreadPoolExecutor(corePoolSize, maxPoolSize,
+                    poolConfig.getKeepAliveSeconds(), TimeUnit.SECONDS,
+                    createQueue(poolConfig), threadFactory, handler);
+            executor.allowCoreThreadTimeOut(poolConfig.isAllowCoreThreadTimeOut()
+                    && poolConfig.getKeepAliveSeconds() > 0);
+        }
+        registerShutdownHook();
+        if (log.isDebugEnabled()) {
+            log.debug("ExecutorUtils# create executor {} core:{} max:{} virtual:{}", name,
+                    executor.getCorePoolSize(), executor.getMaximumPoolSize(), virtualThreadFactory != null);
+        }
+        return executor;
+    }
+
+    /**
+     * 创建虚拟线程工厂，通过反射调用 Thread.ofVirtual()，以兼容 Java 8 编译
+     *
+     * @param threadNamePrefix 线程名前缀
+     * @return 虚拟线程工厂，未开启或运行环境不支持时返回null
+     */
+    private ThreadFactory createVirtualThreadFactory(String threadNamePrefix) {
+        if (!virtualThreads) {
+            return null;
+        }
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            if (log.isWarnEnabled()) {
+                log.warn("ExecutorUtils# virtual threads not supported on java {}, use platform threads",
+                        System.getProperty("java.version"));
+            }
+            return null;
+        }
+    }
+
+    private BlockingQueue<Runnable> createQueue(ExecutorConfig.PoolConfig poolConfig) {
+        ExecutorQueueType queueType = poolConfig.getQueueType() == null
+                ? ExecutorQueueType.LINKED : poolConfig.getQueueType();
+        int queueCapacity = poolConfig.getQueueCapacity();
+        switch (queueType) {
+            case ARRAY:
+                if (queueCapacity <= 0) {
+                    throw new LokiException("array queue capacity must be greater than 0");
+                }
+                return new ArrayBlockingQueue<>(queueCapacity);
+            case SYNCHRONOUS:
+                return new SynchronousQueue<>();
+            default:
+                return queueCapacity <= 0 ? new LinkedBlockingQueue<>() : new LinkedBlockingQueue<>(queueCapacity);
+        }
+    }
+
+    private RejectedExecutionHandler createRejectedHandler(String name, ExecutorConfig.PoolConfig poolConfig) {
+        RejectionPolicyType rejectionPolicy = poolConfig.getRejectionPolicy();
+        RejectedExecutionHandler handler;
+        switch (rejectionPolicy == null ? RejectionPolicyType.ABORT : rejectionPolicy) {
+            case CALLER_RUNS:
+                handler = new ThreadPoolExecutor.CallerRunsPolicy();
+                break;
+            case DISCARD:
+                handler = new ThreadPoolExecutor.DiscardPolicy();
+                break;
+            case DISCARD_OLDEST:
+                handler = new ThreadPoolExecutor.DiscardOldestPolicy();
+                break;
+            case BLOCK:
+                // 阻塞为预期的背压行为，不记录日志，超时后拒绝
+                long blockTimeoutMillis = poolConfig.getBlockTimeoutMillis() > 0
+                        ? poolConfig.getBlockTimeoutMillis() : DEFAULT_BLOCK_TIMEOUT_MILLIS;
+                return (runnable, executor) -> blockUntilQueued(name, runnable, executor, blockTimeoutMillis);
+            default:
+                handler = new ThreadPoolExecutor.AbortPolicy();
+                break;
+        }
+        return (runnable, executor) -> {
+            if (log.isWarnEnabled()) {
+                log.warn("ExecutorUtils# executor {} rejected task, active:{} queue:{} policy:{}", name,
+                        executor.getActiveCount(), executor.getQueue().size(), rejectionPolicy);
+            }
+            handler.rejectedExecution(runnable, executor);
+        };
+    }
+
+    private void blockUntilQueued(String name, Runnable runnable, ThreadPoolExecutor executor,
+                                  long blockTimeoutMillis) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("executor " + name + " has been shutdown");
+        }
+        try {
+            if (!executor.getQueue().offer(runnable, blockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                if (log.isWarnEnabled()) {
+                    log.warn("ExecutorUtils# executor {} rejected task after blocking {}ms, active:{} queue:{}",
+                            name, blockTimeoutMillis, executor.getActiveCount(), executor.getQueue().size());
+                }
+                throw new RejectedExecutionException("timeout while waiting for executor " + name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("interrupted while waiting for executor " + name, e);
+        }
+    }
+
+    private ExecutorStats getStats(String name, ThreadPoolExecutor executor) {
+        return new ExecutorStats()
+                .setName(name)
+                .setPoolSize(executor.getPoolSize())
+                .setCorePoolSize(executor.getCorePoolSize())
+                .setMaximumPoolSize(executor.getMaximumPoolSize())
+                .setLargestPoolSize(executor.getLargestPoolSize())
+                .setActiveCount(executor.getActiveCount())
+                .setQueueSize(executor.getQueue().size())
+                .setQueueRemainingCapacity(executor.getQueue().remainingCapacity())
+                .setCompletedTaskCount(executor.getCompletedTaskCount());
+    }
+
+    private void registerShutdownHook() {
+        if (SHUTDOWN_HOOK.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(ExecutorUtils::shutdown, "loki-executor-shutdown"));
+        }
+    }
+}
@@ -53,8 +53,12 @@ public class GlobalConfigUtils {
                                 .setAuth(Boolean.FALSE)
                                 .setConnectTimeout(180)
                                 .setMaxAttempts(3)
+                                .setSendTimeout(30000)
                 )
                 .setRedisHistoryDelayMessageSend(false)
-                .setRedisHistoryDelayMessageSendTime(2000);
+                .setRedisHistoryDelayMessageSendTime(2000)
+                .setSpelCompilerMode("off")
+                .setCodec("json")
+                .setVirtualThreads(false);
     }
 }
@@ -28,7 +28,9 @@ import java.util.concurrent.TimeUnit;
  * @author yanghq
  * @version 1.0
  * @since 2023/2/15 14:18
+ * @deprecated 每次调用都会创建新的线程池，使用 {@link ExecutorUtils} 中统一管理的线程池替代
  */
+@Deprecated
 public class ThreadPoolUtils {
 
     /**
@@ -0,0 +1,43 @@
+package io.github.guoshiqiufeng.loki.support.core.consumer;
+
+import io.github.guoshiqiufeng.loki.MessageContent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+/**
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/19 09:20
+ */
+public class ConsumerRecordTest {
+
+    @Test
+    public void testToMessageContentFromBytes() {
+        byte[] bytes = "消息内容".getBytes(StandardCharsets.UTF_8);
+        ConsumerRecord record = new ConsumerRecord("topic", "tag", "1", "group",
+                Collections.singletonList("key"), null, bytes);
+
+        MessageContent<String> content = record.toMessageContent();
+
+        Assertions.assertEquals("消息内容", content.getBody());
+        Assertions.assertEquals("消息内容", content.getBodyMessage());
+        Assertions.assertArrayEquals(bytes, content.getBodyBytes());
+        Assertions.assertEquals("topic", content.getTopic());
+        Assertions.assertEquals("tag", content.getTag());
+    }
+
+    @Test
+    public void testToMessageContentFromString() {
+        ConsumerRecord record = new ConsumerRecord("topic", "tag", "1", "group",
+                Collections.emptyList(), "message");
+
+        MessageContent<String> content = record.toMessageContent();
+
+        Assertions.assertEquals("message", content.getBody());
+        Assertions.assertEquals("message", content.getBodyMessage());
+        Assertions.assertNull(content.getBodyBytes());
+    }
+}
@@ -18,6 +18,8 @@ package io.github.guoshiqiufeng.loki.support.kafka;
 import io.github.guoshiqiufeng.loki.support.core.LokiClient;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 
+import java.util.Map;
+
 /**
  * kafka客户端
  *
@@ -34,5 +36,16 @@ public interface KafkaClient extends LokiClient {
      * @param index         消费者索引
      * @return 消费者
      */
-    KafkaConsumer<String, String> getConsumer(String consumerGroup, Integer index);
+    KafkaConsumer<String, byte[]> getConsumer(String consumerGroup, Integer index);
+
+    /**
+     * 获取消费者，同一监听启动多个消费者时使用
+     *
+     * @param consumerGroup 消费者组
+     * @param index         消费者索引
+     * @param member        同一监听下的消费者序号
+     * @param configs       消费者默认配置，kafka 配置中已配置时使用配置
+     * @return 消费者
+     */
+    KafkaConsumer<String, byte[]> getConsumer(String consumerGroup, Integer index, int member, Map<String, Object> configs);
 }
@@ -19,11 +19,15 @@ import io.github.guoshiqiufeng.loki.support.core.config.LokiProperties;
 import io.github.guoshiqiufeng.loki.support.kafka.KafkaClient;
 import io.github.guoshiqiufeng.loki.support.kafka.impl.KafkaDefaultImpl;
 import io.github.guoshiqiufeng.loki.support.kafka.utils.KafkaConfigUtils;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.stream.Collectors;
+
 /**
  * kafka配置
  *
@@ -49,9 +53,14 @@ public class KafkaAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean(KafkaClient.class)
-    public KafkaClient kafkaClient(LokiProperties lokiProperties, KafkaProperties kafkaProperties) {
+    public KafkaClient kafkaClient(LokiProperties lokiProperties, KafkaProperties kafkaProperties,
+                                   ObjectProvider<ConsumerRebalanceListener> rebalanceListeners) {
         KafkaConfigUtils.convert(lokiProperties, kafkaProperties);
-        return new KafkaDefaultImpl(kafkaProperties);
+        KafkaDefaultImpl kafkaClient = new KafkaDefaultImpl(kafkaProperties);
+        kafkaClient.setSendTimeout(lokiProperties.getGlobalConfig().getMqConfig().getSendTimeout());
+        kafkaClient.setKafkaConfig(lokiProperties.getKafka());
+        kafkaClient.setRebalanceListeners(rebalanceListeners.orderedStream().collect(Collectors.toList()));
+        return kafkaClient;
     }
 
 }
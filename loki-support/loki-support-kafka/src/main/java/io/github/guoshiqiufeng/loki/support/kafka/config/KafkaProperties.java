@@ -20,6 +20,8 @@ import org.apache.kafka.clients.CommonClientConfigs;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.config.SslConfigs;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.boot.context.properties.PropertyMapper;
@@ -90,6 +92,10 @@ public class KafkaProperties {
         return properties;
     }
 
+    public Map<String, Object> buildAdminProperties() {
+        return buildCommonProperties();
+    }
+
     public Map<String, Object> buildProducerProperties() {
         Map<String, Object> properties = buildCommonProperties();
         properties.putAll(this.producer.buildProperties());
@@ -165,9 +171,10 @@ public class KafkaProperties {
         private Class<?> keyDeserializer = StringDeserializer.class;
 
         /**
-         * Deserializer class for values.
+         * Deserializer class for values. Message bodies are encoded by the loki message codec, so
+         * loki consumers always use ByteArrayDeserializer and ignore this setting.
          */
-        private Class<?> valueDeserializer = StringDeserializer.class;
+        private Class<?> valueDeserializer = ByteArrayDeserializer.class;
 
         /**
          * Maximum number of records returned in a single call to poll().
@@ -256,9 +263,10 @@ public class KafkaProperties {
         private Class<?> keySerializer = StringSerializer.class;
 
         /**
-         * Serializer class for values.
+         * Serializer class for values. Message bodies are encoded by the loki message codec, so
+         * loki producers always use ByteArraySerializer and ignore this setting.
          */
-        private Class<?> valueSerializer = StringSerializer.class;
+        private Class<?> valueSerializer = ByteArraySerializer.class;
 
         /**
          * When greater than zero, enables retrying of failed sends.
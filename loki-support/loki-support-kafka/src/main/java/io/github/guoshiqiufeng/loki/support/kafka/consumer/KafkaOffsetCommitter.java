@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.kafka.consumer;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * kafka 位点提交
+ * <p>
+ * 处理完成的位点记录在 {@link KafkaOffsetTracker} 中，每完成 batchSize 条或间隔 intervalMillis 毫秒通过 commitAsync 批量提交，
+ * 不会每条消息提交一次，异步提交失败时下次重新提交；分区回收与消费者关闭时通过 commitSync 提交当前全部可提交位点，保证至少一次消费。
+ * 重平衡回调在位点处理之后调用 hook。
+ * <p>
+ * 除 complete 外均在拉取线程中调用
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 22:50
+ */
+@Slf4j
+public class KafkaOffsetCommitter implements ConsumerRebalanceListener {
+
+    private final String name;
+
+    private final Consumer<String, byte[]> consumer;
+
+    /**
+     * 重平衡回调
+     */
+    private final ConsumerRebalanceListener hook;
+
+    /**
+     * 位点跟踪
+     */
+    private final KafkaOffsetTracker offsetTracker = new KafkaOffsetTracker();
+
+    private final int batchSize;
+
+    /**
+     * 提交间隔，单位毫秒，拉取等待时间不应超过该值
+     */
+    @Getter
+    private final long intervalMillis;
+
+    /**
+     * 上次提交后完成的消息数
+     */
+    private final AtomicInteger completed = new AtomicInteger();
+
+    private long lastCommitTime = System.currentTimeMillis();
+
+    /**
+     * 构造函数
+     *
+     * @param name           消费者名称
+     * @param consumer       kafka 消费者，需关闭自动提交
+     * @param batchSize      每完成多少条消息提交一次
+     * @param intervalMillis 提交间隔，单位毫秒
+     * @param hook           重平衡回调
+     */
+    public KafkaOffsetCommitter(String name, Consumer<String, byte[]> consumer, int batchSize,
+                                long intervalMillis, ConsumerRebalanceListener hook) {
+        this.name = name;
+        this.consumer = consumer;
+        this.hook = hook;
+        this.batchSize = batchSize <= 0 ? 100 : batchSize;
+        this.intervalMillis = intervalMillis <= 0 ? 1000 : intervalMillis;
+    }
+
+    /**
+     * 记录已拉取待处理的消息
+     *
+     * @param partition 分区
+     * @param offset    位点
+     */
+    public void track(TopicPartition partition, long offset) {
+        offsetTracker.track(partition, offset);
+    }
+
+    /**
+     * 记录已拉取但无需处理的消息
+     *
+     * @param partition 分区
+     * @param offset    位点
+     */
+    public void skip(TopicPartition partition, long offset) {
+        offsetTracker.skip(partition, offset);
+    }
+
+    /**
+     * 标记消息处理完成，可在任意线程中调用
+     *
+     * @param partition 分区
+     * @param offset    位点
+     */
+    public void complete(TopicPartition partition, long offset) {
+        offsetTracker.complete(partition, offset);
+        completed.incrementAndGet();
+    }
+
+    /**
+     * 分区中是否有未处理完成的消息
+     *
+     * @param partitions 分区
+     * @return 是否有未处理完成的消息
+     */
+    public boolean hasPending(Collection<TopicPartition> partitions) {
+        return offsetTracker.hasPending(partitions);
+    }
+
+    /**
+     * 达到提交条数或提交间隔时异步提交
+     */
+    public void maybeCommit() {
+        long now = System.currentTimeMillis();
+        if (completed.get() < batchSize && now - lastCommitTime < intervalMillis) {
+            return;
+        }
+        completed.set(0);
+        lastCommitTime = now;
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.committable();
+        if (offsets.isEmpty()) {
+            return;
+        }
+        consumer.commitAsync(offsets, (committed, exception) -> {
+            if (exception == null) {
+                offsetTracker.markCommitted(committed);
+            } else if (log.isWarnEnabled()) {
+                log.warn("KafkaOffsetCommitter# {} commit offsets {} error:{}", name, offsets,
+                        exception.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 同步提交全部已完成的位点，消费者关闭前调用
+     */
+    public void commitSync() {
+        commitSync(offsetTracker.positions());
+    }
+
+    /**
+     * 分区回收前同步提交已完成的位点，回收后的处理结果不再提交
+     *
+     * @param partitions 分区
+     */
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        commitSync(offsetTracker.positions(partitions));
+        offsetTracker.remove(partitions);
+        hook.onPartitionsRevoked(partitions);
+    }
+
+    /**
+     * 分区已被其他消费者接管，无法再提交
+     *
+     * @param partitions 分区
+     */
+    @Override
+    public void onPartitionsLost(Collection<TopicPartition> partitions) {
+        offsetTracker.remove(partitions);
+        hook.onPartitionsLost(partitions);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        // 新分配的分区从已提交的位点开始消费，无需处理位点
+        hook.onPartitionsAssigned(partitions);
+    }
+
+    private void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        if (offsets.isEmpty()) {
+            return;
+        }
+        try {
+            consumer.commitSync(offsets);
+            offsetTracker.markCommitted(offsets);
+        } catch (Exception e) {
+            if (log.isWarnEnabled()) {
+                log.warn("KafkaOffsetCommitter# {} commit offsets {} error:{}", name, offsets, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.kafka.consumer;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * kafka 分区位点跟踪
+ * <p>
+ * 记录每个分区已拉取但未处理完成的位点，可提交位点为最小的未完成位点，
+ * 没有未完成的消息时为最后拉取的位点 + 1，保证提交的位点之前的消息全部处理完成。
+ * <p>
+ * 已提交位点仅在提交成功后通过 markCommitted 更新，提交失败时下次仍会返回该位点。
+ * <p>
+ * track、skip、committable、positions、markCommitted、remove 在拉取线程中调用，complete、hasPending 可在任意线程中调用
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 22:40
+ */
+public class KafkaOffsetTracker {
+
+    private final Map<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+
+    /**
+     * 记录已拉取待处理的消息
+     *
+     * @param partition 分区
+     * @param offset    位点
+     */
+    public void track(TopicPartition partition, long offset) {
+        PartitionOffsets offsets = partitions.computeIfAbsent(partition, p -> new PartitionOffsets());
+        offsets.pending.add(offset);
+        offsets.next = offset + 1;
+    }
+
+    /**
+     * 记录已拉取但无需处理的消息，如标签不匹配
+     *
+     * @param partition 分区
+     * @param offset    位点
+     */
+    public void skip(TopicPartition partition, long offset) {
+        partitions.computeIfAbsent(partition, p -> new PartitionOffsets()).next = offset + 1;
+    }
+
+    /**
+     * 标记消息处理完成，分区已被移除时忽略
+     *
+     * @param partition 分区
+     * @param offset    位点
+     */
+    public void complete(TopicPartition partition, long offset) {
+        PartitionOffsets offsets = partitions.get(partition);
+        if (offsets != null) {
+            offsets.pending.remove(offset);
+        }
+    }
+
+    /**
+     * 获取相对已提交位点前进的可提交位点
+     *
+     * @return 可提交位点
+     */
+    public Map<TopicPartition, OffsetAndMetadata> committable() {
+        return collect(partitions.keySet(), false);
+    }
+
+    /**
+     * 获取指定分区当前的可提交位点，不论是否已提交，用于分区回收与消费者关闭时的同步提交
+     *
+     * @param topicPartitions 分区
+     * @return 可提交位点
+     */
+    public Map<TopicPartition, OffsetAndMetadata> positions(Collection<TopicPartition> topicPartitions) {
+        return collect(topicPartitions, true);
+    }
+
+    /**
+     * 获取全部分区当前的可提交位点，不论是否已提交
+     *
+     * @return 可提交位点
+     */
+    public Map<TopicPartition, OffsetAndMetadata> positions() {
+        return collect(partitions.keySet(), true);
+    }
+
+    /**
+     * 记录提交成功的位点，分区已被移除时忽略
+     *
+     * @param committed 提交成功的位点
+     */
+    public void markCommitted(Map<TopicPartition, OffsetAndMetadata> committed) {
+        if (committed == null) {
+            return;
+        }
+        committed.forEach((partition, offsetAndMetadata) -> {
+            PartitionOffsets offsets = partitions.get(partition);
+            if (offsets != null && offsetAndMetadata.offset() > offsets.committed) {
+                offsets.committed = offsetAndMetadata.offset();
+            }
+        });
+    }
+
+    /**
+     * 分区中是否有未处理完成的消息
+     *
+     * @param topicPartitions 分区
+     * @return 是否有未处理完成的消息
+     */
+    public boolean hasPending(Collection<TopicPartition> topicPartitions) {
+        for (TopicPartition partition : topicPartitions) {
+            PartitionOffsets offsets = partitions.get(partition);
+            if (offsets != null && !offsets.pending.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 移除分区，分区被回收后调用
+     *
+     * @param topicPartitions 分区
+     */
+    public void remove(Collection<TopicPartition> topicPartitions) {
+        for (TopicPartition partition : topicPartitions) {
+            partitions.remove(partition);
+        }
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> collect(Collection<TopicPartition> topicPartitions, boolean all) {
+        Map<TopicPartition, OffsetAndMetadata> result = new HashMap<>();
+        for (TopicPartition partition : topicPartitions) {
+            PartitionOffsets offsets = partitions.get(partition);
+            if (offsets == null) {
+                continue;
+            }
+            // ceiling 在集合为空时返回 null，避免与 complete 并发时 first 抛出异常
+            Long first = offsets.pending.ceiling(Long.MIN_VALUE);
+            long offset = first == null ? offsets.next : first;
+            if (offset >= 0 && (all || offset > offsets.committed)) {
+                result.put(partition, new OffsetAndMetadata(offset));
+            }
+        }
+        return result;
+    }
+
+    private static final class PartitionOffsets {
+
+        /**
+         * 未处理完成的位点
+         */
+        private final ConcurrentSkipListSet<Long> pending = new ConcurrentSkipListSet<>();
+
+        /**
+         * 最后拉取的位点 + 1
+         */
+        private volatile long next = -1;
+
+        /**
+         * 已提交成功的位点
+         */
+        private long committed = -1;
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.kafka.consumer;
+
+import io.github.guoshiqiufeng.loki.enums.ExecutorQueueType;
+import io.github.guoshiqiufeng.loki.enums.KafkaConsumeOrder;
+import io.github.guoshiqiufeng.loki.enums.RejectionPolicyType;
+import io.github.guoshiqiufeng.loki.support.core.config.ExecutorConfig;
+import io.github.guoshiqiufeng.loki.support.core.consumer.ConsumerRecord;
+import io.github.guoshiqiufeng.loki.support.core.util.ExecutorUtils;
+import io.github.guoshiqiufeng.loki.support.core.util.StringUtils;
+import io.github.guoshiqiufeng.loki.support.kafka.utils.KafkaConsumeUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * kafka 并行消费者
+ * <p>
+ * 拉取线程只负责拉取与提交位点，消息按 {@link KafkaConsumeOrder} 分配到 consumptionThreadCount 个线程处理：
+ * 按分区或 key 顺序时哈希到固定的单线程队列，不保证顺序时共享一个线程池。
+ * <p>
+ * 处理中的消息超过 maxCacheMessageCount 时暂停全部分区，降到一半以下后恢复，拉取线程不会阻塞，不会超过 max.poll.interval.ms；
+ * 分区位点由 {@link KafkaOffsetCommitter} 批量提交，只提交之前的消息全部处理完成的位点；
+ * 处理失败的消息在处理线程中间隔 retryIntervalMillis 毫秒重试 retryTimes 次，重试期间不标记完成，位点不会越过该消息
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 22:40
+ */
+@Slf4j
+public class KafkaParallelConsumer implements Runnable {
+
+    /**
+     * 拉取等待时间，期间完成的消息在下一次拉取后提交
+     */
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+
+    private final String name;
+
+    private final Consumer<String, byte[]> consumer;
+
+    private final String topic;
+
+    private final String topicPattern;
+
+    private final String tag;
+
+    private final KafkaConsumeOrder order;
+
+    private final Function<ConsumerRecord, Void> function;
+
+    /**
+     * 处理线程池，按顺序消费时每个线程池只有一个线程
+     */
+    private final ExecutorService[] lanes;
+
+    /**
+     * 处理线程池名称，消费结束时关闭并移除
+     */
+    private final String[] laneNames;
+
+    /**
+     * 最大处理中消息数
+     */
+    private final int maxInFlight;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final KafkaOffsetCommitter committer;
+
+    /**
+     * 分区回收时等待处理中消息完成的最长时间，单位毫秒
+     */
+    private final long drainTimeoutMillis;
+
+    /**
+     * 处理失败时的重试次数
+     */
+    private final int retryTimes;
+
+    /**
+     * 处理失败后重试的间隔，单位毫秒
+     */
+    private final long retryIntervalMillis;
+
+    private boolean paused;
+
+    /**
+     * 构造函数
+     *
+     * @param name                   消费者名称，同时作为线程池名称前缀
+     * @param consumer               kafka 消费者，需关闭自动提交
+     * @param topic                  主题
+     * @param topicPattern           主题正则，不为空时优先使用
+     * @param tag                    标签
+     * @param consumptionThreadCount 消费线程数
+     * @param maxCacheMessageCount   最大处理中消息数
+     * @param order                  消费顺序
+     * @param committer              位点提交
+     * @param drainTimeoutMillis     分区回收时等待处理中消息完成的最长时间，单位毫秒
+     * @param retryTimes             处理失败时的重试次数
+     * @param retryIntervalMillis    处理失败后重试的间隔，单位毫秒
+     * @param function               消息处理函数
+     */
+    public KafkaParallelConsumer(String name, Consumer<String, byte[]> consumer, String topic,
+                                 String topicPattern, String tag, Integer consumptionThreadCount,
+                                 Integer maxCacheMessageCount, KafkaConsumeOrder order,
+                                 KafkaOffsetCommitter committer, long drainTimeoutMillis, int retryTimes,
+                                 long retryIntervalMillis, Function<ConsumerRecord, Void> function) {
+        this.name = name;
+        this.consumer = consumer;
+        this.committer = committer;
+        this.drainTimeoutMillis = drainTimeoutMillis;
+        this.retryTimes = Math.max(retryTimes, 0);
+        this.retryIntervalMillis = Math.max(retryIntervalMillis, 0);
+        this.topic = topic;
+        this.topicPattern = topicPattern;
+        this.tag = tag;
+        this.order = order == null ? KafkaConsumeOrder.KEY : order;
+        this.function = function;
+        this.maxInFlight = maxCacheMessageCount == null || maxCacheMessageCount <= 0 ? 1024 : maxCacheMessageCount;
+        int threadCount = consumptionThreadCount == null || consumptionThreadCount <= 0 ? 1 : consumptionThreadCount;
+        if (this.order == KafkaConsumeOrder.UNORDERED) {
+            this.laneNames = new String[]{name};
+            this.lanes = new ExecutorService[]{ExecutorUtils.register(name, createPoolConfig(name, threadCount))};
+        } else {
+            this.laneNames = new String[threadCount];
+            this.lanes = new ExecutorService[threadCount];
+            for (int i = 0; i < threadCount; i++) {
+                laneNames[i] = name + "-" + i;
+                this.lanes[i] = ExecutorUtils.register(laneNames[i], createPoolConfig(laneNames[i], 1));
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            RebalanceListener listener = new RebalanceListener();
+            if (!StringUtils.isEmpty(topicPattern)) {
+                consumer.subscribe(Pattern.compile(topicPattern), listener);
+            } else {
+                consumer.subscribe(Collections.singletonList(topic), listener);
+            }
+            while (true) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(POLL_TIMEOUT);
+                for (org.apache.kafka.clients.consumer.ConsumerRecord<String, byte[]> record : records) {
+                    dispatch(record);
+                }
+                committer.maybeCommit();
+                applyBackpressure();
+            }
+        } catch (WakeupException e) {
+            // ignore, we're closing
+        } catch (Exception e) {
+            if (log.isErrorEnabled()) {
+                log.error("KafkaParallelConsumer# {} unexpected error", name, e);
+            }
+        } finally {
+            // 先等待处理中的消息完成，使其位点在关闭前提交
+            for (String laneName : laneNames) {
+                ExecutorUtils.unregister(laneName);
+            }
+            committer.commitSync();
+            consumer.close();
+        }
+    }
+
+    private void dispatch(org.apache.kafka.clients.consumer.ConsumerRecord<String, byte[]> record) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        ConsumerRecord consumerRecord = KafkaConsumeUtils.toConsumerRecord(record, tag);
+        if (consumerRecord == null) {
+            committer.skip(partition, record.offset());
+            return;
+        }
+        committer.track(partition, record.offset());
+        inFlight.incrementAndGet();
+        getLane(record).execute(() -> {
+            try {
+                if (handle(record, consumerRecord)) {
+                    committer.complete(partition, record.offset());
+                }
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * 处理单条消息，失败时重试，超过重试次数后记录日志并跳过，与顺序消费一致
+     *
+     * @param record         kafka 消息
+     * @param consumerRecord 消息
+     * @return 是否标记完成，重试等待被中断时返回 false，位点不提交，消息会被重新消费
+     */
+    private boolean handle(org.apache.kafka.clients.consumer.ConsumerRecord<String, byte[]> record,
+                           ConsumerRecord consumerRecord) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                function.apply(consumerRecord);
+                return true;
+            } catch (Exception e) {
+                if (attempt >= retryTimes) {
+                    if (log.isErrorEnabled()) {
+                        log.error("KafkaParallelConsumer# {} handle message error, skip after {} retries, topic:{}, "
+                                        + "partition:{}, offset:{}", name, retryTimes, record.topic(),
+                                record.partition(), record.offset(), e);
+                    }
+                    return true;
+                }
+                if (log.isWarnEnabled()) {
+                    log.warn("KafkaParallelConsumer# {} handle message error, retry {}/{}, topic:{}, partition:{}, "
+                                    + "offset:{}", name, attempt + 1, retryTimes, record.topic(), record.partition(),
+                            record.offset(), e);
+                }
+            }
+            try {
+                Thread.sleep(retryIntervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private ExecutorService getLane(org.apache.kafka.clients.consumer.ConsumerRecord<String, byte[]> record) {
+        if (lanes.length == 1) {
+            return lanes[0];
+        }
+        int hash;
+        if (order == KafkaConsumeOrder.KEY && record.key() != null) {
+            hash = record.key().hashCode();
+        } else {
+            hash = 31 * record.topic().hashCode() + record.partition();
+        }
+        return lanes[(hash & Integer.MAX_VALUE) % lanes.length];
+    }
+
+    /**
+     * 处理中的消息过多时暂停拉取，暂停期间 poll 仍会维持心跳
+     */
+    private void applyBackpressure() {
+        int current = inFlight.get();
+        if (!paused && current >= maxInFlight) {
+            consumer.pause(consumer.assignment());
+            paused = true;
+            if (log.isDebugEnabled()) {
+                log.debug("KafkaParallelConsumer# {} paused, in flight:{}", name, current);
+            }
+        } else if (paused && current <= maxInFlight / 2) {
+            consumer.resume(consumer.paused());
+            paused = false;
+            if (log.isDebugEnabled()) {
+                log.debug("KafkaParallelConsumer# {} resumed, in flight:{}", name, current);
+            }
+        }
+    }
+
+    private ExecutorConfig.PoolConfig createPoolConfig(String poolName, int threadCount) {
+        // 处理中的消息数由暂停拉取控制，队列不限制容量
+        return new ExecutorConfig.PoolConfig()
+                .setThreadNamePrefix("loki-" + poolName + "-")
+                .setCorePoolSize(threadCount)
+                .setMaxPoolSize(threadCount)
+                .setKeepAliveSeconds(60)
+                .setAllowCoreThreadTimeOut(true)
+                .setQueueType(ExecutorQueueType.LINKED)
+                .setQueueCapacity(0)
+                .setRejectionPolicy(RejectionPolicyType.ABORT)
+                .setAwaitTerminationSeconds(10);
+    }
+
+    /**
+     * 等待回收分区中处理中的消息完成，使其位点在回收前提交，新的消费者不会重复消费
+     *
+     * @param partitions 回收的分区
+     */
+    private void drain(Collection<TopicPartition> partitions) {
+        long deadline = System.currentTimeMillis() + drainTimeoutMillis;
+        while (committer.hasPending(partitions)) {
+            if (System.currentTimeMillis() >= deadline) {
+                if (log.isWarnEnabled()) {
+                    log.warn("KafkaParallelConsumer# {} drain timeout after {}ms, unfinished messages of {} may be "
+                            + "consumed again", name, drainTimeoutMillis, partitions);
+                }
+                return;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 分区回收前等待处理中的消息完成，位点提交由 committer 处理，暂停期间新分配的分区同样需要暂停
+     */
+    private final class RebalanceListener implements ConsumerRebalanceListener {
+
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            if (!partitions.isEmpty()) {
+                drain(partitions);
+            }
+            committer.onPartitionsRevoked(partitions);
+        }
+
+        @Override
+        public void onPartitionsLost(Collection<TopicPartition> partitions) {
+            committer.onPartitionsLost(partitions);
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            committer.onPartitionsAssigned(partitions);
+            if (paused) {
+                consumer.pause(partitions);
+            }
+        }
+    }
+}
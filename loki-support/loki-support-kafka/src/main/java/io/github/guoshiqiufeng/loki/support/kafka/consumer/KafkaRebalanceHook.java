@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.kafka.consumer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * kafka 分区重平衡回调
+ * <p>
+ * 依次调用容器中注册的 {@link ConsumerRebalanceListener}，单个回调异常不影响其他回调与消费；
+ * 位点由 loki 管理时在提交之后调用
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 23:00
+ */
+@Slf4j
+public class KafkaRebalanceHook implements ConsumerRebalanceListener {
+
+    private final String name;
+
+    private final List<ConsumerRebalanceListener> listeners;
+
+    /**
+     * 构造函数
+     *
+     * @param name      消费者名称
+     * @param listeners 回调
+     */
+    public KafkaRebalanceHook(String name, List<ConsumerRebalanceListener> listeners) {
+        this.name = name;
+        this.listeners = listeners == null ? Collections.emptyList() : listeners;
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        if (log.isInfoEnabled()) {
+            log.info("KafkaRebalanceHook# {} partitions revoked:{}", name, partitions);
+        }
+        for (ConsumerRebalanceListener listener : listeners) {
+            try {
+                listener.onPartitionsRevoked(partitions);
+            } catch (Exception e) {
+                if (log.isErrorEnabled()) {
+                    log.error("KafkaRebalanceHook# {} onPartitionsRevoked error", name, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        if (log.isInfoEnabled()) {
+            log.info("KafkaRebalanceHook# {} partitions assigned:{}", name, partitions);
+        }
+        for (ConsumerRebalanceListener listener : listeners) {
+            try {
+                listener.onPartitionsAssigned(partitions);
+            } catch (Exception e) {
+                if (log.isErrorEnabled()) {
+                    log.error("KafkaRebalanceHook# {} onPartitionsAssigned error", name, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsLost(Collection<TopicPartition> partitions) {
+        if (log.isWarnEnabled()) {
+            log.warn("KafkaRebalanceHook# {} partitions lost:{}", name, partitions);
+        }
+        for (ConsumerRebalanceListener listener : listeners) {
+            try {
+                listener.onPartitionsLost(partitions);
+            } catch (Exception e) {
+                if (log.isErrorEnabled()) {
+                    log.error("KafkaRebalanceHook# {} onPartitionsLost error", name, e);
+                }
+            }
+        }
+    }
+}
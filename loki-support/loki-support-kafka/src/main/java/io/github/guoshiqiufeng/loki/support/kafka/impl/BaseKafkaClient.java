@@ -17,16 +17,26 @@ package io.github.guoshiqiufeng.loki.support.kafka.impl;
 
 import io.github.guoshiqiufeng.loki.MessageContent;
 import io.github.guoshiqiufeng.loki.constant.Constant;
+import io.github.guoshiqiufeng.loki.support.core.config.KafkaConfig;
 import io.github.guoshiqiufeng.loki.support.core.consumer.ConsumerConfig;
+import io.github.guoshiqiufeng.loki.support.core.consumer.ConsumerRecord;
 import io.github.guoshiqiufeng.loki.support.core.exception.LokiException;
 import io.github.guoshiqiufeng.loki.support.core.pipeline.PipelineUtils;
 import io.github.guoshiqiufeng.loki.support.core.producer.ProducerResult;
+import io.github.guoshiqiufeng.loki.support.core.util.ExecutorUtils;
 import io.github.guoshiqiufeng.loki.support.core.util.StringUtils;
-import io.github.guoshiqiufeng.loki.support.core.util.ThreadPoolUtils;
 import io.github.guoshiqiufeng.loki.support.kafka.KafkaClient;
+import io.github.guoshiqiufeng.loki.support.kafka.consumer.KafkaOffsetCommitter;
+import io.github.guoshiqiufeng.loki.support.kafka.consumer.KafkaParallelConsumer;
+import io.github.guoshiqiufeng.loki.support.kafka.consumer.KafkaRebalanceHook;
+import io.github.guoshiqiufeng.loki.support.kafka.utils.KafkaConfigUtils;
 import io.github.guoshiqiufeng.loki.support.kafka.utils.KafkaConsumeUtils;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.header.Header;
@@ -34,11 +44,15 @@ import org.apache.kafka.common.header.internals.RecordHeader;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 
 /**
@@ -50,7 +64,31 @@ import java.util.function.Function;
 public abstract class BaseKafkaClient implements KafkaClient {
 
     /**
-     * 发送消息
+     * 未设置 kafka 配置时每个监听的最大消费者数量
+     */
+    private static final int DEFAULT_MAX_CONSUMERS_PER_LISTENER = 4;
+
+    /**
+     * 同步发送等待超时时间，单位毫秒，小于等于0时一直等待
+     */
+    @Setter
+    private long sendTimeout;
+
+    /**
+     * kafka 配置
+     */
+    @Getter
+    @Setter
+    private KafkaConfig kafkaConfig;
+
+    /**
+     * 分区重平衡回调
+     */
+    @Setter
+    private List<ConsumerRebalanceListener> rebalanceListeners;
+
+    /**
+     * 发送消息，在调用线程中等待发送结果
      *
      * @param groupName      组名称
      * @param producerRecord 发送信息
@@ -58,15 +96,27 @@ public abstract class BaseKafkaClient implements KafkaClient {
      */
     @Override
     public ProducerResult send(String groupName, io.github.guoshiqiufeng.loki.support.core.producer.ProducerRecord producerRecord) {
+        if (producerRecord == null) {
+            throw new LokiException("send fail : producerRecord is null!");
+        }
+        Future<RecordMetadata> future = send(groupName, covertKafkaRecord(producerRecord));
         try {
-            return sendAsync(groupName, producerRecord).get();
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException(e);
+            return toProducerResult(await(future, deadline()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LokiException("send interrupted, topic:%s", producerRecord.getTopic());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            throw new LokiException("send fail, topic:%s, %s", producerRecord.getTopic(), cause.getMessage());
+        } catch (TimeoutException e) {
+            throw new LokiException("send timeout after %sms, topic:%s", sendTimeout, producerRecord.getTopic());
         }
     }
 
     /**
      * 发送消息
+     * <p>
+     * 由 kafka producer 回调直接完成，不占用额外线程；后续非 Async 阶段将在 kafka I/O 线程中执行，不应阻塞
      *
      * @param groupName      组名称
      * @param producerRecord 发送信息
@@ -77,24 +127,107 @@ public abstract class BaseKafkaClient implements KafkaClient {
         if (producerRecord == null) {
             throw new LokiException("sendAsync fail : producerRecord is null!");
         }
-        ProducerRecord<String, String> kafkaRecord = covertKafkaRecord(producerRecord);
-        return CompletableFuture.supplyAsync(() -> {
-                    try {
-                        return send(groupName, kafkaRecord).get();
-                    } catch (InterruptedException | ExecutionException e) {
-                        throw new LokiException(e.getMessage());
+        ProducerRecord<String, byte[]> kafkaRecord = covertKafkaRecord(producerRecord);
+        CompletableFuture<ProducerResult> future = new CompletableFuture<>();
+        try {
+            send(groupName, kafkaRecord, (recordMetadata, exception) -> {
+                if (exception != null) {
+                    future.completeExceptionally(exception);
+                } else {
+                    future.complete(toProducerResult(recordMetadata));
+                }
+            });
+        } catch (Exception e) {
+            // 序列化失败、缓冲区已满等情况会直接抛出
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 批量发送消息，连续发送后统一 flush
+     *
+     * @param groupName       组名称
+     * @param producerRecords 发送信息
+     * @return 发送消息结果，与发送信息顺序一致
+     */
+    @Override
+    public List<ProducerResult> sendBatch(String groupName, Collection<io.github.guoshiqiufeng.loki.support.core.producer.ProducerRecord> producerRecords) {
+        List<ProducerResult> results = new ArrayList<>(producerRecords.size());
+        List<Future<RecordMetadata>> futures = new ArrayList<>(producerRecords.size());
+        List<String> topics = new ArrayList<>(producerRecords.size());
+        for (io.github.guoshiqiufeng.loki.support.core.producer.ProducerRecord producerRecord : producerRecords) {
+            String topic = producerRecord == null ? null : producerRecord.getTopic();
+            topics.add(topic);
+            try {
+                if (producerRecord == null) {
+                    throw new LokiException("sendBatch fail : producerRecord is null!");
+                }
+                futures.add(send(groupName, covertKafkaRecord(producerRecord)));
+                results.add(null);
+            } catch (Exception e) {
+                futures.add(null);
+                results.add(ProducerResult.failure(topic, e));
+            }
+        }
+        flush(groupName);
+        long deadline = deadline();
+        for (int i = 0; i < futures.size(); i++) {
+            Future<RecordMetadata> future = futures.get(i);
+            if (future == null) {
+                continue;
+            }
+            try {
+                results.set(i, toProducerResult(await(future, deadline)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.set(i, ProducerResult.failure(topics.get(i), e));
+            } catch (ExecutionException e) {
+                results.set(i, ProducerResult.failure(topics.get(i), e.getCause()));
+            } catch (TimeoutException e) {
+                results.set(i, ProducerResult.failure(topics.get(i), e));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 异步批量发送消息，各消息由 kafka producer 回调完成
+     *
+     * @param groupName       组名称
+     * @param producerRecords 发送信息
+     * @return 发送消息结果，与发送信息顺序一致
+     */
+    @Override
+    public CompletableFuture<List<ProducerResult>> sendBatchAsync(String groupName, Collection<io.github.guoshiqiufeng.loki.support.core.producer.ProducerRecord> producerRecords) {
+        List<CompletableFuture<ProducerResult>> futures = new ArrayList<>(producerRecords.size());
+        for (io.github.guoshiqiufeng.loki.support.core.producer.ProducerRecord producerRecord : producerRecords) {
+            String topic = producerRecord == null ? null : producerRecord.getTopic();
+            CompletableFuture<ProducerResult> future;
+            try {
+                future = sendAsync(groupName, producerRecord);
+            } catch (Exception e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+            futures.add(future.handle((result, throwable) -> throwable == null ? result
+                    : ProducerResult.failure(topic, throwable)));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(v -> {
+                    List<ProducerResult> results = new ArrayList<>(futures.size());
+                    for (CompletableFuture<ProducerResult> future : futures) {
+                        results.add(future.join());
                     }
-                })
-                .thenApplyAsync(recordMetadata -> {
-                    ProducerResult result = new ProducerResult();
-                    result.setTopic(recordMetadata.topic());
-                    result.setMsgId(recordMetadata.partition() + "_" + recordMetadata.offset());
-                    return result;
+                    return results;
                 });
     }
 
     /**
-     * 消费消息
+     * 消费消息<br>
+     * 顺序消费默认按 consumptionThreadCount 在消费分组中启动多个消费者，数量不超过 maxConsumersPerListener 与订阅的分区数，
+     * 关闭 multiConsumer 时只启动一个；并行消费时只启动一个消费者，consumptionThreadCount 为处理线程数。
+     * 启动多个消费者时 maxCacheMessageCount 按消费者数量平分为每个消费者的 max.poll.records
      *
      * @param consumerConfig 消费配置
      * @param function       消费函数
@@ -114,43 +247,45 @@ public abstract class BaseKafkaClient implements KafkaClient {
             if (StringUtils.isEmpty(tag)) {
                 tag = "*";
             }
-            ExecutorService executorService = ThreadPoolUtils.getSingleThreadPool();
-            String finalTag = tag;
-            KafkaConsumer<String, String> consumer = this.getConsumer(consumerConfig.getConsumerGroup(), consumerConfig.getIndex());
-            CompletableFuture.runAsync(() -> {
-                if (!StringUtils.isEmpty(topicPattern)) {
-                    KafkaConsumeUtils.consumeMessageForPattern(
-                            consumer,
-                            topicPattern, finalTag,
-                            record -> function.apply(new MessageContent<String>()
-                                    .setMessageId(record.getMessageId())
-                                    // .setMessageGroup(messageGroup)
-                                    .setTopic(record.getTopic())
-                                    .setTag(record.getTag())
-                                    .setKeys(record.getKeys())
-                                    .setBody(record.getBodyMessage())
-                                    .setBodyMessage(record.getBodyMessage())));
-                } else {
-                    KafkaConsumeUtils.consumeMessage(
-                            consumer,
-                            topic, finalTag,
-                            record -> function.apply(new MessageContent<String>()
-                                    .setMessageId(record.getMessageId())
-                                    // .setMessageGroup(messageGroup)
-                                    .setTopic(record.getTopic())
-                                    .setTag(record.getTag())
-                                    .setKeys(record.getKeys())
-                                    .setBody(record.getBodyMessage())
-                                    .setBodyMessage(record.getBodyMessage())));
+            Function<ConsumerRecord, Void> recordFunction = record -> function.apply(record.toMessageContent());
+            int consumerCount = getConsumerCount(consumerConfig);
+            Map<String, Object> configs = consumerCount > 1 ? KafkaConfigUtils.getConsumerDefaults(
+                    divide(consumerConfig.getMaxCacheMessageCount(), consumerCount),
+                    divide(kafkaConfig == null ? null : kafkaConfig.getFetchMaxBytes(), consumerCount))
+                    : Collections.emptyMap();
+            List<KafkaConsumer<String, byte[]>> consumers = new ArrayList<>(consumerCount);
+            try {
+                for (int member = 0; member < consumerCount; member++) {
+                    consumers.add(this.getConsumer(consumerConfig.getConsumerGroup(), consumerConfig.getIndex(),
+                            member, configs));
                 }
-
-            }, executorService).exceptionally(throwable -> {
-                if (log.isErrorEnabled()) {
-                    log.error("Exception occurred in CompletableFuture: {}", throwable.getMessage());
+            } catch (RuntimeException e) {
+                consumers.forEach(this::closeQuietly);
+                throw e;
+            }
+            int started = 0;
+            try {
+                for (; started < consumerCount; started++) {
+                    String name = "kafka-listener-" + (StringUtils.isEmpty(topicPattern) ? topic : topicPattern)
+                            + "-" + getMemberId(consumerConfig.getIndex(), started);
+                    start(name, consumers.get(started), consumerConfig, tag, recordFunction);
                 }
-                return null;
-            });
-
+            } catch (RuntimeException e) {
+                // 已启动的消费者由拉取循环在唤醒后关闭，未启动的直接关闭
+                for (int member = 0; member < consumerCount; member++) {
+                    if (member < started) {
+                        consumers.get(member).wakeup();
+                    } else {
+                        closeQuietly(consumers.get(member));
+                    }
+                }
+                throw e;
+            }
+            if (log.isInfoEnabled()) {
+                log.info("kafka listener {} started {} consumer(s) in group {}",
+                        StringUtils.isEmpty(topicPattern) ? topic : topicPattern, consumerCount,
+                        consumerConfig.getConsumerGroup());
+            }
         } catch (Exception e) {
             if (log.isErrorEnabled()) {
                 log.error("RocketMqHandler# pushMessageListener error:{}", e.getMessage());
@@ -159,13 +294,196 @@ public abstract class BaseKafkaClient implements KafkaClient {
         }
     }
 
+    /**
+     * 在独立线程中启动消费者，拉取循环一直占用该线程
+     *
+     * @param name           监听名称
+     * @param consumer       消费者
+     * @param consumerConfig 消费配置
+     * @param tag            标签
+     * @param recordFunction 消费函数
+     */
+    private void start(String name, KafkaConsumer<String, byte[]> consumer, ConsumerConfig consumerConfig, String tag,
+                       Function<ConsumerRecord, Void> recordFunction) {
+        String topic = consumerConfig.getTopic();
+        String topicPattern = consumerConfig.getTopicPattern();
+        KafkaRebalanceHook hook = new KafkaRebalanceHook(name, rebalanceListeners);
+        ExecutorUtils.runLoop(name, () -> {
+            if (isParallelConsume()) {
+                new KafkaParallelConsumer(name, consumer, topic, topicPattern, tag,
+                        consumerConfig.getConsumptionThreadCount(), consumerConfig.getMaxCacheMessageCount(),
+                        kafkaConfig.getConsumeOrder(), createCommitter(name, consumer, hook),
+                        kafkaConfig.getRebalanceDrainTimeoutMillis(), kafkaConfig.getListenerRetryTimes(),
+                        kafkaConfig.getListenerRetryIntervalMillis(), recordFunction).run();
+            } else if (isManagedCommit()) {
+                KafkaConsumeUtils.consumeMessage(consumer, topic, topicPattern, tag,
+                        createCommitter(name, consumer, hook), kafkaConfig.getListenerRetryTimes(),
+                        kafkaConfig.getListenerRetryIntervalMillis(), recordFunction);
+            } else if (!StringUtils.isEmpty(topicPattern)) {
+                KafkaConsumeUtils.consumeMessageForPattern(consumer, topicPattern, tag, hook, recordFunction);
+            } else {
+                KafkaConsumeUtils.consumeMessage(consumer, topic, tag, hook, recordFunction);
+            }
+
+        }).exceptionally(throwable -> {
+            if (log.isErrorEnabled()) {
+                log.error("Exception occurred in CompletableFuture: {}", throwable.getMessage());
+            }
+            return null;
+        });
+    }
+
+    private void closeQuietly(KafkaConsumer<String, byte[]> consumer) {
+        try {
+            consumer.close();
+        } catch (Exception e) {
+            if (log.isWarnEnabled()) {
+                log.warn("kafka consumer close error:{}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 计算监听的消费者数量<br>
+     * 顺序消费时为 consumptionThreadCount、maxConsumersPerListener 与订阅分区数的最小值，
+     * 分区数获取失败或主题尚未创建时为 1；关闭 multiConsumer 或并行消费时为 1
+     *
+     * @param consumerConfig 消费配置
+     * @return 消费者数量
+     */
+    private int getConsumerCount(ConsumerConfig consumerConfig) {
+        Integer threadCount = consumerConfig.getConsumptionThreadCount();
+        if ((kafkaConfig != null && !kafkaConfig.isMultiConsumer()) || isParallelConsume()
+                || threadCount == null || threadCount <= 1) {
+            return 1;
+        }
+        int maxConsumers = kafkaConfig == null ? DEFAULT_MAX_CONSUMERS_PER_LISTENER
+                : kafkaConfig.getMaxConsumersPerListener();
+        int maxCount = Math.min(threadCount, Math.max(1, maxConsumers));
+        int partitionCount;
+        try {
+            partitionCount = getPartitionCount(consumerConfig.getTopic(), consumerConfig.getTopicPattern());
+        } catch (Exception e) {
+            if (log.isWarnEnabled()) {
+                log.warn("kafka get partition count error:{}, start 1 consumer", e.getMessage());
+            }
+            return 1;
+        }
+        return partitionCount <= 0 ? 1 : Math.min(maxCount, partitionCount);
+    }
+
+    /**
+     * 获取订阅的分区数，所有监听共用一个元数据客户端
+     *
+     * @param topic        主题
+     * @param topicPattern 主题正则，不为空时优先使用
+     * @return 分区数
+     * @throws Exception 获取失败
+     */
+    protected abstract int getPartitionCount(String topic, String topicPattern) throws Exception;
+
+    private Integer divide(Integer total, int consumerCount) {
+        if (total == null || total <= 0) {
+            return null;
+        }
+        return Math.max(1, total / consumerCount);
+    }
+
+    /**
+     * 获取消费者标识，第一个消费者与监听序号一致，保持原有 client.id 与 group.instance.id 不变
+     *
+     * @param index  监听序号
+     * @param member 同一监听下的消费者序号
+     * @return 消费者标识
+     */
+    protected String getMemberId(Integer index, int member) {
+        return member == 0 ? String.valueOf(index) : index + "_" + member;
+    }
+
+    /**
+     * 是否并行消费
+     *
+     * @return 是否并行消费
+     */
+    protected boolean isParallelConsume() {
+        return kafkaConfig != null && kafkaConfig.isParallelConsume();
+    }
+
+    /**
+     * 是否由 loki 管理位点，并行消费时始终管理
+     *
+     * @return 是否由 loki 管理位点
+     */
+    protected boolean isManagedCommit() {
+        return kafkaConfig != null && (kafkaConfig.isManagedCommit() || kafkaConfig.isParallelConsume());
+    }
+
+    private KafkaOffsetCommitter createCommitter(String name, KafkaConsumer<String, byte[]> consumer,
+                                                 KafkaRebalanceHook hook) {
+        return new KafkaOffsetCommitter(name, consumer, kafkaConfig.getCommitBatchSize(),
+                kafkaConfig.getCommitIntervalMillis(), hook);
+    }
+
+    /**
+     * 获取静态成员 group.instance.id，由消费分组、实例标识与监听序号组成，重启后保持不变
+     *
+     * @param consumerGroup 消费分组
+     * @param memberId      消费者标识
+     * @return group.instance.id，未开启静态成员时返回null
+     */
+    protected String getGroupInstanceId(String consumerGroup, String memberId) {
+        if (kafkaConfig != null && !kafkaConfig.isStaticMembership()) {
+            return null;
+        }
+        String instanceId = kafkaConfig == null || StringUtils.isEmpty(kafkaConfig.getInstanceId())
+                ? KafkaConfigUtils.getHostName() : kafkaConfig.getInstanceId();
+        return consumerGroup + "_" + instanceId + "_" + memberId;
+    }
+
+    /**
+     * 计算同步发送截止时间
+     *
+     * @return 截止时间（nanoTime），不限制时返回0
+     */
+    private long deadline() {
+        return sendTimeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeout) : 0;
+    }
+
+    /**
+     * 等待发送结果
+     *
+     * @param future   发送结果
+     * @param deadline 截止时间（nanoTime），为0时一直等待
+     * @return 发送元数据
+     */
+    private RecordMetadata await(Future<RecordMetadata> future, long deadline)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (deadline == 0) {
+            return future.get();
+        }
+        return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 转换发送结果
+     *
+     * @param recordMetadata 发送元数据
+     * @return 发送消息结果
+     */
+    private ProducerResult toProducerResult(RecordMetadata recordMetadata) {
+        ProducerResult result = new ProducerResult();
+        result.setTopic(recordMetadata.topic());
+        result.setMsgId(recordMetadata.partition() + "_" + recordMetadata.offset());
+        return result;
+    }
+
     /**
      * record 转换为 kafka record
      *
      * @param producerRecord producerRecord
      * @return kafka producerRecord
      */
-    private ProducerRecord<String, String> covertKafkaRecord(io.github.guoshiqiufeng.loki.support.core.producer.ProducerRecord producerRecord) {
+    private ProducerRecord<String, byte[]> covertKafkaRecord(io.github.guoshiqiufeng.loki.support.core.producer.ProducerRecord producerRecord) {
         producerRecord = PipelineUtils.processSend(producerRecord);
         if (producerRecord == null) {
             throw new LokiException("producerRecord is null!");
@@ -184,8 +502,12 @@ public abstract class BaseKafkaClient implements KafkaClient {
         if (producerRecord.getKeys() != null && !producerRecord.getKeys().isEmpty()) {
             key = producerRecord.getKeys().get(0);
         }
+        byte[] value = producerRecord.getMessageBody();
+        if (value == null && producerRecord.getMessage() != null) {
+            value = producerRecord.getMessage().getBytes(StandardCharsets.UTF_8);
+        }
         return new ProducerRecord<>(producerRecord.getTopic(),
-                null, timestamp, key, producerRecord.getMessage(), headers);
+                null, timestamp, key, value, headers);
     }
 
 
@@ -196,7 +518,24 @@ public abstract class BaseKafkaClient implements KafkaClient {
      * @param producerRecord 消息
      * @return Future
      */
-    abstract Future<RecordMetadata> send(String producerName, ProducerRecord<String, String> producerRecord);
+    abstract Future<RecordMetadata> send(String producerName, ProducerRecord<String, byte[]> producerRecord);
+
+    /**
+     * 发送消息
+     *
+     * @param producerName   生产者名称
+     * @param producerRecord 消息
+     * @param callback       发送完成回调，在 kafka I/O 线程中执行
+     * @return Future
+     */
+    abstract Future<RecordMetadata> send(String producerName, ProducerRecord<String, byte[]> producerRecord, Callback callback);
+
+    /**
+     * 发送缓冲区中的消息
+     *
+     * @param producerName 生产者名称
+     */
+    abstract void flush(String producerName);
 
 
 }
@@ -18,10 +18,13 @@ package io.github.guoshiqiufeng.loki.support.kafka.impl;
 import io.github.guoshiqiufeng.loki.support.kafka.config.KafkaProperties;
 import io.github.guoshiqiufeng.loki.support.kafka.utils.KafkaConfigUtils;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.Future;
 
 /**
@@ -55,11 +58,35 @@ public class KafkaDefaultImpl extends BaseKafkaClient {
      * @return Future
      */
     @Override
-    public Future<RecordMetadata> send(String producerName, ProducerRecord<String, String> producerRecord) {
-        KafkaProducer<String, String> producer = KafkaConfigUtils.getProducer(producerName, kafkaProperties);
+    public Future<RecordMetadata> send(String producerName, ProducerRecord<String, byte[]> producerRecord) {
+        KafkaProducer<String, byte[]> producer = KafkaConfigUtils.getProducer(producerName, kafkaProperties);
         return producer.send(producerRecord);
     }
 
+    /**
+     * 发送消息
+     *
+     * @param producerName   生产者名称
+     * @param producerRecord 消息
+     * @param callback       发送完成回调，在 kafka I/O 线程中执行
+     * @return Future
+     */
+    @Override
+    public Future<RecordMetadata> send(String producerName, ProducerRecord<String, byte[]> producerRecord, Callback callback) {
+        KafkaProducer<String, byte[]> producer = KafkaConfigUtils.getProducer(producerName, kafkaProperties);
+        return producer.send(producerRecord, callback);
+    }
+
+    /**
+     * 发送缓冲区中的消息
+     *
+     * @param producerName 生产者名称
+     */
+    @Override
+    public void flush(String producerName) {
+        KafkaConfigUtils.getProducer(producerName, kafkaProperties).flush();
+    }
+
     /**
      * 获取消费者
      *
@@ -68,7 +95,37 @@ public class KafkaDefaultImpl extends BaseKafkaClient {
      * @return 消费者
      */
     @Override
-    public KafkaConsumer<String, String> getConsumer(String consumerGroup, Integer index) {
-        return KafkaConfigUtils.getConsumerBuilder(kafkaProperties, consumerGroup, index);
+    public KafkaConsumer<String, byte[]> getConsumer(String consumerGroup, Integer index) {
+        return getConsumer(consumerGroup, index, 0, Collections.emptyMap());
+    }
+
+    /**
+     * 获取消费者，同一监听启动多个消费者时使用
+     *
+     * @param consumerGroup 消费者组
+     * @param index         消费者索引
+     * @param member        同一监听下的消费者序号
+     * @param configs       消费者默认配置，kafka 配置中已配置时使用配置
+     * @return 消费者
+     */
+    @Override
+    public KafkaConsumer<String, byte[]> getConsumer(String consumerGroup, Integer index, int member,
+                                                     Map<String, Object> configs) {
+        String memberId = getMemberId(index, member);
+        return KafkaConfigUtils.getConsumerBuilder(kafkaProperties, consumerGroup, memberId, isManagedCommit(),
+                getGroupInstanceId(consumerGroup, memberId), configs);
+    }
+
+    /**
+     * 获取订阅的分区数
+     *
+     * @param topic        主题
+     * @param topicPattern 主题正则，不为空时优先使用
+     * @return 分区数
+     * @throws Exception 获取失败
+     */
+    @Override
+    protected int getPartitionCount(String topic, String topicPattern) throws Exception {
+        return KafkaConfigUtils.getPartitionCount(kafkaProperties, topic, topicPattern);
     }
 }
@@ -21,11 +21,19 @@ import io.github.guoshiqiufeng.loki.support.kafka.config.KafkaProperties;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.CommonClientConfigs;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -39,7 +47,19 @@ import java.util.stream.Collectors;
 @UtilityClass
 public class KafkaConfigUtils {
 
-    private final Map<String, KafkaProducer<String, String>> producerMap = new HashMap<>();
+    private final Map<String, KafkaProducer<String, byte[]>> producerMap = new HashMap<>();
+
+    private volatile String hostName;
+
+    /**
+     * 元数据客户端，所有监听共用
+     */
+    private volatile Admin admin;
+
+    /**
+     * 元数据请求超时时间，单位秒
+     */
+    private final long METADATA_TIMEOUT_SECONDS = 10;
 
     /**
      * 获取 Producer
@@ -48,12 +68,12 @@ public class KafkaConfigUtils {
      * @param properties 配置
      * @return Producer
      */
-    public KafkaProducer<String, String> getProducer(String beanName, KafkaProperties properties) {
+    public KafkaProducer<String, byte[]> getProducer(String beanName, KafkaProperties properties) {
         if (beanName == null || beanName.isEmpty()) {
             beanName = "defaultProducer";
         }
         if (producerMap.get(beanName) == null) {
-            KafkaProducer<String, String> producer = producerBuilder(beanName, properties);
+            KafkaProducer<String, byte[]> producer = producerBuilder(beanName, properties);
             producerMap.put(beanName, producer);
         }
         return producerMap.get(beanName);
@@ -67,11 +87,12 @@ public class KafkaConfigUtils {
      * @param properties 配置
      * @return Producer
      */
-    public KafkaProducer<String, String> producerBuilder(String beanName, KafkaProperties properties) {
+    public KafkaProducer<String, byte[]> producerBuilder(String beanName, KafkaProperties properties) {
         Properties clientConfiguration = new Properties();
         clientConfiguration.putAll(properties.buildProducerProperties());
         clientConfiguration.put(ProducerConfig.CLIENT_ID_CONFIG, beanName);
-        KafkaProducer<String, String> producer = new KafkaProducer<>(clientConfiguration);
+        forceValueSerde(clientConfiguration, ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        KafkaProducer<String, byte[]> producer = new KafkaProducer<>(clientConfiguration);
         if (log.isInfoEnabled()) {
             log.info(String.format("%s started successful on bootstrap.servers %s", beanName, clientConfiguration.getProperty(ProducerConfig.CLIENT_ID_CONFIG)));
         }
@@ -87,13 +108,144 @@ public class KafkaConfigUtils {
      * @param index      排序
      * @return PushConsumerBuilder
      */
-    public KafkaConsumer<String, String> getConsumerBuilder(KafkaProperties properties, String groupId, int index) {
+    public KafkaConsumer<String, byte[]> getConsumerBuilder(KafkaProperties properties, String groupId, int index) {
+        return getConsumerBuilder(properties, groupId, index, false, groupId + "_" + getHostName() + "_" + index);
+    }
+
+    /**
+     * 获取 PushConsumerBuilder
+     *
+     * @param properties   配置
+     * @param groupId      消费分组id
+     * @param index        排序
+     * @param manualCommit 是否由 loki 提交位点，为 true 时关闭自动提交
+     * @param instanceId   静态成员 group.instance.id，为空时为动态成员
+     * @return PushConsumerBuilder
+     */
+    public KafkaConsumer<String, byte[]> getConsumerBuilder(KafkaProperties properties, String groupId, int index,
+                                                           boolean manualCommit, String instanceId) {
+        return getConsumerBuilder(properties, groupId, String.valueOf(index), manualCommit, instanceId,
+                Collections.emptyMap());
+    }
+
+    /**
+     * 获取 PushConsumerBuilder
+     *
+     * @param properties   配置
+     * @param groupId      消费分组id
+     * @param memberId     消费者标识，由监听序号与消费者序号组成
+     * @param manualCommit 是否由 loki 提交位点，为 true 时关闭自动提交
+     * @param instanceId   静态成员 group.instance.id，为空时为动态成员
+     * @param defaults     默认配置，如 max.poll.records、fetch.max.bytes，已配置时使用配置
+     * @return PushConsumerBuilder
+     */
+    public KafkaConsumer<String, byte[]> getConsumerBuilder(KafkaProperties properties, String groupId, String memberId,
+                                                           boolean manualCommit, String instanceId,
+                                                           Map<String, Object> defaults) {
         Properties config = new Properties();
         config.putAll(properties.buildConsumerProperties());
-        config.put(ProducerConfig.CLIENT_ID_CONFIG, groupId + "_" + index);
+        if (defaults != null) {
+            defaults.forEach(config::putIfAbsent);
+        }
+        config.put(ProducerConfig.CLIENT_ID_CONFIG, groupId + "_" + memberId);
+        forceValueSerde(config, ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
         config.put(CommonClientConfigs.GROUP_ID_CONFIG, groupId);
-        config.put(CommonClientConfigs.GROUP_INSTANCE_ID_CONFIG, groupId + "_" + UUID.randomUUID());
-        return new KafkaConsumer<String, String>(config);
+        if (instanceId != null && !instanceId.isEmpty()) {
+            config.put(CommonClientConfigs.GROUP_INSTANCE_ID_CONFIG, instanceId);
+        }
+        // 默认增量重平衡，只迁移需要移动的分区；已配置时使用配置
+        config.putIfAbsent(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG,
+                CooperativeStickyAssignor.class.getName());
+        if (manualCommit) {
+            config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        }
+        return new KafkaConsumer<String, byte[]>(config);
+    }
+
+    /**
+     * 固定 value 序列化类，消息内容由 loki 编解码器处理，传输始终为 byte[]
+     *
+     * @param config 配置
+     * @param key    配置项
+     * @param type   序列化类
+     */
+    private void forceValueSerde(Properties config, String key, Class<?> type) {
+        Object configured = config.put(key, type);
+        if (configured == null || !log.isWarnEnabled()) {
+            return;
+        }
+        String name = configured instanceof Class ? ((Class<?>) configured).getName() : configured.toString();
+        if (!type.getName().equals(name)) {
+            log.warn("{}:{} is ignored, loki kafka always uses {}", key, name, type.getName());
+        }
+    }
+
+    /**
+     * 获取消费者默认配置
+     *
+     * @param maxPollRecords 单次拉取最大消息数，为空时不设置
+     * @param fetchMaxBytes  单次拉取最大字节数，为空时不设置
+     * @return 消费者默认配置
+     */
+    public Map<String, Object> getConsumerDefaults(Integer maxPollRecords, Integer fetchMaxBytes) {
+        Map<String, Object> defaults = new HashMap<>(4);
+        if (maxPollRecords != null) {
+            defaults.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        }
+        if (fetchMaxBytes != null) {
+            defaults.put(ConsumerConfig.FETCH_MAX_BYTES_CONFIG, fetchMaxBytes);
+        }
+        return defaults;
+    }
+
+    /**
+     * 获取订阅的分区数，通过共用的元数据客户端查询
+     *
+     * @param properties   配置
+     * @param topic        主题
+     * @param topicPattern 主题正则，不为空时优先使用
+     * @return 分区数
+     * @throws Exception 查询失败或主题不存在
+     */
+    public int getPartitionCount(KafkaProperties properties, String topic, String topicPattern) throws Exception {
+        Admin client = getAdmin(properties);
+        Collection<String> topics;
+        if (topicPattern == null || topicPattern.isEmpty()) {
+            topics = Collections.singletonList(topic);
+        } else {
+            Pattern pattern = Pattern.compile(topicPattern);
+            topics = client.listTopics().names().get(METADATA_TIMEOUT_SECONDS, TimeUnit.SECONDS).stream()
+                    .filter(name -> pattern.matcher(name).matches())
+                    .collect(Collectors.toList());
+            if (topics.isEmpty()) {
+                return 0;
+            }
+        }
+        int partitionCount = 0;
+        for (TopicDescription description : client.describeTopics(topics).allTopicNames()
+                .get(METADATA_TIMEOUT_SECONDS, TimeUnit.SECONDS).values()) {
+            partitionCount += description.partitions().size();
+        }
+        return partitionCount;
+    }
+
+    /**
+     * 获取元数据客户端，首次使用时创建
+     *
+     * @param properties 配置
+     * @return 元数据客户端
+     */
+    private Admin getAdmin(KafkaProperties properties) {
+        Admin current = admin;
+        if (current == null) {
+            synchronized (KafkaConfigUtils.class) {
+                if (admin == null) {
+                    admin = Admin.create(properties.buildAdminProperties());
+                }
+                current = admin;
+            }
+        }
+        return current;
     }
 
     /**
@@ -107,12 +259,25 @@ public class KafkaConfigUtils {
         if (mqConfig.getAddress() != null && !mqConfig.getAddress().isEmpty()) {
             kafkaProperties.setBootstrapServers(Arrays.stream(mqConfig.getAddress().split(",")).collect(Collectors.toList()));
         }
-        String hostName = "unknown";
-        try {
-            hostName = java.net.InetAddress.getLocalHost().getHostName();
-        } catch (Exception e) {
-            log.error("get hostName error", e);
+        kafkaProperties.setClientId(getHostName());
+    }
+
+    /**
+     * 获取主机名
+     *
+     * @return 主机名，获取失败时返回 unknown
+     */
+    public String getHostName() {
+        String name = hostName;
+        if (name == null) {
+            name = "unknown";
+            try {
+                name = java.net.InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                log.error("get hostName error", e);
+            }
+            hostName = name;
         }
-        kafkaProperties.setClientId(hostName);
+        return name;
     }
 }
@@ -15,17 +15,31 @@
  */
 package io.github.guoshiqiufeng.loki.support.kafka.utils;
 
+import io.github.guoshiqiufeng.loki.constant.Constant;
 import io.github.guoshiqiufeng.loki.support.core.consumer.ConsumerRecord;
 import io.github.guoshiqiufeng.loki.support.core.pipeline.PipelineUtils;
-import io.github.guoshiqiufeng.loki.support.kafka.consumer.KafkaConsumerRecord;
+import io.github.guoshiqiufeng.loki.support.kafka.consumer.KafkaOffsetCommitter;
+import io.github.guoshiqiufeng.loki.support.kafka.consumer.KafkaRebalanceHook;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.header.Header;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 
@@ -38,27 +52,36 @@ import java.util.regex.Pattern;
 @UtilityClass
 public class KafkaConsumeUtils {
 
-    public void consumeMessageForPattern(KafkaConsumer<String, String> consumer, String topicPattern, String tag, Function<ConsumerRecord, Void> function) {
+    /**
+     * 监听标签的 UTF-8 编码，标签数量与监听数量一致
+     */
+    private final Map<String, byte[]> TAG_BYTES = new ConcurrentHashMap<>();
+
+    private final byte[] EMPTY = new byte[0];
+
+    public void consumeMessageForPattern(KafkaConsumer<String, byte[]> consumer, String topicPattern, String tag, Function<ConsumerRecord, Void> function) {
+        consumeMessageForPattern(consumer, topicPattern, tag, new KafkaRebalanceHook(topicPattern, null), function);
+    }
+
+    /**
+     * 消费消息，位点自动提交
+     *
+     * @param consumer     消费者
+     * @param topicPattern 主题正则
+     * @param tag          标签
+     * @param listener     重平衡回调
+     * @param function     回调方法
+     */
+    public void consumeMessageForPattern(KafkaConsumer<String, byte[]> consumer, String topicPattern, String tag,
+                                         ConsumerRebalanceListener listener, Function<ConsumerRecord, Void> function) {
         try {
-            consumer.subscribe(Pattern.compile(topicPattern));
+            consumer.subscribe(Pattern.compile(topicPattern), listener);
             while (true) {
-                ConsumerRecords<String, String> records = consumer.poll(Duration.ofMillis(Long.MAX_VALUE));
+                ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofMillis(Long.MAX_VALUE));
                 records.forEach(record -> {
-                    KafkaConsumerRecord<String, String> kafkaConsumerRecord = new KafkaConsumerRecord<String, String>(record);
-                    if (tag == null || tag.isEmpty() || "*".equals(tag)) {
-                        ConsumerRecord consumerRecord = covertConsumerRecord(kafkaConsumerRecord);
-                        consumerRecord = PipelineUtils.processListener(consumerRecord);
-                        if (consumerRecord != null) {
-                            function.apply(consumerRecord);
-                        }
-                    } else {
-                        if (tag.equals(kafkaConsumerRecord.tag())) {
-                            ConsumerRecord consumerRecord = covertConsumerRecord(kafkaConsumerRecord);
-                            consumerRecord = PipelineUtils.processListener(consumerRecord);
-                            if (consumerRecord != null) {
-                                function.apply(consumerRecord);
-                            }
-                        }
+                    ConsumerRecord consumerRecord = toConsumerRecord(record, tag);
+                    if (consumerRecord != null) {
+                        function.apply(consumerRecord);
                     }
                 });
             }
@@ -81,29 +104,113 @@ public class KafkaConsumeUtils {
      * @param tag      标签
      * @param function 回调方法
      */
-    public void consumeMessage(KafkaConsumer<String, String> consumer, String topic, String tag, Function<ConsumerRecord, Void> function) {
+    public void consumeMessage(KafkaConsumer<String, byte[]> consumer, String topic, String tag, Function<ConsumerRecord, Void> function) {
+        consumeMessage(consumer, topic, tag, new KafkaRebalanceHook(topic, null), function);
+    }
+
+    /**
+     * 消费消息，位点自动提交
+     *
+     * @param consumer 消费者
+     * @param topic    主题
+     * @param tag      标签
+     * @param listener 重平衡回调
+     * @param function 回调方法
+     */
+    public void consumeMessage(KafkaConsumer<String, byte[]> consumer, String topic, String tag,
+                               ConsumerRebalanceListener listener, Function<ConsumerRecord, Void> function) {
         try {
-            consumer.subscribe(Collections.singletonList(topic));
+            consumer.subscribe(Collections.singletonList(topic), listener);
             while (true) {
-                ConsumerRecords<String, String> records = consumer.poll(Duration.ofMillis(Long.MAX_VALUE));
+                ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofMillis(Long.MAX_VALUE));
                 records.forEach(record -> {
-                    KafkaConsumerRecord<String, String> kafkaConsumerRecord = new KafkaConsumerRecord<String, String>(record);
-                    if (tag == null || tag.isEmpty() || "*".equals(tag)) {
-                        ConsumerRecord consumerRecord = covertConsumerRecord(kafkaConsumerRecord);
-                        consumerRecord = PipelineUtils.processListener(consumerRecord);
-                        if (consumerRecord != null) {
-                            function.apply(consumerRecord);
-                        }
-                    } else {
-                        if (tag.equals(kafkaConsumerRecord.tag())) {
-                            ConsumerRecord consumerRecord = covertConsumerRecord(kafkaConsumerRecord);
-                            consumerRecord = PipelineUtils.processListener(consumerRecord);
-                            if (consumerRecord != null) {
-                                function.apply(consumerRecord);
+                    ConsumerRecord consumerRecord = toConsumerRecord(record, tag);
+                    if (consumerRecord != null) {
+                        function.apply(consumerRecord);
+                    }
+                });
+            }
+        } catch (WakeupException e) {
+            // ignore, we're closing
+        } catch (Exception e) {
+            if (log.isErrorEnabled()) {
+                log.error("Unexpected error", e);
+            }
+        } finally {
+            consumer.close();
+        }
+    }
+
+    /**
+     * 消费消息，由 loki 管理位点，保证至少一次消费
+     * <p>
+     * 处理完成的位点由 committer 批量提交；处理失败时回退到失败的位点并暂停该分区 retryIntervalMillis 毫秒后重新拉取，
+     * 同一条消息连续失败 retryTimes 次后记录日志并跳过，避免阻塞分区；分区回收时清除其失败记录
+     *
+     * @param consumer           消费者，需关闭自动提交
+     * @param topic              主题
+     * @param topicPattern       主题正则，不为空时优先使用
+     * @param tag                标签
+     * @param committer          位点提交
+     * @param retryTimes         重试次数
+     * @param retryIntervalMillis 重试间隔，单位毫秒
+     * @param function           回调方法
+     */
+    public void consumeMessage(KafkaConsumer<String, byte[]> consumer, String topic, String topicPattern, String tag,
+                               KafkaOffsetCommitter committer, int retryTimes, long retryIntervalMillis,
+                               Function<ConsumerRecord, Void> function) {
+        // 失败的分区 -> {位点, 失败次数}
+        Map<TopicPartition, long[]> failures = new HashMap<>();
+        // 等待重试的分区 -> 恢复拉取时间
+        Map<TopicPartition, Long> retryAt = new HashMap<>();
+        ConsumerRebalanceListener listener = new ConsumerRebalanceListener() {
+            @Override
+            public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+                committer.onPartitionsRevoked(partitions);
+                partitions.forEach(partition -> {
+                    failures.remove(partition);
+                    retryAt.remove(partition);
+                });
+            }
+
+            @Override
+            public void onPartitionsLost(Collection<TopicPartition> partitions) {
+                committer.onPartitionsLost(partitions);
+                partitions.forEach(partition -> {
+                    failures.remove(partition);
+                    retryAt.remove(partition);
+                });
+            }
+
+            @Override
+            public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+                committer.onPartitionsAssigned(partitions);
+            }
+        };
+        try {
+            if (topicPattern != null && !topicPattern.isEmpty()) {
+                consumer.subscribe(Pattern.compile(topicPattern), listener);
+            } else {
+                consumer.subscribe(Collections.singletonList(topic), listener);
+            }
+            Duration timeout = Duration.ofMillis(committer.getIntervalMillis());
+            while (true) {
+                resumeRetries(consumer, retryAt);
+                ConsumerRecords<String, byte[]> records = consumer.poll(timeout);
+                for (TopicPartition partition : records.partitions()) {
+                    for (org.apache.kafka.clients.consumer.ConsumerRecord<String, byte[]> record : records.records(partition)) {
+                        if (!handle(record, partition, tag, committer, retryTimes, failures, function)) {
+                            // 之后的消息在重试间隔后重新拉取处理
+                            consumer.seek(partition, record.offset());
+                            if (retryIntervalMillis > 0) {
+                                consumer.pause(Collections.singletonList(partition));
+                                retryAt.put(partition, System.currentTimeMillis() + retryIntervalMillis);
                             }
+                            break;
                         }
                     }
-                });
+                }
+                committer.maybeCommit();
             }
         } catch (WakeupException e) {
             // ignore, we're closing
@@ -112,18 +219,114 @@ public class KafkaConsumeUtils {
                 log.error("Unexpected error", e);
             }
         } finally {
+            committer.commitSync();
             consumer.close();
         }
     }
 
-    private ConsumerRecord covertConsumerRecord(KafkaConsumerRecord<String, String> kafkaConsumerRecord) {
-        return new ConsumerRecord(kafkaConsumerRecord.topic(),
-                kafkaConsumerRecord.tag(), getMsgId(kafkaConsumerRecord),
-                null, Collections.singletonList(kafkaConsumerRecord.key()),
-                kafkaConsumerRecord.value());
+    /**
+     * 恢复重试间隔已到的分区
+     *
+     * @param consumer 消费者
+     * @param retryAt  等待重试的分区与恢复拉取时间
+     */
+    private void resumeRetries(KafkaConsumer<String, byte[]> consumer, Map<TopicPartition, Long> retryAt) {
+        if (retryAt.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<TopicPartition> due = new ArrayList<>();
+        retryAt.forEach((partition, time) -> {
+            if (time <= now) {
+                due.add(partition);
+            }
+        });
+        if (!due.isEmpty()) {
+            due.forEach(retryAt::remove);
+            due.retainAll(consumer.assignment());
+            consumer.resume(due);
+        }
+    }
+
+    /**
+     * 处理单条消息
+     *
+     * @return 是否继续处理该分区之后的消息
+     */
+    private boolean handle(org.apache.kafka.clients.consumer.ConsumerRecord<String, byte[]> record,
+                           TopicPartition partition, String tag, KafkaOffsetCommitter committer, int retryTimes,
+                           Map<TopicPartition, long[]> failures, Function<ConsumerRecord, Void> function) {
+        ConsumerRecord consumerRecord = toConsumerRecord(record, tag);
+        if (consumerRecord == null) {
+            committer.skip(partition, record.offset());
+            return true;
+        }
+        committer.track(partition, record.offset());
+        try {
+            function.apply(consumerRecord);
+        } catch (Exception e) {
+            long[] failure = failures.get(partition);
+            if (failure == null || failure[0] != record.offset()) {
+                failure = new long[]{record.offset(), 0};
+                failures.put(partition, failure);
+            }
+            if (++failure[1] <= retryTimes) {
+                if (log.isWarnEnabled()) {
+                    log.warn("KafkaConsumeUtils# handle message error, retry {}/{}, topic:{}, partition:{}, offset:{}",
+                            failure[1], retryTimes, record.topic(), record.partition(), record.offset(), e);
+                }
+                return false;
+            }
+            if (log.isErrorEnabled()) {
+                log.error("KafkaConsumeUtils# handle message error, skip after {} retries, topic:{}, partition:{}, offset:{}",
+                        retryTimes, record.topic(), record.partition(), record.offset(), e);
+            }
+        }
+        failures.remove(partition);
+        committer.complete(partition, record.offset());
+        return true;
+    }
+
+    /**
+     * 按标签过滤并转换消息，经过监听管道处理<br>
+     * 先以字节比较 header 中的标签，被过滤的消息不解码标签与消息体
+     *
+     * @param record kafka 消息
+     * @param tag    标签，为空或 * 时不过滤
+     * @return 消息，被过滤时返回null
+     */
+    public ConsumerRecord toConsumerRecord(org.apache.kafka.clients.consumer.ConsumerRecord<String, byte[]> record,
+                                           String tag) {
+        byte[] recordTag = getTag(record);
+        if (tag != null && !tag.isEmpty() && !"*".equals(tag)) {
+            if (!Arrays.equals(TAG_BYTES.computeIfAbsent(tag, t -> t.getBytes(StandardCharsets.UTF_8)),
+                    recordTag == null ? EMPTY : recordTag)) {
+                return null;
+            }
+            return PipelineUtils.processListener(covertConsumerRecord(record, tag));
+        }
+        return PipelineUtils.processListener(covertConsumerRecord(record,
+                recordTag == null ? "" : new String(recordTag, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * 获取 header 中的标签，不解码
+     *
+     * @param record kafka 消息
+     * @return 第一个标签 header 的值，不存在时返回null
+     */
+    private byte[] getTag(org.apache.kafka.clients.consumer.ConsumerRecord<String, byte[]> record) {
+        Iterator<Header> iterator = record.headers().headers(Constant.KAFKA_TAG).iterator();
+        return iterator.hasNext() ? iterator.next().value() : null;
+    }
+
+    private ConsumerRecord covertConsumerRecord(org.apache.kafka.clients.consumer.ConsumerRecord<String, byte[]> record,
+                                                String tag) {
+        return new ConsumerRecord(record.topic(), tag, getMsgId(record),
+                null, Collections.singletonList(record.key()), null, record.value());
     }
 
-    private String getMsgId(KafkaConsumerRecord<String, String> recordMetadata) {
-        return recordMetadata.partition() + "_" + recordMetadata.offset();
+    private String getMsgId(org.apache.kafka.clients.consumer.ConsumerRecord<String, byte[]> record) {
+        return record.partition() + "_" + record.offset();
     }
 }
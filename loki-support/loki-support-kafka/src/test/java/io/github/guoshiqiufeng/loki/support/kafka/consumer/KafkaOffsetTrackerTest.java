@@ -0,0 +1,89 @@
+package io.github.guoshiqiufeng.loki.support.kafka.consumer;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 23:50
+ */
+public class KafkaOffsetTrackerTest {
+
+    private final TopicPartition partition = new TopicPartition("tracker", 0);
+
+    @Test
+    public void testCommittable() {
+        KafkaOffsetTracker tracker = new KafkaOffsetTracker();
+        tracker.track(partition, 0);
+        tracker.track(partition, 1);
+        tracker.track(partition, 2);
+
+        // 未完成的最小位点之前没有可提交的消息
+        tracker.complete(partition, 1);
+        assertOffset(0, tracker.committable());
+        Assertions.assertTrue(tracker.hasPending(Collections.singletonList(partition)));
+
+        tracker.complete(partition, 0);
+        assertOffset(2, tracker.committable());
+
+        tracker.complete(partition, 2);
+        assertOffset(3, tracker.committable());
+        Assertions.assertFalse(tracker.hasPending(Collections.singletonList(partition)));
+    }
+
+    @Test
+    public void testMarkCommitted() {
+        KafkaOffsetTracker tracker = new KafkaOffsetTracker();
+        tracker.track(partition, 0);
+        tracker.complete(partition, 0);
+
+        // 提交成功前重复返回，提交失败时可重新提交
+        assertOffset(1, tracker.committable());
+        assertOffset(1, tracker.committable());
+
+        tracker.markCommitted(tracker.committable());
+        Assertions.assertTrue(tracker.committable().isEmpty());
+        // 分区回收与关闭时不论是否已提交都返回当前位点
+        assertOffset(1, tracker.positions());
+        assertOffset(1, tracker.positions(Collections.singletonList(partition)));
+    }
+
+    @Test
+    public void testSkip() {
+        KafkaOffsetTracker tracker = new KafkaOffsetTracker();
+        tracker.skip(partition, 0);
+        tracker.skip(partition, 1);
+        assertOffset(2, tracker.committable());
+
+        tracker.track(partition, 2);
+        tracker.skip(partition, 3);
+        assertOffset(2, tracker.committable());
+
+        tracker.complete(partition, 2);
+        assertOffset(4, tracker.committable());
+    }
+
+    @Test
+    public void testRemove() {
+        KafkaOffsetTracker tracker = new KafkaOffsetTracker();
+        tracker.track(partition, 0);
+        tracker.remove(Collections.singletonList(partition));
+
+        // 回收后的处理结果不再提交
+        tracker.complete(partition, 0);
+        Assertions.assertTrue(tracker.committable().isEmpty());
+        Assertions.assertTrue(tracker.positions().isEmpty());
+        Assertions.assertFalse(tracker.hasPending(Collections.singletonList(partition)));
+    }
+
+    private void assertOffset(long expected, Map<TopicPartition, OffsetAndMetadata> offsets) {
+        Assertions.assertEquals(1, offsets.size());
+        Assertions.assertEquals(expected, offsets.get(partition).offset());
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.guoshiqiufeng.loki.support.kafka.consumer;
+
+import cn.hutool.extra.spring.SpringUtil;
+import io.github.guoshiqiufeng.loki.enums.KafkaConsumeOrder;
+import io.github.guoshiqiufeng.loki.support.core.consumer.ConsumerRecord;
+import io.github.guoshiqiufeng.loki.support.core.pipeline.PipelineHandler;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/19 09:10
+ */
+public class KafkaParallelConsumerTest {
+
+    private static final String TOPIC = "parallel";
+
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    @BeforeAll
+    public static void registerPipelineHandler() {
+        PipelineHandler handler = new PipelineHandler();
+        handler.setTemplateConfig(Collections.emptyMap());
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.registerBean(PipelineHandler.class, () -> handler);
+        context.refresh();
+        new SpringUtil().setApplicationContext(context);
+    }
+
+    @Test
+    public void testFailedRecordNotCommitted() throws Exception {
+        MockConsumer<String, byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updateBeginningOffsets(Collections.singletonMap(PARTITION, 0L));
+        consumer.schedulePollTask(() -> {
+            consumer.rebalance(Collections.singletonList(PARTITION));
+            for (long offset = 0; offset < 3; offset++) {
+                consumer.addRecord(new org.apache.kafka.clients.consumer.ConsumerRecord<>(TOPIC, 0, offset,
+                        "key" + offset, new byte[0]));
+            }
+        });
+
+        CountDownLatch retrying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+        Function<ConsumerRecord, Void> function = record -> {
+            // 位点 1 的消息第一次处理失败，重试时等待断言完成
+            if ("0_1".equals(record.getMessageId())) {
+                if (attempts.incrementAndGet() == 1) {
+                    throw new IllegalStateException("handle error");
+                }
+                retrying.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return null;
+        };
+        KafkaOffsetCommitter committer = new KafkaOffsetCommitter(TOPIC, consumer, 1, 10,
+                new KafkaRebalanceHook(TOPIC, null));
+        KafkaParallelConsumer parallelConsumer = new KafkaParallelConsumer("kafka-parallel-test", consumer, TOPIC,
+                null, "*", 3, 100, KafkaConsumeOrder.UNORDERED, committer, 1000, 3, 10, function);
+        Thread thread = new Thread(parallelConsumer);
+        thread.start();
+        try {
+            Assertions.assertTrue(retrying.await(10, TimeUnit.SECONDS));
+            // 位点 0、2 已完成，失败的位点 1 重试中，提交位点不越过 1
+            waitCommitted(consumer, 1);
+            Thread.sleep(100);
+            Assertions.assertEquals(1, committed(consumer));
+
+            release.countDown();
+            waitCommitted(consumer, 3);
+            Assertions.assertEquals(2, attempts.get());
+        } finally {
+            release.countDown();
+            consumer.wakeup();
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void waitCommitted(MockConsumer<String, byte[]> consumer, long offset) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (committed(consumer) != offset && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(offset, committed(consumer));
+    }
+
+    private long committed(MockConsumer<String, byte[]> consumer) {
+        OffsetAndMetadata offsetAndMetadata = consumer.committed(Collections.singleton(PARTITION)).get(PARTITION);
+        return offsetAndMetadata == null ? -1 : offsetAndMetadata.offset();
+    }
+}
@@ -17,6 +17,7 @@ package io.github.guoshiqiufeng.loki.support.redis.config;
 
 import io.github.guoshiqiufeng.loki.support.core.config.LokiProperties;
 import io.github.guoshiqiufeng.loki.support.redis.RedisClient;
+import io.github.guoshiqiufeng.loki.support.redis.impl.BaseRedisClient;
 import io.github.guoshiqiufeng.loki.support.redis.impl.jedis.RedisClusterImpl;
 import io.github.guoshiqiufeng.loki.support.redis.impl.jedis.RedisDefaultImpl;
 import io.github.guoshiqiufeng.loki.support.redis.impl.jedis.RedisSentinelImpl;
@@ -116,15 +117,18 @@ public class RedisDefaultAutoConfiguration {
     @ConditionalOnMissingBean(RedisClient.class)
     public RedisClient redisClient(LokiProperties lokiProperties, RedisProperties redisProperties) {
         RedisConfigUtils.convert(lokiProperties, redisProperties);
+        BaseRedisClient redisClient;
         if (redisProperties.getSentinel() != null && !redisProperties.getSentinel().getMaster().isEmpty()) {
             // 如果配置了 Sentinel，返回 RedisSentinelImpl 对象
-            return new RedisSentinelImpl(jedisSentinelPool(redisProperties));
+            redisClient = new RedisSentinelImpl(jedisSentinelPool(redisProperties));
         } else if (redisProperties.getCluster() != null && !redisProperties.getCluster().getNodes().isEmpty()) {
             // 如果配置了 Cluster，返回 RedisClusterImpl 对象
-            return new RedisClusterImpl(getJedisCluster(redisProperties));
+            redisClient = new RedisClusterImpl(getJedisCluster(redisProperties));
         } else {
             // 默认情况下返回 RedisDefaultImpl 对象
-            return new RedisDefaultImpl(redisPoolFactory(redisProperties));
+            redisClient = new RedisDefaultImpl(redisPoolFactory(redisProperties));
         }
+        redisClient.setRedisConfig(lokiProperties.getRedis());
+        return redisClient;
     }
 }
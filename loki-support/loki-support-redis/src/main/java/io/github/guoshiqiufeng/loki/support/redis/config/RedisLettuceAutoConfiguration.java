@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.redis.config;
+
+import io.github.guoshiqiufeng.loki.support.core.config.LokiProperties;
+import io.github.guoshiqiufeng.loki.support.redis.RedisClient;
+import io.github.guoshiqiufeng.loki.support.redis.impl.lettuce.LettuceRedisImpl;
+import io.github.guoshiqiufeng.loki.support.redis.utils.RedisConfigUtils;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.RedisClusterClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * lettuce 自动配置，需配置 loki.redis.support-type=lettuce 并引入 lettuce-core
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 22:25
+ */
+@Configuration
+@ConditionalOnClass(name = "io.lettuce.core.RedisClient")
+@ConditionalOnProperty(name = "loki.redis.support-type", havingValue = "lettuce")
+public class RedisLettuceAutoConfiguration {
+
+    /**
+     * 创建 lettuce 客户端，集群配置时创建 RedisClusterClient，容器关闭时释放连接与事件循环
+     *
+     * @param lokiProperties  Loki 配置属性
+     * @param redisProperties Redis 相关配置属性
+     * @return lettuce 客户端
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean(name = "lokiLettuceClient")
+    public AbstractRedisClient lokiLettuceClient(LokiProperties lokiProperties, RedisProperties redisProperties) {
+        RedisConfigUtils.convert(lokiProperties, redisProperties);
+        SocketOptions.Builder socketOptions = SocketOptions.builder();
+        if (redisProperties.getConnectTimeout() != null) {
+            socketOptions.connectTimeout(redisProperties.getConnectTimeout());
+        }
+        if (isCluster(redisProperties)) {
+            List<RedisURI> nodes = redisProperties.getCluster().getNodes().stream()
+                    .map(node -> createRedisURI(redisProperties, RedisURI.builder().withHost(getHost(node))
+                            .withPort(getPort(node))))
+                    .collect(Collectors.toList());
+            RedisClusterClient clusterClient = RedisClusterClient.create(nodes);
+            clusterClient.setOptions(ClusterClientOptions.builder()
+                    .socketOptions(socketOptions.build())
+                    .maxRedirects(redisProperties.getCluster().getMaxRedirects() == null ? 5
+                            : redisProperties.getCluster().getMaxRedirects())
+                    .build());
+            return clusterClient;
+        }
+        RedisURI.Builder builder;
+        if (isSentinel(redisProperties)) {
+            RedisProperties.Sentinel sentinel = redisProperties.getSentinel();
+            builder = RedisURI.builder().withSentinelMasterId(sentinel.getMaster());
+            for (String node : sentinel.getNodes()) {
+                RedisURI.Builder sentinelBuilder = RedisURI.builder().withHost(getHost(node)).withPort(getPort(node));
+                if (sentinel.getPassword() != null && !sentinel.getPassword().isEmpty()) {
+                    if (sentinel.getUsername() != null && !sentinel.getUsername().isEmpty()) {
+                        sentinelBuilder.withAuthentication(sentinel.getUsername(), sentinel.getPassword());
+                    } else {
+                        sentinelBuilder.withPassword(sentinel.getPassword().toCharArray());
+                    }
+                }
+                builder.withSentinel(sentinelBuilder.build());
+            }
+        } else {
+            builder = RedisURI.builder().withHost(redisProperties.getHost()).withPort(redisProperties.getPort());
+        }
+        io.lettuce.core.RedisClient client = io.lettuce.core.RedisClient.create(createRedisURI(redisProperties, builder));
+        client.setOptions(ClientOptions.builder().socketOptions(socketOptions.build()).build());
+        return client;
+    }
+
+    /**
+     * 创建 RedisClient 对象，命令共用一个连接，订阅使用一个独立连接，容器关闭时关闭连接
+     *
+     * @param lokiProperties    Loki 配置属性
+     * @param lokiLettuceClient lettuce 客户端
+     * @return RedisClient 对象
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean(RedisClient.class)
+    public RedisClient redisClient(LokiProperties lokiProperties, AbstractRedisClient lokiLettuceClient) {
+        LettuceRedisImpl redisClient;
+        if (lokiLettuceClient instanceof RedisClusterClient) {
+            RedisClusterClient clusterClient = (RedisClusterClient) lokiLettuceClient;
+            redisClient = new LettuceRedisImpl(clusterClient::connect, clusterClient.connectPubSub());
+        } else {
+            io.lettuce.core.RedisClient client = (io.lettuce.core.RedisClient) lokiLettuceClient;
+            redisClient = new LettuceRedisImpl(client::connect, client.connectPubSub());
+        }
+        redisClient.setRedisConfig(lokiProperties.getRedis());
+        return redisClient;
+    }
+
+    private RedisURI createRedisURI(RedisProperties redisProperties, RedisURI.Builder builder) {
+        if (redisProperties.getPassword() != null && !redisProperties.getPassword().isEmpty()) {
+            if (redisProperties.getUsername() != null && !redisProperties.getUsername().isEmpty()) {
+                builder.withAuthentication(redisProperties.getUsername(), redisProperties.getPassword());
+            } else {
+                builder.withPassword(redisProperties.getPassword().toCharArray());
+            }
+        }
+        if (redisProperties.getTimeout() != null) {
+            builder.withTimeout(redisProperties.getTimeout());
+        }
+        if (redisProperties.getDatabase() != null) {
+            builder.withDatabase(redisProperties.getDatabase());
+        }
+        return builder.build();
+    }
+
+    private boolean isCluster(RedisProperties redisProperties) {
+        return redisProperties.getCluster() != null && redisProperties.getCluster().getNodes() != null
+                && !redisProperties.getCluster().getNodes().isEmpty();
+    }
+
+    private boolean isSentinel(RedisProperties redisProperties) {
+        return redisProperties.getSentinel() != null && redisProperties.getSentinel().getMaster() != null
+                && !redisProperties.getSentinel().getMaster().isEmpty();
+    }
+
+    private String getHost(String node) {
+        return node.substring(0, node.lastIndexOf(':')).trim();
+    }
+
+    private int getPort(String node) {
+        return Integer.parseInt(node.substring(node.lastIndexOf(':') + 1).trim());
+    }
+}
@@ -16,6 +16,7 @@
 package io.github.guoshiqiufeng.loki.support.redis.config;
 
 import io.github.guoshiqiufeng.loki.support.core.config.LokiProperties;
+import io.github.guoshiqiufeng.loki.support.core.util.ExecutorUtils;
 import io.github.guoshiqiufeng.loki.support.redis.RedisClient;
 import io.github.guoshiqiufeng.loki.support.redis.impl.spring.SpringDataRedisImpl;
 import io.github.guoshiqiufeng.loki.support.redis.utils.RedisConfigUtils;
@@ -24,6 +25,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
@@ -44,6 +46,10 @@ public class RedisSpringDataAutoConfiguration {
     public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
         RedisMessageListenerContainer container = new RedisMessageListenerContainer();
         container.setConnectionFactory(connectionFactory);
+        // 消息由 RedisMessageDispatcher 分发处理，容器中同步调用以保证顺序，避免每条消息创建线程
+        container.setTaskExecutor(new SyncTaskExecutor());
+        // 订阅任务可能阻塞（jedis），需使用独立线程
+        container.setSubscriptionExecutor(ExecutorUtils.getLoopExecutor("redis-subscription"));
         return container;
     }
 
@@ -52,6 +58,8 @@ public class RedisSpringDataAutoConfiguration {
     public RedisClient redisClient(LokiProperties lokiProperties, RedisProperties redisProperties,
                                    StringRedisTemplate stringRedisTemplate, RedisMessageListenerContainer redisMessageListenerContainer) {
         RedisConfigUtils.convert(lokiProperties, redisProperties);
-        return new SpringDataRedisImpl(stringRedisTemplate, redisMessageListenerContainer);
+        SpringDataRedisImpl redisClient = new SpringDataRedisImpl(stringRedisTemplate, redisMessageListenerContainer);
+        redisClient.setRedisConfig(lokiProperties.getRedis());
+        return redisClient;
     }
 }
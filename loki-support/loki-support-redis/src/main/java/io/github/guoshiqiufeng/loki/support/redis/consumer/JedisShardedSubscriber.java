@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.redis.consumer;
+
+import io.github.guoshiqiufeng.loki.support.core.consumer.ConsumerRecord;
+import io.github.guoshiqiufeng.loki.support.redis.utils.RedisConsumeUtils;
+import lombok.extern.slf4j.Slf4j;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.JedisShardedPubSub;
+import redis.clients.jedis.util.JedisClusterCRC16;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * jedis 分片多路复用订阅者
+ * <p>
+ * 每个集群节点一个订阅连接，该节点上所有 slot 的频道共用该连接：先以一个 slot 的频道进入订阅模式，
+ * 订阅成功后按 slot 分组补订其余频道，运行期间新增的频道直接在当前连接上订阅。
+ * <p>
+ * slot 迁移后服务端对迁移的频道发送 sunsubscribe，连接异常时全部频道重新路由，由 reroute 按新的节点重新分配
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 23:20
+ */
+@Slf4j
+public class JedisShardedSubscriber implements Runnable {
+
+    private static final long MIN_BACKOFF_MILLIS = 100L;
+
+    private static final long MAX_BACKOFF_MILLIS = 30000L;
+
+    private static final long IDLE_WAIT_MILLIS = 1000L;
+
+    private final String name;
+
+    /**
+     * 按 slot 获取节点连接
+     */
+    private final IntFunction<Connection> connectionFactory;
+
+    /**
+     * 频道回调，所有节点共用
+     */
+    private final Map<String, List<Function<ConsumerRecord, Void>>> functions;
+
+    /**
+     * 重新路由频道
+     */
+    private final Consumer<String> reroute;
+
+    /**
+     * 当前节点负责的频道
+     */
+    private final Set<String> channels = ConcurrentHashMap.newKeySet();
+
+    private final Object signal = new Object();
+
+    private volatile Listener listener;
+
+    /**
+     * 构造函数
+     *
+     * @param name              订阅者名称
+     * @param connectionFactory 按 slot 获取节点连接
+     * @param functions         频道回调
+     * @param reroute           重新路由频道
+     */
+    public JedisShardedSubscriber(String name, IntFunction<Connection> connectionFactory,
+                                  Map<String, List<Function<ConsumerRecord, Void>>> functions,
+                                  Consumer<String> reroute) {
+        this.name = name;
+        this.connectionFactory = connectionFactory;
+        this.functions = functions;
+        this.reroute = reroute;
+    }
+
+    /**
+     * 订阅频道
+     *
+     * @param channel 频道
+     */
+    public void subscribe(String channel) {
+        if (!channels.add(channel)) {
+            return;
+        }
+        Listener current = listener;
+        if (current != null && current.isSubscribed()) {
+            synchronized (current) {
+                current.ssubscribe(channel);
+            }
+            return;
+        }
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+    }
+
+    @Override
+    public void run() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (!Thread.currentThread().isInterrupted()) {
+            Map<Integer, List<String>> slotChannels = groupBySlot(channels);
+            if (slotChannels.isEmpty()) {
+                waitForChannels();
+                continue;
+            }
+            Map.Entry<Integer, List<String>> anchor = slotChannels.entrySet().iterator().next();
+            Listener current = new Listener();
+            listener = current;
+            try (Connection connection = connectionFactory.apply(anchor.getKey())) {
+                current.proceed(connection, anchor.getValue().toArray(new String[0]));
+                // 全部频道被服务端取消订阅，按剩余频道重新连接
+                continue;
+            } catch (Exception e) {
+                if (log.isWarnEnabled()) {
+                    log.warn("JedisShardedSubscriber# {} connection lost:{}, reroute channels after {}ms", name,
+                            e.getMessage(), backoff);
+                }
+            }
+            if (current.connected) {
+                backoff = MIN_BACKOFF_MILLIS;
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            // slot 可能已迁移到其他节点，全部频道重新路由
+            List<String> moved = new ArrayList<>(channels);
+            channels.removeAll(moved);
+            moved.forEach(reroute);
+        }
+    }
+
+    private void waitForChannels() {
+        synchronized (signal) {
+            try {
+                if (channels.isEmpty()) {
+                    signal.wait(IDLE_WAIT_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Map<Integer, List<String>> groupBySlot(Set<String> channels) {
+        Map<Integer, List<String>> slotChannels = new LinkedHashMap<>();
+        for (String channel : channels) {
+            slotChannels.computeIfAbsent(JedisClusterCRC16.getSlot(channel), slot -> new ArrayList<>()).add(channel);
+        }
+        return slotChannels;
+    }
+
+    /**
+     * 单个连接的消息处理器，重连时重新创建
+     */
+    private final class Listener extends JedisShardedPubSub {
+
+        /**
+         * 是否订阅成功过，用于重置退避时间
+         */
+        private volatile boolean connected;
+
+        @Override
+        public void onSMessage(String channel, String message) {
+            if (log.isDebugEnabled()) {
+                log.debug("{} onSMessage : {}", channel, message);
+            }
+            RedisConsumeUtils.dispatch(name, functions.get(channel), channel, message);
+        }
+
+        @Override
+        public void onSSubscribe(String channel, int subscribedChannels) {
+            if (connected) {
+                if (log.isDebugEnabled()) {
+                    log.debug("{} ssubscribe success", channel);
+                }
+                return;
+            }
+            connected = true;
+            // 进入订阅模式后按 slot 补订其余频道，同一次 SSUBSCRIBE 的频道必须位于同一 slot
+            synchronized (this) {
+                int anchorSlot = JedisClusterCRC16.getSlot(channel);
+                groupBySlot(channels).forEach((slot, group) -> {
+                    if (slot != anchorSlot) {
+                        ssubscribe(group.toArray(new String[0]));
+                    }
+                });
+            }
+            if (log.isInfoEnabled()) {
+                log.info("JedisShardedSubscriber# {} subscribed, channels:{}", name, channels.size());
+            }
+        }
+
+        @Override
+        public void onSUnsubscribe(String channel, int subscribedChannels) {
+            // 只有 slot 迁移时服务端会取消订阅，交给新的节点订阅
+            if (channels.remove(channel)) {
+                if (log.isInfoEnabled()) {
+                    log.info("JedisShardedSubscriber# {} {} unsubscribed by server, reroute", name, channel);
+                }
+                reroute.accept(channel);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.redis.consumer;
+
+import cn.hutool.core.util.IdUtil;
+import io.github.guoshiqiufeng.loki.support.core.consumer.ConsumerRecord;
+import io.github.guoshiqiufeng.loki.support.redis.utils.RedisConsumeUtils;
+import lombok.extern.slf4j.Slf4j;
+import redis.clients.jedis.JedisPubSub;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * jedis 多路复用订阅者
+ * <p>
+ * 所有频道与规则共用一个订阅连接，先订阅一个控制频道进入订阅模式，订阅成功后补订全部频道与规则，
+ * 运行期间新增的频道直接在当前连接上订阅；连接断开后按指数退避重连并重新订阅。
+ * <p>
+ * 同一连接上的全部频道由一个线程读取，回调中阻塞会使该连接上所有频道停止接收，
+ * 积压超过服务端 client-output-buffer-limit pubsub 后连接被断开，因此监听分发器不应使用 block 策略
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 22:10
+ */
+@Slf4j
+public class JedisSubscriber implements Runnable {
+
+    private static final long MIN_BACKOFF_MILLIS = 100L;
+
+    private static final long MAX_BACKOFF_MILLIS = 30000L;
+
+    private final String name;
+
+    /**
+     * 阻塞订阅函数，入参为消息处理器与频道
+     */
+    private final BiConsumer<JedisPubSub, String[]> subscribeAction;
+
+    private final String controlChannel = "loki:subscriber:" + IdUtil.fastSimpleUUID();
+
+    private final Map<String, List<Function<ConsumerRecord, Void>>> channels = new ConcurrentHashMap<>();
+
+    private final Map<String, List<Function<ConsumerRecord, Void>>> patterns = new ConcurrentHashMap<>();
+
+    private volatile Listener listener;
+
+    /**
+     * 构造函数
+     *
+     * @param name            订阅者名称
+     * @param subscribeAction 阻塞订阅函数
+     */
+    public JedisSubscriber(String name, BiConsumer<JedisPubSub, String[]> subscribeAction) {
+        this.name = name;
+        this.subscribeAction = subscribeAction;
+    }
+
+    /**
+     * 订阅频道
+     *
+     * @param function 回调
+     * @param channels 频道
+     */
+    public void subscribe(Function<ConsumerRecord, Void> function, String... channels) {
+        for (String channel : channels) {
+            this.channels.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(function);
+        }
+        Listener current = listener;
+        if (current != null && current.isSubscribed()) {
+            synchronized (current) {
+                current.subscribe(channels);
+            }
+        }
+    }
+
+    /**
+     * 订阅规则
+     *
+     * @param function 回调
+     * @param patterns 规则
+     */
+    public void psubscribe(Function<ConsumerRecord, Void> function, String... patterns) {
+        for (String pattern : patterns) {
+            this.patterns.computeIfAbsent(pattern, p -> new CopyOnWriteArrayList<>()).add(function);
+        }
+        Listener current = listener;
+        if (current != null && current.isSubscribed()) {
+            synchronized (current) {
+                current.psubscribe(patterns);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (!Thread.currentThread().isInterrupted()) {
+            Listener current = new Listener();
+            listener = current;
+            try {
+                subscribeAction.accept(current, new String[]{controlChannel});
+            } catch (Exception e) {
+                if (log.isWarnEnabled()) {
+                    log.warn("JedisSubscriber# {} connection lost:{}, reconnect after {}ms", name, e.getMessage(),
+                            backoff);
+                }
+            }
+            if (current.connected) {
+                backoff = MIN_BACKOFF_MILLIS;
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+        }
+    }
+
+    /**
+     * 单个连接的消息处理器，重连时重新创建
+     */
+    private final class Listener extends JedisPubSub {
+
+        /**
+         * 是否订阅成功过，用于重置退避时间
+         */
+        private volatile boolean connected;
+
+        @Override
+        public void onMessage(String channel, String message) {
+            if (log.isDebugEnabled()) {
+                log.debug("{} onMessage : {}", channel, message);
+            }
+            RedisConsumeUtils.dispatch(name, channels.get(channel), channel, message);
+        }
+
+        @Override
+        public void onPMessage(String pattern, String channel, String message) {
+            if (log.isDebugEnabled()) {
+                log.debug("pattern: {}  channel: {} onPMessage : {}", pattern, channel, message);
+            }
+            RedisConsumeUtils.dispatch(name, patterns.get(pattern), channel, message);
+        }
+
+        @Override
+        public void onSubscribe(String channel, int subscribedChannels) {
+            if (!controlChannel.equals(channel)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("{} subscribe success", channel);
+                }
+                return;
+            }
+            connected = true;
+            // 进入订阅模式后补订全部频道与规则
+            synchronized (this) {
+                if (!channels.isEmpty()) {
+                    subscribe(channels.keySet().toArray(new String[0]));
+                }
+                if (!patterns.isEmpty()) {
+                    psubscribe(patterns.keySet().toArray(new String[0]));
+                }
+            }
+            if (log.isInfoEnabled()) {
+                log.info("JedisSubscriber# {} subscribed, channels:{}, patterns:{}", name, channels.size(),
+                        patterns.size());
+            }
+        }
+
+        @Override
+        public void onPSubscribe(String pattern, int subscribedChannels) {
+            if (log.isDebugEnabled()) {
+                log.debug("{} PSubscribe success", pattern);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.redis.consumer;
+
+import io.github.guoshiqiufeng.loki.enums.ExecutorQueueType;
+import io.github.guoshiqiufeng.loki.enums.RejectionPolicyType;
+import io.github.guoshiqiufeng.loki.support.core.config.ExecutorConfig;
+import io.github.guoshiqiufeng.loki.support.core.consumer.ConsumerRecord;
+import io.github.guoshiqiufeng.loki.support.core.util.ExecutorUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * redis 订阅消息分发器
+ * <p>
+ * 每个监听共享一个有界线程池，线程数为 consumptionThreadCount，缓存队列总容量为 maxCacheMessageCount；
+ * 开启顺序消费时按频道哈希到固定的单线程队列，同一频道的消息依次处理。
+ * <p>
+ * 队列已满时按 overflowPolicy 处理，默认 abort 丢弃消息并记录日志；
+ * 订阅连接由多个频道共用，block 会阻塞同一连接上的所有频道
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 19:05
+ */
+@Slf4j
+public class RedisMessageDispatcher implements Function<ConsumerRecord, Void> {
+
+    /**
+     * 分发器名称
+     */
+    private final String name;
+
+    /**
+     * 消息处理函数
+     */
+    private final Function<ConsumerRecord, Void> function;
+
+    /**
+     * 处理线程池，顺序消费时每个线程池只有一个线程
+     */
+    private final ExecutorService[] lanes;
+
+    /**
+     * 构造函数
+     *
+     * @param name                   分发器名称，同时作为线程池名称前缀
+     * @param consumptionThreadCount 消费线程数
+     * @param maxCacheMessageCount   最大缓存消息数
+     * @param orderly                是否按频道保证顺序
+     * @param overflowPolicy         队列已满时的处理策略
+     * @param function               消息处理函数
+     */
+    public RedisMessageDispatcher(String name, Integer consumptionThreadCount, Integer maxCacheMessageCount,
+                                  boolean orderly, RejectionPolicyType overflowPolicy,
+                                  Function<ConsumerRecord, Void> function) {
+        this.name = name;
+        this.function = function;
+        int threadCount = consumptionThreadCount == null || consumptionThreadCount <= 0 ? 1 : consumptionThreadCount;
+        int cacheCount = maxCacheMessageCount == null || maxCacheMessageCount <= 0 ? 1024 : maxCacheMessageCount;
+        RejectionPolicyType policy = overflowPolicy == null ? RejectionPolicyType.ABORT : overflowPolicy;
+        if (orderly) {
+            this.lanes = new ExecutorService[threadCount];
+            int laneCapacity = Math.max(1, cacheCount / threadCount);
+            for (int i = 0; i < threadCount; i++) {
+                String laneName = name + "-" + i;
+                this.lanes[i] = ExecutorUtils.register(laneName, createPoolConfig(laneName, 1, laneCapacity, policy));
+            }
+        } else {
+            this.lanes = new ExecutorService[]{
+                    ExecutorUtils.register(name, createPoolConfig(name, threadCount, cacheCount, policy))
+            };
+        }
+    }
+
+    /**
+     * 分发消息
+     *
+     * @param consumerRecord 消息
+     * @return null
+     */
+    @Override
+    public Void apply(ConsumerRecord consumerRecord) {
+        ExecutorService lane = getLane(consumerRecord.getTopic());
+        try {
+            lane.execute(() -> handle(consumerRecord));
+        } catch (RejectedExecutionException e) {
+            if (log.isErrorEnabled()) {
+                log.error("RedisMessageDispatcher# {} drop message, topic:{}, reason:{}", name,
+                        consumerRecord.getTopic(), e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private ExecutorService getLane(String channel) {
+        if (lanes.length == 1 || channel == null) {
+            return lanes[0];
+        }
+        return lanes[(channel.hashCode() & Integer.MAX_VALUE) % lanes.length];
+    }
+
+    private void handle(ConsumerRecord consumerRecord) {
+        try {
+            function.apply(consumerRecord);
+        } catch (Exception e) {
+            if (log.isErrorEnabled()) {
+                log.error("RedisMessageDispatcher# {} handle message error, topic:{}", name,
+                        consumerRecord.getTopic(), e);
+            }
+        }
+    }
+
+    private ExecutorConfig.PoolConfig createPoolConfig(String poolName, int threadCount, int queueCapacity,
+                                                       RejectionPolicyType policy) {
+        return new ExecutorConfig.PoolConfig()
+                .setThreadNamePrefix("loki-" + poolName + "-")
+                .setCorePoolSize(threadCount)
+                .setMaxPoolSize(threadCount)
+                .setKeepAliveSeconds(60)
+                .setAllowCoreThreadTimeOut(true)
+                .setQueueType(ExecutorQueueType.ARRAY)
+                .setQueueCapacity(queueCapacity)
+                .setRejectionPolicy(policy)
+                .setAwaitTerminationSeconds(10);
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.redis.consumer;
+
+import io.github.guoshiqiufeng.loki.constant.Constant;
+import io.github.guoshiqiufeng.loki.support.core.consumer.ConsumerRecord;
+import io.github.guoshiqiufeng.loki.support.core.pipeline.PipelineUtils;
+import io.github.guoshiqiufeng.loki.support.redis.impl.BaseRedisClient;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * redis stream 消费者
+ * <p>
+ * 循环通过 XREADGROUP 批量拉取消息，交由处理线程池并行处理，整批处理完成后一次 XACK 确认；
+ * 处理失败的消息不确认，保留在 pending 列表中，超过 claimIdleMillis 后通过 XAUTOCLAIM 重新投递；
+ * 投递次数达到 maxDeliveries 的消息写入死信 stream 后确认，接管时同时删除空闲超时且没有未确认消息的消费者
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 19:50
+ */
+@Slf4j
+public class RedisStreamConsumer implements Runnable {
+
+    private static final long RETRY_INTERVAL_MILLIS = 1000L;
+
+    /**
+     * 默认接管空闲时间，单位毫秒
+     */
+    private static final long DEFAULT_CLAIM_IDLE_MILLIS = 60000L;
+
+    private final BaseRedisClient redisClient;
+
+    private final String topic;
+
+    private final String key;
+
+    private final String group;
+
+    private final String consumer;
+
+    private final int batchSize;
+
+    private final long blockMillis;
+
+    private final long claimIdleMillis;
+
+    private final Function<ConsumerRecord, Void> function;
+
+    private final ExecutorService executor;
+
+    /**
+     * 最大投递次数，小于等于 0 时不限制
+     */
+    @Setter
+    @Accessors(chain = true)
+    private int maxDeliveries;
+
+    /**
+     * 消费者空闲超过该时间且没有未确认消息时删除，单位毫秒，小于等于 0 时不删除
+     */
+    @Setter
+    @Accessors(chain = true)
+    private long consumerExpireMillis;
+
+    /**
+     * 死信 stream 最大长度
+     */
+    @Setter
+    @Accessors(chain = true)
+    private long maxLen;
+
+    /**
+     * 构造函数
+     *
+     * @param redisClient     redis 客户端
+     * @param topic           主题
+     * @param group           消费组
+     * @param consumer        消费者名称，同一消费组内唯一
+     * @param batchSize       每批拉取消息数
+     * @param blockMillis     无消息时阻塞等待时间，单位毫秒
+     * @param claimIdleMillis 接管未确认消息的空闲时间，单位毫秒；失败的消息只通过接管重新投递，小于等于 0 时使用默认 60000
+     * @param function        消息处理函数
+     * @param executor        处理线程池，为 null 时在拉取线程中依次处理
+     */
+    public RedisStreamConsumer(BaseRedisClient redisClient, String topic, String group, String consumer,
+                               int batchSize, long blockMillis, long claimIdleMillis,
+                               Function<ConsumerRecord, Void> function, ExecutorService executor) {
+        this.redisClient = redisClient;
+        this.topic = topic;
+        this.key = Constant.REDIS_STREAM_KEY_PREFIX + topic;
+        this.group = group;
+        this.consumer = consumer;
+        this.batchSize = batchSize <= 0 ? 100 : batchSize;
+        this.blockMillis = Math.max(blockMillis, 0);
+        if (claimIdleMillis <= 0 && log.isWarnEnabled()) {
+            log.warn("RedisStreamConsumer# {} claimIdleMillis {} is not supported, failed messages would never be "
+                    + "redelivered, use {}", key, claimIdleMillis, DEFAULT_CLAIM_IDLE_MILLIS);
+        }
+        this.claimIdleMillis = claimIdleMillis > 0 ? claimIdleMillis : DEFAULT_CLAIM_IDLE_MILLIS;
+        this.function = function;
+        this.executor = executor;
+    }
+
+    @Override
+    public void run() {
+        boolean groupCreated = false;
+        long nextClaimTime = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (!groupCreated) {
+                    redisClient.xgroupCreate(key, group);
+                    groupCreated = true;
+                }
+                if (System.currentTimeMillis() >= nextClaimTime) {
+                    Map<String, Long> deliveries = getDeliveries();
+                    handle(redisClient.xautoclaim(key, group, consumer, claimIdleMillis, batchSize), deliveries);
+                    removeIdleConsumers();
+                    nextClaimTime = System.currentTimeMillis() + claimIdleMillis;
+                }
+                handle(redisClient.xreadgroup(key, group, consumer, batchSize, blockMillis), Collections.emptyMap());
+            } catch (Exception e) {
+                if (log.isErrorEnabled()) {
+                    log.error("RedisStreamConsumer# {} consume error, group:{}, consumer:{}, reason:{}", key, group,
+                            consumer, e.getMessage());
+                }
+                try {
+                    Thread.sleep(RETRY_INTERVAL_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("RedisStreamConsumer# {} consumer:{} stopped", key, consumer);
+        }
+    }
+
+    /**
+     * 查询待接管消息的投递次数
+     *
+     * @return 消息id 与投递次数
+     */
+    private Map<String, Long> getDeliveries() {
+        if (maxDeliveries <= 0) {
+            return Collections.emptyMap();
+        }
+        List<String> result = redisClient.eval(StreamScripts.PENDING_DELIVERIES, Collections.singletonList(key),
+                Arrays.asList(group, String.valueOf(claimIdleMillis), String.valueOf(batchSize)));
+        Map<String, Long> deliveries = new HashMap<>(result.size());
+        for (int i = 0; i + 1 < result.size(); i += 2) {
+            deliveries.put(result.get(i), Long.parseLong(result.get(i + 1)));
+        }
+        return deliveries;
+    }
+
+    /**
+     * 删除空闲超时且没有未确认消息的消费者，失败时不影响消费
+     */
+    private void removeIdleConsumers() {
+        if (consumerExpireMillis <= 0) {
+            return;
+        }
+        try {
+            List<String> deleted = redisClient.eval(StreamScripts.REMOVE_IDLE_CONSUMERS,
+                    Collections.singletonList(key),
+                    Arrays.asList(group, consumer, String.valueOf(consumerExpireMillis)));
+            if (log.isInfoEnabled() && !deleted.isEmpty()) {
+                log.info("RedisStreamConsumer# {} group:{} removed idle consumers:{}", key, group, deleted);
+            }
+        } catch (Exception e) {
+            if (log.isWarnEnabled()) {
+                log.warn("RedisStreamConsumer# {} group:{} remove idle consumers error:{}", key, group,
+                        e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 处理一批消息，成功的消息一次确认；投递次数达到上限的消息写入死信 stream 后确认
+     *
+     * @param messages   消息
+     * @param deliveries 接管前的投递次数，非接管的消息为空
+     */
+    private void handle(List<StreamMessage> messages, Map<String, Long> deliveries) {
+        if (messages == null || messages.isEmpty()) {
+            return;
+        }
+        List<String> ackIds = new ArrayList<>(messages.size());
+        if (!deliveries.isEmpty()) {
+            List<StreamMessage> remaining = new ArrayList<>(messages.size());
+            for (StreamMessage message : messages) {
+                Long delivered = deliveries.get(message.getId());
+                if (delivered == null || delivered < maxDeliveries) {
+                    remaining.add(message);
+                } else if (deadLetter(message, delivered)) {
+                    ackIds.add(message.getId());
+                }
+            }
+            messages = remaining;
+        }
+        if (executor == null) {
+            for (StreamMessage message : messages) {
+                if (handle(message)) {
+                    ackIds.add(message.getId());
+                }
+            }
+        } else {
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>(messages.size());
+            for (StreamMessage message : messages) {
+                futures.add(CompletableFuture.supplyAsync(() -> handle(message), executor));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                if (Boolean.TRUE.equals(futures.get(i).join())) {
+                    ackIds.add(messages.get(i).getId());
+                }
+            }
+        }
+        if (!ackIds.isEmpty()) {
+            redisClient.xack(key, group, ackIds);
+        }
+    }
+
+    /**
+     * 写入死信 stream
+     *
+     * @param message   消息
+     * @param delivered 投递次数
+     * @return 是否写入成功，成功的消息需要确认
+     */
+    private boolean deadLetter(StreamMessage message, long delivered) {
+        try {
+            redisClient.xadd(key + Constant.REDIS_STREAM_DEAD_LETTER_SUFFIX, message.getFields(), maxLen);
+            if (log.isWarnEnabled()) {
+                log.warn("RedisStreamConsumer# {} message:{} delivered {} times, moved to dead letter", key,
+                        message.getId(), delivered);
+            }
+            return true;
+        } catch (Exception e) {
+            if (log.isErrorEnabled()) {
+                log.error("RedisStreamConsumer# {} dead letter message error, id:{}, reason:{}", key,
+                        message.getId(), e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 处理单条消息
+     *
+     * @param message 消息
+     * @return 是否处理成功，成功的消息需要确认
+     */
+    private boolean handle(StreamMessage message) {
+        if (message == null || message.getFields() == null) {
+            return false;
+        }
+        try {
+            ConsumerRecord consumerRecord = new ConsumerRecord(topic, null, message.getId(), group, null,
+                    message.getFields().get(Constant.REDIS_STREAM_MESSAGE_FIELD));
+            consumerRecord = PipelineUtils.processListener(consumerRecord);
+            if (consumerRecord != null) {
+                function.apply(consumerRecord);
+            }
+            return true;
+        } catch (Exception e) {
+            if (log.isErrorEnabled()) {
+                log.error("RedisStreamConsumer# {} handle message error, id:{}", key, message.getId(), e);
+            }
+            return false;
+        }
+    }
+}
@@ -16,14 +16,13 @@
 package io.github.guoshiqiufeng.loki.support.redis.consumer;
 
 import io.github.guoshiqiufeng.loki.support.core.consumer.ConsumerRecord;
-import io.github.guoshiqiufeng.loki.support.core.pipeline.PipelineUtils;
-import io.github.guoshiqiufeng.loki.support.core.util.ThreadPoolUtils;
+import io.github.guoshiqiufeng.loki.support.redis.utils.RedisConsumeUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.core.StringRedisTemplate;
 
-import java.util.concurrent.CompletableFuture;
+import java.util.Collections;
 import java.util.function.Function;
 
 /**
@@ -55,12 +54,7 @@ public class SpringDataRedisMessageListener implements MessageListener {
         if (log.isDebugEnabled()) {
             log.debug("{} onMessage : {}", channel, messageBody);
         }
-        ConsumerRecord consumerRecord = new ConsumerRecord(channel, null, null,
-                null, null, messageBody);
-        consumerRecord = PipelineUtils.processListener(consumerRecord);
-        if (consumerRecord != null) {
-            ConsumerRecord finalConsumerRecord = consumerRecord;
-            CompletableFuture.runAsync(() -> function.apply(finalConsumerRecord), ThreadPoolUtils.getSingleThreadPool());
-        }
+        RedisConsumeUtils.dispatch("SpringDataRedisMessageListener", Collections.singletonList(function), channel,
+                messageBody);
     }
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.redis.consumer;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * redis stream 消息
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 19:45
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StreamMessage {
+
+    /**
+     * 消息id
+     */
+    private String id;
+
+    /**
+     * 消息字段
+     */
+    private Map<String, String> fields;
+}
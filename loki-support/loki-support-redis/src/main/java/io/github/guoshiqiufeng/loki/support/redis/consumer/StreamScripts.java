@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.redis.consumer;
+
+/**
+ * stream lua 脚本
+ * <p>
+ * KEYS[1] 为 stream，脚本只返回一维字符串列表，各客户端通过 eval 统一执行
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 23:30
+ */
+public interface StreamScripts {
+
+    /**
+     * 查询空闲超时的未确认消息的投递次数，需要 redis 6.2 及以上<br>
+     * ARGV[1] 消费组，ARGV[2] 最小空闲时间毫秒，ARGV[3] 最大消息数<br>
+     * 返回 [消息id, 投递次数, ...]
+     */
+    String PENDING_DELIVERIES = "local pending = redis.call('XPENDING', KEYS[1], ARGV[1], 'IDLE', ARGV[2], '-', '+', ARGV[3])\n"
+            + "local result = {}\n"
+            + "for _, entry in ipairs(pending) do\n"
+            + "  result[#result + 1] = entry[1]\n"
+            + "  result[#result + 1] = tostring(entry[4])\n"
+            + "end\n"
+            + "return result";
+
+    /**
+     * 删除消费组中空闲超时且没有未确认消息的消费者<br>
+     * ARGV[1] 消费组，ARGV[2] 当前消费者，不删除，ARGV[3] 空闲时间毫秒<br>
+     * 返回 [删除的消费者, ...]
+     */
+    String REMOVE_IDLE_CONSUMERS = "local deleted = {}\n"
+            + "for _, consumer in ipairs(redis.call('XINFO', 'CONSUMERS', KEYS[1], ARGV[1])) do\n"
+            + "  local info = {}\n"
+            + "  for i = 1, #consumer, 2 do\n"
+            + "    info[consumer[i]] = consumer[i + 1]\n"
+            + "  end\n"
+            + "  if info['name'] ~= ARGV[2] and tonumber(info['pending']) == 0\n"
+            + "      and tonumber(info['idle']) >= tonumber(ARGV[3]) then\n"
+            + "    redis.call('XGROUP', 'DELCONSUMER', KEYS[1], ARGV[1], info['name'])\n"
+            + "    deleted[#deleted + 1] = info['name']\n"
+            + "  end\n"
+            + "end\n"
+            + "return deleted";
+}
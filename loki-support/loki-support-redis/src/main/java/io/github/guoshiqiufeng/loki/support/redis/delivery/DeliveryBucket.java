@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.redis.delivery;
+
+import io.github.guoshiqiufeng.loki.constant.Constant;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 延时消息分桶
+ * <p>
+ * 延时消息按消息 key 哈希到 N 个桶，每个桶的 zset、hash、租约使用相同的 hash tag，位于同一 slot，
+ * 集群模式下不同的桶分布到不同的节点；只有一个桶时沿用 {loki:delivery} 前缀。
+ * 调整桶数量后不再使用的桶通过 {@link #retired(int, int)} 获取，启动时迁移
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 21:05
+ */
+@Getter
+public final class DeliveryBucket {
+
+    /**
+     * 分桶缓存，key 为桶数量
+     */
+    private static final Map<Integer, DeliveryBucket[]> BUCKETS = new ConcurrentHashMap<>();
+
+    /**
+     * 桶序号
+     */
+    private final int index;
+
+    /**
+     * 投递时间 zset
+     */
+    private final String timerKey;
+
+    /**
+     * 消息内容 hash
+     */
+    private final String payloadKey;
+
+    /**
+     * 处理租约
+     */
+    private final String leaseKey;
+
+    /**
+     * 租约 fencing token 计数
+     */
+    private final String fencingKey;
+
+    /**
+     * 脚本使用的 key：投递时间 zset、消息内容 hash、处理租约
+     */
+    private final List<String> keys;
+
+    private DeliveryBucket(int index, int count) {
+        this.index = index;
+        if (count <= 1) {
+            this.timerKey = Constant.REDIS_DELIVERY_TIMER_KEY;
+            this.payloadKey = Constant.REDIS_DELIVERY_PAYLOAD_KEY;
+            this.leaseKey = Constant.REDIS_DELIVERY_LEASE_KEY;
+            this.fencingKey = Constant.REDIS_DELIVERY_FENCING_KEY;
+        } else {
+            String tag = "{" + Constant.REDIS_DELIVERY_KEY + ":" + index + "}";
+            this.timerKey = tag + ":timer";
+            this.payloadKey = tag + ":payload";
+            this.leaseKey = tag + ":lease";
+            this.fencingKey = tag + ":fencing";
+        }
+        this.keys = Arrays.asList(timerKey, payloadKey, leaseKey);
+    }
+
+    /**
+     * 获取全部桶
+     *
+     * @param count 桶数量
+     * @return 桶
+     */
+    public static DeliveryBucket[] buckets(int count) {
+        int bucketCount = Math.max(count, 1);
+        DeliveryBucket[] buckets = BUCKETS.get(bucketCount);
+        if (buckets != null) {
+            return buckets;
+        }
+        return BUCKETS.computeIfAbsent(bucketCount, c -> {
+            DeliveryBucket[] created = new DeliveryBucket[c];
+            for (int i = 0; i < c; i++) {
+                created[i] = new DeliveryBucket(i, c);
+            }
+            return created;
+        });
+    }
+
+    /**
+     * 获取调整桶数量后不再使用的桶：当前多个桶时为 {loki:delivery} 前缀的桶，
+     * 以及序号不小于当前桶数量的桶
+     *
+     * @param count    当前桶数量
+     * @param maxCount 使用过的最大桶数量
+     * @return 不再使用的桶
+     */
+    public static List<DeliveryBucket> retired(int count, int maxCount) {
+        int bucketCount = Math.max(count, 1);
+        List<DeliveryBucket> retired = new ArrayList<>();
+        if (bucketCount > 1) {
+            retired.add(buckets(1)[0]);
+        }
+        if (maxCount > 1) {
+            DeliveryBucket[] previous = buckets(maxCount);
+            for (int i = bucketCount > 1 ? bucketCount : 0; i < previous.length; i++) {
+                retired.add(previous[i]);
+            }
+        }
+        return retired;
+    }
+
+    /**
+     * 获取消息所在的桶
+     *
+     * @param key   消息 key
+     * @param count 桶数量
+     * @return 桶
+     */
+    public static DeliveryBucket route(String key, int count) {
+        DeliveryBucket[] buckets = buckets(count);
+        return buckets.length == 1 ? buckets[0] : buckets[(key.hashCode() & Integer.MAX_VALUE) % buckets.length];
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.redis.delivery;
+
+import cn.hutool.core.util.IdUtil;
+import io.github.guoshiqiufeng.loki.support.redis.impl.BaseRedisClient;
+import lombok.Getter;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 延时消息租约
+ * <p>
+ * 多个实例通过租约选出一个实例处理延时消息，每次获取租约时递增 fencing token，
+ * 租约值为 owner:token，领取消息的脚本校验租约值，租约过期的旧持有者无法再领取消息
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 20:40
+ */
+public class DeliveryLease {
+
+    /**
+     * 当前进程的租约持有者标识
+     */
+    static final String OWNER = ManagementFactory.getRuntimeMXBean().getName() + "-" + IdUtil.fastSimpleUUID();
+
+    private final BaseRedisClient redisClient;
+
+    private final List<String> keys;
+
+    private final long leaseMillis;
+
+    /**
+     * 当前持有的租约值 owner:token，未持有时为 null
+     */
+    @Getter
+    private volatile String lease;
+
+    /**
+     * 构造函数
+     *
+     * @param redisClient redis客户端
+     * @param leaseKey    租约 key
+     * @param fencingKey  fencing token 计数 key，需与租约 key 位于同一 slot
+     * @param leaseMillis 租约时长，单位毫秒
+     */
+    public DeliveryLease(BaseRedisClient redisClient, String leaseKey, String fencingKey, long leaseMillis) {
+        this.redisClient = redisClient;
+        this.keys = Arrays.asList(leaseKey, fencingKey);
+        this.leaseMillis = leaseMillis;
+    }
+
+    /**
+     * 获取或续期租约
+     *
+     * @return 租约值 owner:token，被其他实例持有时返回 null
+     */
+    public String acquire() {
+        List<String> result = redisClient.eval(DeliveryScripts.ACQUIRE_LEASE, keys,
+                Arrays.asList(OWNER, String.valueOf(leaseMillis)));
+        lease = result.isEmpty() || result.get(0) == null ? null : OWNER + ":" + result.get(0);
+        return lease;
+    }
+
+    /**
+     * 释放租约，仅在仍由当前实例持有时删除
+     */
+    public void release() {
+        String current = lease;
+        if (current != null) {
+            lease = null;
+            redisClient.eval(DeliveryScripts.RELEASE_LEASE, Collections.singletonList(keys.get(0)),
+                    Collections.singletonList(current));
+        }
+    }
+}
@@ -19,13 +19,33 @@ import cn.hutool.json.JSONUtil;
 import io.github.guoshiqiufeng.loki.constant.Constant;
 import io.github.guoshiqiufeng.loki.support.core.config.GlobalConfig;
 import io.github.guoshiqiufeng.loki.support.core.config.LokiProperties;
+import io.github.guoshiqiufeng.loki.support.core.config.RedisConfig;
 import io.github.guoshiqiufeng.loki.support.core.producer.ProducerRecord;
+import io.github.guoshiqiufeng.loki.support.core.util.ExecutorUtils;
 import io.github.guoshiqiufeng.loki.support.core.util.StringUtils;
 import io.github.guoshiqiufeng.loki.support.redis.RedisClient;
 import io.github.guoshiqiufeng.loki.support.redis.impl.BaseRedisClient;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
+ * 延时消息处理
+ * <p>
+ * 延时消息按投递时间写入 zset，定时通过 lua 脚本批量领取到期消息并发送，发送成功后确认删除；
+ * 多实例部署时只有持有租约的实例领取消息，领取脚本校验 fencing token，每条到期消息只会被领取一次；
+ * 分桶时每个桶有独立的租约，存活实例按心跳数均分各桶
+ *
  * @author yanghq
  * @version 1.0
  * @since 2024/3/13 17:07
@@ -34,69 +54,379 @@ import lombok.extern.slf4j.Slf4j;
 public class DeliveryMessageHandler {
 
     /**
-     * 处理延迟消息
+     * lua unpack 参数个数有限，单次领取数量上限
+     */
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * 历史数据恢复进度日志间隔
+     */
+    private static final long PROGRESS_LOG_INTERVAL = 10000;
+
+    /**
+     * 处理延迟消息，定时领取到期的消息
      *
      * @param redisClient redis客户端
      */
     public static void handleDeliveryMessage(RedisClient redisClient) {
         if (redisClient instanceof BaseRedisClient) {
             BaseRedisClient baseRedisClient = (BaseRedisClient) redisClient;
-            baseRedisClient.psubscribe(record -> {
-                if (log.isDebugEnabled()) {
-                    log.debug("handleDeliveryMessage: {}", JSONUtil.toJsonStr(record));
-                }
-                sendDelayedMessage(record.getBodyMessage(), null, baseRedisClient);
-                return null;
-            }, "__keyevent@*__:expired");
+            RedisConfig redisConfig = baseRedisClient.getRedisConfig();
+            long pollInterval = redisConfig == null || redisConfig.getDeliveryPollIntervalMillis() <= 0
+                    ? 500 : redisConfig.getDeliveryPollIntervalMillis();
+            int batchSize = redisConfig == null || redisConfig.getDeliveryBatchSize() <= 0
+                    ? 100 : Math.min(redisConfig.getDeliveryBatchSize(), MAX_BATCH_SIZE);
+            long retryInterval = redisConfig == null || redisConfig.getDeliveryRetryIntervalMillis() <= 0
+                    ? 30000 : redisConfig.getDeliveryRetryIntervalMillis();
+            // 租约至少覆盖两次检查间隔，避免持有者正常运行时租约过期
+            long leaseMillis = Math.max(redisConfig == null ? 10000 : redisConfig.getDeliveryLeaseMillis(),
+                    pollInterval * 2);
+            DeliveryBucket[] buckets = DeliveryBucket.buckets(redisConfig == null ? 1 : redisConfig.getDeliveryBuckets());
+            DeliveryLease[] leases = new DeliveryLease[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                leases[i] = new DeliveryLease(baseRedisClient, buckets[i].getLeaseKey(), buckets[i].getFencingKey(),
+                        leaseMillis);
+            }
+            // 各实例从不同的桶开始获取租约，减少竞争
+            int offset = ThreadLocalRandom.current().nextInt(buckets.length);
+            ExecutorUtils.getScheduler().scheduleWithFixedDelay(
+                    () -> deliverDueMessages(baseRedisClient, buckets, leases, offset, batchSize, retryInterval,
+                            leaseMillis),
+                    pollInterval, pollInterval, TimeUnit.MILLISECONDS);
         }
     }
 
     /**
-     * 处理历史数据
+     * 处理历史数据，通过 HSCAN 分批将旧版 hash 中的延时消息迁移到 zset，多个批次并行处理；
+     * 调整分桶数量后将不再使用的桶中的延时消息迁移到当前的桶；同一时间只有一个实例执行迁移
      *
-     * @param redisClient
+     * @param redisClient redis客户端
+     * @param properties  配置
      */
     public static void processingHistoricalData(RedisClient redisClient, LokiProperties properties) {
         if (redisClient instanceof BaseRedisClient) {
             BaseRedisClient baseRedisClient = (BaseRedisClient) redisClient;
-            baseRedisClient.hkeys(Constant.REDIS_DELIVERY_KEY).forEach(key -> {
-                // 判断key 是否存在
-                if (!baseRedisClient.exists(key)) {
-                    // 判断是否开启
-                    GlobalConfig globalConfig = properties.getGlobalConfig();
-                    boolean flag = globalConfig.isRedisHistoryDelayMessageSend();
-                    if (!flag) {
-                        baseRedisClient.hdel(Constant.REDIS_DELIVERY_KEY, key);
-                    } else {
-                        sendDelayedMessage(key, globalConfig.getRedisHistoryDelayMessageSendTime(), baseRedisClient);
+            RedisConfig redisConfig = baseRedisClient.getRedisConfig();
+            int batchSize = redisConfig == null || redisConfig.getDeliveryRecoveryBatchSize() <= 0
+                    ? 500 : redisConfig.getDeliveryRecoveryBatchSize();
+            int parallelism = redisConfig == null || redisConfig.getDeliveryRecoveryParallelism() <= 0
+                    ? 4 : redisConfig.getDeliveryRecoveryParallelism();
+            long leaseMillis = redisConfig == null || redisConfig.getDeliveryLeaseMillis() <= 0
+                    ? 10000 : redisConfig.getDeliveryLeaseMillis();
+            DeliveryLease lease = new DeliveryLease(baseRedisClient, Constant.REDIS_DELIVERY_RECOVERY_KEY,
+                    Constant.REDIS_DELIVERY_FENCING_KEY, leaseMillis);
+            if (lease.acquire() == null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("DeliveryMessageHandler# history delay message is recovering by other instance");
+                }
+                return;
+            }
+            int bucketCount = Math.max(redisConfig == null ? 1 : redisConfig.getDeliveryBuckets(), 1);
+            try {
+                recover(baseRedisClient, lease, properties.getGlobalConfig(), batchSize, parallelism, bucketCount);
+                rebalanceBuckets(baseRedisClient, lease, batchSize, bucketCount);
+            } finally {
+                lease.release();
+            }
+        }
+    }
+
+    /**
+     * 恢复历史数据
+     *
+     * @param baseRedisClient redis客户端
+     * @param lease           恢复租约
+     * @param globalConfig    全局配置
+     * @param batchSize       每批数量
+     * @param parallelism     同时处理的批次数
+     * @param bucketCount     桶数量
+     */
+    private static void recover(BaseRedisClient baseRedisClient, DeliveryLease lease, GlobalConfig globalConfig,
+                                int batchSize, int parallelism, int bucketCount) {
+        long start = System.currentTimeMillis();
+        AtomicLong scanned = new AtomicLong();
+        AtomicLong migrated = new AtomicLong();
+        Semaphore permits = new Semaphore(parallelism);
+        baseRedisClient.hscan(Constant.REDIS_DELIVERY_KEY, batchSize, batch -> {
+            permits.acquireUninterruptibly();
+            Runnable task = () -> {
+                try {
+                    // 续期恢复租约，迁移可重复执行，续期失败时继续完成本次迁移
+                    lease.acquire();
+                    migrated.addAndGet(migrate(baseRedisClient, batch, globalConfig, start, bucketCount));
+                    logProgress(scanned.addAndGet(batch.size()), batch.size(), start);
+                } catch (Exception e) {
+                    if (log.isErrorEnabled()) {
+                        log.error("DeliveryMessageHandler# migrate history delay message error:{}", e.getMessage());
                     }
+                } finally {
+                    permits.release();
                 }
-            });
+            };
+            try {
+                ExecutorUtils.getConsumeExecutor().execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+            return null;
+        });
+        // 等待所有批次完成
+        permits.acquireUninterruptibly(parallelism);
+        if (log.isInfoEnabled() && scanned.get() > 0) {
+            log.info("DeliveryMessageHandler# history delay message recovered, scanned:{}, migrated:{}, cost:{}ms",
+                    scanned.get(), migrated.get(), System.currentTimeMillis() - start);
         }
     }
 
     /**
-     * 发送延时消息
+     * 将调整分桶数量后不再使用的桶中的延时消息迁移到当前的桶，按原投递时间写入
+     *
+     * @param baseRedisClient redis客户端
+     * @param lease           恢复租约
+     * @param batchSize       每批数量
+     * @param bucketCount     当前桶数量
+     */
+    private static void rebalanceBuckets(BaseRedisClient baseRedisClient, DeliveryLease lease, int batchSize,
+                                         int bucketCount) {
+        List<String> result = baseRedisClient.eval(DeliveryScripts.RECORD_BUCKETS,
+                Collections.singletonList(Constant.REDIS_DELIVERY_BUCKETS_KEY),
+                Collections.singletonList(String.valueOf(bucketCount)));
+        int maxCount = result.isEmpty() || result.get(0) == null ? 1 : Integer.parseInt(result.get(0));
+        for (DeliveryBucket retired : DeliveryBucket.retired(bucketCount, maxCount)) {
+            AtomicLong moved = new AtomicLong();
+            try {
+                baseRedisClient.hscan(retired.getPayloadKey(), batchSize, batch -> {
+                    lease.acquire();
+                    moved.addAndGet(move(baseRedisClient, retired, batch, bucketCount));
+                    return null;
+                });
+            } catch (Exception e) {
+                if (log.isErrorEnabled()) {
+                    log.error("DeliveryMessageHandler# migrate delay message from {} error:{}",
+                            retired.getPayloadKey(), e.getMessage());
+                }
+            }
+            if (log.isInfoEnabled() && moved.get() > 0) {
+                log.info("DeliveryMessageHandler# delay message migrated from {}, count:{}",
+                        retired.getPayloadKey(), moved.get());
+            }
+        }
+    }
+
+    /**
+     * 迁移一批不再使用的桶中的延时消息，写入当前的桶后从原桶删除
+     *
+     * @param baseRedisClient redis客户端
+     * @param retired         不再使用的桶
+     * @param batch           消息 key 与消息内容
+     * @param bucketCount     当前桶数量
+     * @return 迁移数量
+     */
+    private static int move(BaseRedisClient baseRedisClient, DeliveryBucket retired, Map<String, String> batch,
+                            int bucketCount) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Map<DeliveryBucket, List<String>> bucketArgs = new HashMap<>();
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, String> entry : batch.entrySet()) {
+            String value = entry.getValue();
+            if (StringUtils.isEmpty(value)) {
+                continue;
+            }
+            Long deliveryTimestamp = JSONUtil.toBean(value, ProducerRecord.class).getDeliveryTimestamp();
+            List<String> args = bucketArgs.computeIfAbsent(DeliveryBucket.route(entry.getKey(), bucketCount),
+                    bucket -> new ArrayList<>());
+            args.add(entry.getKey());
+            args.add(value);
+            args.add(String.valueOf(deliveryTimestamp == null ? now : deliveryTimestamp));
+        }
+        bucketArgs.forEach((bucket, args) -> baseRedisClient.eval(DeliveryScripts.ENQUEUE, bucket.getKeys(), args));
+        baseRedisClient.eval(DeliveryScripts.ACK, retired.getKeys(), new ArrayList<>(batch.keySet()));
+        return batch.size();
+    }
+
+    private static void logProgress(long scanned, int batchSize, long start) {
+        if (log.isInfoEnabled() && scanned / PROGRESS_LOG_INTERVAL != (scanned - batchSize) / PROGRESS_LOG_INTERVAL) {
+            log.info("DeliveryMessageHandler# history delay message recovering, scanned:{}, cost:{}ms", scanned,
+                    System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * 迁移一批旧版延时消息，每个桶一次写入 zset 并一次删除旧数据<br>
+     * 未到期的按原投递时间写入，已过期的根据配置延迟发送或丢弃
+     *
+     * @param baseRedisClient redis客户端
+     * @param batch           消息 key 与消息内容
+     * @param globalConfig    全局配置
+     * @param now             当前时间戳
+     * @param bucketCount     桶数量
+     * @return 迁移数量
+     */
+    private static int migrate(BaseRedisClient baseRedisClient, Map<String, String> batch, GlobalConfig globalConfig,
+                               long now, int bucketCount) {
+        Map<DeliveryBucket, List<String>> bucketArgs = new HashMap<>();
+        int migrated = 0;
+        for (Map.Entry<String, String> entry : batch.entrySet()) {
+            String key = entry.getKey();
+            String value = entry.getValue();
+            if (StringUtils.isEmpty(value) || !key.startsWith(Constant.REDIS_KEY_PREFIX)) {
+                continue;
+            }
+            Long deliveryTimestamp = JSONUtil.toBean(value, ProducerRecord.class).getDeliveryTimestamp();
+            if (deliveryTimestamp == null || deliveryTimestamp <= now) {
+                if (!globalConfig.isRedisHistoryDelayMessageSend()) {
+                    continue;
+                }
+                deliveryTimestamp = now + globalConfig.getRedisHistoryDelayMessageSendTime();
+            }
+            List<String> args = bucketArgs.computeIfAbsent(DeliveryBucket.route(key, bucketCount),
+                    bucket -> new ArrayList<>());
+            args.add(key);
+            args.add(value);
+            args.add(String.valueOf(deliveryTimestamp));
+            migrated++;
+        }
+        bucketArgs.forEach((bucket, args) -> baseRedisClient.eval(DeliveryScripts.ENQUEUE, bucket.getKeys(), args));
+        baseRedisClient.hdel(Constant.REDIS_DELIVERY_KEY, batch.keySet().toArray(new String[0]));
+        return migrated;
+    }
+
+    /**
+     * 处理各桶到期的延时消息，每个实例最多持有 ceil(桶数 / 存活实例数) 个桶的租约，多余的租约释放给其他实例
      *
-     * @param key
-     * @param baseRedisClient
+     * @param baseRedisClient redis客户端
+     * @param buckets         桶
+     * @param leases          各桶租约
+     * @param offset          起始桶序号
+     * @param batchSize       每次领取数量
+     * @param retryInterval   重新投递间隔
+     * @param leaseMillis     租约时长
      */
-    private static void sendDelayedMessage(String key, Long deliveryTimestamp, BaseRedisClient baseRedisClient) {
-        if (StringUtils.isEmpty(key)) {
-            return;
+    private static void deliverDueMessages(BaseRedisClient baseRedisClient, DeliveryBucket[] buckets,
+                                           DeliveryLease[] leases, int offset, int batchSize, long retryInterval,
+                                           long leaseMillis) {
+        try {
+            int share = getShare(baseRedisClient, buckets.length, leaseMillis);
+            int held = 0;
+            for (DeliveryLease lease : leases) {
+                if (lease.getLease() != null) {
+                    held++;
+                }
+            }
+            for (int i = 0; i < buckets.length; i++) {
+                int index = (offset + i) % buckets.length;
+                DeliveryLease lease = leases[index];
+                boolean holding = lease.getLease() != null;
+                if (!holding && held >= share) {
+                    continue;
+                }
+                deliverDueMessages(baseRedisClient, buckets[index], lease, batchSize, retryInterval);
+                if (holding != (lease.getLease() != null)) {
+                    held += holding ? -1 : 1;
+                }
+            }
+            for (int i = buckets.length - 1; i >= 0 && held > share; i--) {
+                DeliveryLease lease = leases[(offset + i) % buckets.length];
+                if (lease.getLease() != null) {
+                    lease.release();
+                    held--;
+                }
+            }
+        } catch (Exception e) {
+            // 异常不能抛出，否则定时任务会被取消
+            if (log.isErrorEnabled()) {
+                log.error("DeliveryMessageHandler# deliver due messages error:{}", e.getMessage());
+            }
         }
-        if (!key.startsWith(Constant.REDIS_KEY_PREFIX)) {
-            return;
+    }
+
+    /**
+     * 计算当前实例最多持有的桶数，只有一个桶时无需心跳
+     *
+     * @param baseRedisClient redis客户端
+     * @param bucketCount     桶数量
+     * @param leaseMillis     租约时长，超过该时长未心跳的实例视为下线
+     * @return 最多持有的桶数
+     */
+    private static int getShare(BaseRedisClient baseRedisClient, int bucketCount, long leaseMillis) {
+        if (bucketCount <= 1) {
+            return 1;
+        }
+        long now = System.currentTimeMillis();
+        List<String> result = baseRedisClient.eval(DeliveryScripts.HEARTBEAT,
+                Collections.singletonList(Constant.REDIS_DELIVERY_INSTANCES_KEY),
+                Arrays.asList(DeliveryLease.OWNER, String.valueOf(now), String.valueOf(now - leaseMillis)));
+        int instances = result.isEmpty() || result.get(0) == null ? 1 : Math.max(Integer.parseInt(result.get(0)), 1);
+        return (bucketCount + instances - 1) / instances;
+    }
+
+    /**
+     * 持有租约时领取并发送桶中到期的延时消息，直到没有到期消息或租约失效
+     *
+     * @param baseRedisClient redis客户端
+     * @param bucket          桶
+     * @param lease           桶的处理租约
+     * @param batchSize       每次领取数量
+     * @param retryInterval   重新投递间隔
+     */
+    private static void deliverDueMessages(BaseRedisClient baseRedisClient, DeliveryBucket bucket, DeliveryLease lease,
+                                           int batchSize, long retryInterval) {
+        try {
+            int claimed;
+            do {
+                // 每批领取前续期租约，未持有租约时不处理
+                String leaseValue = lease.acquire();
+                if (leaseValue == null) {
+                    return;
+                }
+                long now = System.currentTimeMillis();
+                List<String> messages = baseRedisClient.eval(DeliveryScripts.CLAIM, bucket.getKeys(),
+                        Arrays.asList(String.valueOf(now), String.valueOf(batchSize),
+                                String.valueOf(now + retryInterval), leaseValue));
+                claimed = messages.size() / 2;
+                List<String> delivered = new ArrayList<>(claimed);
+                for (int i = 0; i + 1 < messages.size(); i += 2) {
+                    if (sendDelayedMessage(messages.get(i), messages.get(i + 1), baseRedisClient)) {
+                        delivered.add(messages.get(i));
+                    }
+                }
+                if (!delivered.isEmpty()) {
+                    baseRedisClient.eval(DeliveryScripts.ACK, bucket.getKeys(), delivered);
+                }
+            } while (claimed >= batchSize);
+        } catch (Exception e) {
+            if (log.isErrorEnabled()) {
+                log.error("DeliveryMessageHandler# deliver bucket {} due messages error:{}", bucket.getIndex(),
+                        e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 发送延时消息
+     *
+     * @param key             消息 key
+     * @param value           消息内容
+     * @param baseRedisClient redis客户端
+     * @return 是否发送成功
+     */
+    private static boolean sendDelayedMessage(String key, String value, BaseRedisClient baseRedisClient) {
+        if (StringUtils.isEmpty(value)) {
+            return true;
         }
-        // 获取消息
-        String value = baseRedisClient.hget(Constant.REDIS_DELIVERY_KEY, key);
-        if (StringUtils.isNotEmpty(value)) {
+        try {
             ProducerRecord producerRecord = JSONUtil.toBean(value, ProducerRecord.class);
-            producerRecord.setDeliveryTimestamp(deliveryTimestamp);
+            producerRecord.setDeliveryTimestamp(null);
             // 发送
             baseRedisClient.send(producerRecord);
-            // 删除
-            baseRedisClient.hdel(Constant.REDIS_DELIVERY_KEY, key);
+            return true;
+        } catch (Exception e) {
+            if (log.isErrorEnabled()) {
+                log.error("DeliveryMessageHandler# send delayed message {} error:{}", key, e.getMessage());
+            }
+            return false;
         }
     }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.redis.delivery;
+
+/**
+ * 延时消息 lua 脚本
+ * <p>
+ * KEYS[1] 为按投递时间排序的 zset，KEYS[2] 为保存消息内容的 hash，KEYS[3] 为租约，所有 key 需位于同一 slot
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 20:10
+ */
+public interface DeliveryScripts {
+
+    /**
+     * 写入延时消息，支持一次写入多条<br>
+     * ARGV 为 [消息 key, 消息内容, 投递时间戳, ...]
+     */
+    String ENQUEUE = "for i = 1, #ARGV, 3 do\n"
+            + "  redis.call('HSET', KEYS[2], ARGV[i], ARGV[i + 1])\n"
+            + "  redis.call('ZADD', KEYS[1], ARGV[i + 2], ARGV[i])\n"
+            + "end\n"
+            + "return nil";
+
+    /**
+     * 领取到期的延时消息，领取后将投递时间推迟到 ARGV[3]，确认前宕机或发送失败时到期重新投递<br>
+     * ARGV[1] 当前时间戳，ARGV[2] 最大领取数量，ARGV[3] 重新投递时间戳，ARGV[4] 租约值，与 KEYS[3] 不一致时不领取<br>
+     * 返回 [消息 key, 消息内容, ...]
+     */
+    String CLAIM = "if redis.call('GET', KEYS[3]) ~= ARGV[4] then\n"
+            + "  return {}\n"
+            + "end\n"
+            + "local keys = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))\n"
+            + "local result = {}\n"
+            + "for _, key in ipairs(keys) do\n"
+            + "  local payload = redis.call('HGET', KEYS[2], key)\n"
+            + "  if payload then\n"
+            + "    redis.call('ZADD', KEYS[1], ARGV[3], key)\n"
+            + "    result[#result + 1] = key\n"
+            + "    result[#result + 1] = payload\n"
+            + "  else\n"
+            + "    redis.call('ZREM', KEYS[1], key)\n"
+            + "  end\n"
+            + "end\n"
+            + "return result";
+
+    /**
+     * 确认已投递的延时消息，先删除消息内容再删除投递时间<br>
+     * ARGV 为消息 key
+     */
+    String ACK = "redis.call('HDEL', KEYS[2], unpack(ARGV))\n"
+            + "redis.call('ZREM', KEYS[1], unpack(ARGV))\n"
+            + "return nil";
+
+    /**
+     * 获取或续期租约，已由当前持有者持有时续期，否则在租约空闲时递增 fencing token 并获取<br>
+     * KEYS[1] 租约，KEYS[2] fencing token 计数；ARGV[1] 持有者，ARGV[2] 租约时长毫秒<br>
+     * 返回 [token]，租约被其他持有者占用时返回空列表
+     */
+    String ACQUIRE_LEASE = "local current = redis.call('GET', KEYS[1])\n"
+            + "if current then\n"
+            + "  local owner, token = string.match(current, '^(.*):(%d+)$')\n"
+            + "  if owner == ARGV[1] then\n"
+            + "    redis.call('PEXPIRE', KEYS[1], ARGV[2])\n"
+            + "    return {token}\n"
+            + "  end\n"
+            + "  return {}\n"
+            + "end\n"
+            + "local token = tostring(redis.call('INCR', KEYS[2]))\n"
+            + "redis.call('SET', KEYS[1], ARGV[1] .. ':' .. token, 'PX', ARGV[2])\n"
+            + "return {token}";
+
+    /**
+     * 释放租约，租约值一致时删除<br>
+     * KEYS[1] 租约；ARGV[1] 租约值
+     */
+    String RELEASE_LEASE = "if redis.call('GET', KEYS[1]) == ARGV[1] then\n"
+            + "  redis.call('DEL', KEYS[1])\n"
+            + "end\n"
+            + "return {}";
+
+    /**
+     * 实例心跳，写入当前实例并清理过期实例<br>
+     * KEYS[1] 实例 zset；ARGV[1] 实例标识，ARGV[2] 当前时间戳，ARGV[3] 过期时间戳<br>
+     * 返回 [存活实例数]
+     */
+    String HEARTBEAT = "redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])\n"
+            + "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[3])\n"
+            + "return {tostring(redis.call('ZCARD', KEYS[1]))}";
+
+    /**
+     * 记录使用过的最大分桶数量<br>
+     * KEYS[1] 最大分桶数量；ARGV[1] 当前分桶数量<br>
+     * 返回 [记录前的最大分桶数量]
+     */
+    String RECORD_BUCKETS = "local current = tonumber(redis.call('GET', KEYS[1]) or '1')\n"
+            + "if tonumber(ARGV[1]) > current then\n"
+            + "  redis.call('SET', KEYS[1], ARGV[1])\n"
+            + "end\n"
+            + "return {tostring(current)}";
+}
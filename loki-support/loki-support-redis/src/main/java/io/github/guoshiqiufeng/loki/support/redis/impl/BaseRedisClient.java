@@ -19,18 +19,41 @@ import cn.hutool.core.util.IdUtil;
 import cn.hutool.json.JSONUtil;
 import io.github.guoshiqiufeng.loki.MessageContent;
 import io.github.guoshiqiufeng.loki.constant.Constant;
+import io.github.guoshiqiufeng.loki.enums.ExecutorQueueType;
+import io.github.guoshiqiufeng.loki.enums.RedisMode;
+import io.github.guoshiqiufeng.loki.enums.RejectionPolicyType;
+import io.github.guoshiqiufeng.loki.support.core.config.ExecutorConfig;
+import io.github.guoshiqiufeng.loki.support.core.config.RedisConfig;
 import io.github.guoshiqiufeng.loki.support.core.consumer.ConsumerConfig;
+import io.github.guoshiqiufeng.loki.support.core.consumer.ConsumerRecord;
 import io.github.guoshiqiufeng.loki.support.core.exception.LokiException;
 import io.github.guoshiqiufeng.loki.support.core.pipeline.PipelineUtils;
 import io.github.guoshiqiufeng.loki.support.core.producer.ProducerRecord;
 import io.github.guoshiqiufeng.loki.support.core.producer.ProducerResult;
+import io.github.guoshiqiufeng.loki.support.core.util.ExecutorUtils;
 import io.github.guoshiqiufeng.loki.support.core.util.StringUtils;
-import io.github.guoshiqiufeng.loki.support.core.util.ThreadPoolUtils;
 import io.github.guoshiqiufeng.loki.support.redis.RedisClient;
+import io.github.guoshiqiufeng.loki.support.redis.consumer.RedisMessageDispatcher;
+import io.github.guoshiqiufeng.loki.support.redis.consumer.RedisStreamConsumer;
+import io.github.guoshiqiufeng.loki.support.redis.consumer.StreamMessage;
+import io.github.guoshiqiufeng.loki.support.redis.delivery.DeliveryBucket;
+import io.github.guoshiqiufeng.loki.support.redis.delivery.DeliveryScripts;
+import io.github.guoshiqiufeng.loki.support.redis.producer.RedisPublishAccumulator;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 
@@ -42,6 +65,18 @@ import java.util.function.Function;
 @Slf4j
 public abstract class BaseRedisClient implements RedisClient {
 
+    /**
+     * redis 配置
+     */
+    @Getter
+    @Setter
+    private RedisConfig redisConfig;
+
+    /**
+     * 发布消息累加器，开启 publishBatchEnabled 时创建
+     */
+    private volatile RedisPublishAccumulator publishAccumulator;
+
     /**
      * 发送消息
      *
@@ -51,35 +86,200 @@ public abstract class BaseRedisClient implements RedisClient {
      */
     @Override
     public ProducerResult send(String groupName, ProducerRecord producerRecord) {
-        if (producerRecord == null) {
-            throw new LokiException("sendAsync fail : record is null!");
-        }
-        producerRecord = PipelineUtils.processSend(producerRecord);
-        if (producerRecord == null) {
-            throw new LokiException("producerRecord is null!");
+        ProducerRecord finalRecord = prepareRecord(producerRecord);
+        RedisPublishAccumulator accumulator = getPublishAccumulator();
+        if (accumulator != null && isPublish(finalRecord)) {
+            try {
+                return accumulate(accumulator, finalRecord).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
         }
-        ProducerRecord finalRecord = producerRecord;
+        return doSend(finalRecord);
+    }
+
+    private ProducerResult doSend(ProducerRecord finalRecord) {
         String msgId = IdUtil.fastSimpleUUID();
-        if (producerRecord.getDeliveryTimestamp() != null && producerRecord.getDeliveryTimestamp() != 0) {
-            producerRecord.setDeliveryTimestamp(System.currentTimeMillis() + producerRecord.getDeliveryTimestamp());
-        }
-        if (producerRecord.getDeliveryTimestamp() != null && producerRecord.getDeliveryTimestamp() > System.currentTimeMillis()) {
+        if (isDelivery(finalRecord)) {
             // 定时发送
-            set(Constant.REDIS_KEY_PREFIX + producerRecord.getTopic() + ":" + msgId, producerRecord.getMessage(), producerRecord.getDeliveryTimestamp());
-            hset(Constant.REDIS_DELIVERY_KEY, Constant.REDIS_KEY_PREFIX + producerRecord.getTopic() + ":" + msgId, JSONUtil.toJsonStr(producerRecord));
-            if (log.isDebugEnabled()) {
-                log.debug("publish is delivery, msgId: {}", msgId);
-            }
+            delivery(msgId, finalRecord);
+        } else if (isStreamMode()) {
+            msgId = xadd(Constant.REDIS_STREAM_KEY_PREFIX + finalRecord.getTopic(),
+                    toStreamFields(finalRecord.getMessage()), redisConfig.getStreamMaxLen());
         } else {
             long publish = publish(finalRecord.getTopic(), finalRecord.getMessage());
             if (log.isDebugEnabled()) {
                 log.debug("publish msgId:{} result: {}", msgId, publish);
             }
         }
+        return createResult(finalRecord.getTopic(), msgId);
+    }
 
-        ProducerResult result = new ProducerResult();
-        result.setTopic(finalRecord.getTopic());
+    /**
+     * 通过累加器发布，与其他并发发布合并为一个 pipeline
+     *
+     * @param accumulator 累加器
+     * @param finalRecord 发送信息
+     * @return 发送结果
+     */
+    private CompletableFuture<ProducerResult> accumulate(RedisPublishAccumulator accumulator,
+                                                         ProducerRecord finalRecord) {
+        String msgId = IdUtil.fastSimpleUUID();
+        return accumulator.append(finalRecord.getTopic(), finalRecord.getMessage()).thenApply(publish -> {
+            if (log.isDebugEnabled()) {
+                log.debug("publish msgId:{} result: {}", msgId, publish);
+            }
+            return createResult(finalRecord.getTopic(), msgId);
+        });
+    }
 
+    private boolean isPublish(ProducerRecord finalRecord) {
+        return !isDelivery(finalRecord) && !isStreamMode();
+    }
+
+    /**
+     * 获取发布消息累加器
+     *
+     * @return 累加器，未开启时返回null
+     */
+    private RedisPublishAccumulator getPublishAccumulator() {
+        if (redisConfig == null || !redisConfig.isPublishBatchEnabled()) {
+            return null;
+        }
+        RedisPublishAccumulator accumulator = publishAccumulator;
+        if (accumulator == null) {
+            synchronized (this) {
+                accumulator = publishAccumulator;
+                if (accumulator == null) {
+                    accumulator = new RedisPublishAccumulator(this, redisConfig.getPublishBatchSize(),
+                            redisConfig.getPublishBatchBytes(), redisConfig.getPublishLingerMillis());
+                    publishAccumulator = accumulator;
+                }
+            }
+        }
+        return accumulator;
+    }
+
+    /**
+     * 批量发送消息，即时消息通过 pipeline 一次发布，stream 模式下通过 pipeline 一次写入
+     *
+     * @param groupName       组名称
+     * @param producerRecords 发送信息
+     * @return 发送消息结果，与发送信息顺序一致
+     */
+    @Override
+    public List<ProducerResult> sendBatch(String groupName, Collection<ProducerRecord> producerRecords) {
+        ProducerResult[] results = new ProducerResult[producerRecords.size()];
+        List<Integer> publishIndexes = new ArrayList<>();
+        List<String> channels = new ArrayList<>();
+        List<String> messages = new ArrayList<>();
+        int i = 0;
+        for (ProducerRecord producerRecord : producerRecords) {
+            int index = i++;
+            try {
+                ProducerRecord finalRecord = prepareRecord(producerRecord);
+                String msgId = IdUtil.fastSimpleUUID();
+                if (isDelivery(finalRecord)) {
+                    delivery(msgId, finalRecord);
+                } else {
+                    publishIndexes.add(index);
+                    channels.add(finalRecord.getTopic());
+                    messages.add(finalRecord.getMessage());
+                }
+                results[index] = createResult(finalRecord.getTopic(), msgId);
+            } catch (Exception e) {
+                results[index] = ProducerResult.failure(producerRecord == null ? null : producerRecord.getTopic(), e);
+            }
+        }
+        if (!channels.isEmpty() && isStreamMode()) {
+            try {
+                List<String> keys = new ArrayList<>(channels.size());
+                List<Map<String, String>> fields = new ArrayList<>(messages.size());
+                for (int j = 0; j < channels.size(); j++) {
+                    keys.add(Constant.REDIS_STREAM_KEY_PREFIX + channels.get(j));
+                    fields.add(toStreamFields(messages.get(j)));
+                }
+                List<String> ids = xadd(keys, fields, redisConfig.getStreamMaxLen());
+                for (int j = 0; j < publishIndexes.size(); j++) {
+                    results[publishIndexes.get(j)].setMsgId(ids.get(j));
+                }
+            } catch (Exception e) {
+                for (Integer index : publishIndexes) {
+                    results[index] = ProducerResult.failure(results[index].getTopic(), e);
+                }
+            }
+        } else if (!channels.isEmpty()) {
+            try {
+                publish(channels, messages);
+            } catch (Exception e) {
+                for (Integer index : publishIndexes) {
+                    results[index] = ProducerResult.failure(results[index].getTopic(), e);
+                }
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("publish batch size:{}", channels.size());
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 生成发送使用的消息副本，不修改调用方传入的消息
+     *
+     * @param producerRecord 消息
+     * @return 发送使用的消息
+     */
+    private ProducerRecord prepareRecord(ProducerRecord producerRecord) {
+        if (producerRecord == null) {
+            throw new LokiException("sendAsync fail : record is null!");
+        }
+        ProducerRecord processed = PipelineUtils.processSend(producerRecord);
+        if (processed == null) {
+            throw new LokiException("producerRecord is null!");
+        }
+        ProducerRecord wireRecord = new ProducerRecord(processed.getTopic(), processed.getTag(),
+                processed.getMessage(), processed.getDeliveryTimestamp(), processed.getKeys(),
+                processed.getMessageBody());
+        if (wireRecord.getMessage() == null && wireRecord.getMessageBody() != null) {
+            // redis 仅支持文本传输，二进制内容使用 Base64
+            wireRecord.setMessage(Base64.getEncoder().encodeToString(wireRecord.getMessageBody()));
+            wireRecord.setMessageBody(null);
+        }
+        if (wireRecord.getDeliveryTimestamp() != null && wireRecord.getDeliveryTimestamp() != 0) {
+            wireRecord.setDeliveryTimestamp(System.currentTimeMillis() + wireRecord.getDeliveryTimestamp());
+        }
+        return wireRecord;
+    }
+
+    private boolean isDelivery(ProducerRecord producerRecord) {
+        return producerRecord.getDeliveryTimestamp() != null && producerRecord.getDeliveryTimestamp() > System.currentTimeMillis();
+    }
+
+    private void delivery(String msgId, ProducerRecord producerRecord) {
+        // 消息内容只保存一份，与投递时间 zset 位于同一个桶，由 DeliveryMessageHandler 定时领取
+        String key = Constant.REDIS_KEY_PREFIX + producerRecord.getTopic() + ":" + msgId;
+        DeliveryBucket bucket = DeliveryBucket.route(key, redisConfig == null ? 1 : redisConfig.getDeliveryBuckets());
+        eval(DeliveryScripts.ENQUEUE, bucket.getKeys(), Arrays.asList(key, JSONUtil.toJsonStr(producerRecord),
+                String.valueOf(producerRecord.getDeliveryTimestamp())));
+        if (log.isDebugEnabled()) {
+            log.debug("publish is delivery, msgId: {}", msgId);
+        }
+    }
+
+    private boolean isStreamMode() {
+        return redisConfig != null && redisConfig.getMode() == RedisMode.STREAM;
+    }
+
+    private Map<String, String> toStreamFields(String message) {
+        return Collections.singletonMap(Constant.REDIS_STREAM_MESSAGE_FIELD, message);
+    }
+
+    private ProducerResult createResult(String topic, String msgId) {
+        ProducerResult result = new ProducerResult();
+        result.setTopic(topic);
         result.setMsgId(msgId);
         return result;
     }
@@ -93,7 +293,29 @@ public abstract class BaseRedisClient implements RedisClient {
      */
     @Override
     public CompletableFuture<ProducerResult> sendAsync(String groupName, ProducerRecord producerRecord) {
-        return CompletableFuture.supplyAsync(() -> send(groupName, producerRecord));
+        RedisPublishAccumulator accumulator = getPublishAccumulator();
+        ProducerRecord finalRecord;
+        try {
+            finalRecord = prepareRecord(producerRecord);
+        } catch (Exception e) {
+            CompletableFuture<ProducerResult> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        if (isPublish(finalRecord)) {
+            if (accumulator != null) {
+                // 不占用发送线程，pipeline 返回结果后完成
+                return accumulate(accumulator, finalRecord);
+            }
+            String msgId = IdUtil.fastSimpleUUID();
+            return publishAsync(finalRecord.getTopic(), finalRecord.getMessage()).thenApply(publish -> {
+                if (log.isDebugEnabled()) {
+                    log.debug("publish msgId:{} result: {}", msgId, publish);
+                }
+                return createResult(finalRecord.getTopic(), msgId);
+            });
+        }
+        return CompletableFuture.supplyAsync(() -> doSend(finalRecord), ExecutorUtils.getSendExecutor());
     }
 
     /**
@@ -114,24 +336,27 @@ public abstract class BaseRedisClient implements RedisClient {
             }
             return;
         }
+        if (isStreamMode()) {
+            streamConsumer(consumerConfig, function);
+            return;
+        }
         try {
             if (StringUtils.isEmpty(tag)) {
                 tag = "*";
             }
-            ExecutorService executorService = ThreadPoolUtils.getSingleThreadPool();
-            CompletableFuture.runAsync(() -> {
-                if (!StringUtils.isEmpty(topicPattern)) {
-                    this.psubscribe(record -> function.apply(new MessageContent<String>()
+            ExecutorService executorService = ExecutorUtils.getConsumeExecutor();
+            String name = "redis-listener-" + (StringUtils.isEmpty(topicPattern) ? topic : topicPattern)
+                    + "-" + consumerConfig.getIndex();
+            RedisMessageDispatcher dispatcher = createDispatcher(name, consumerConfig.getConsumptionThreadCount(),
+                    consumerConfig.getMaxCacheMessageCount(), record -> function.apply(new MessageContent<String>()
                             .setTopic(record.getTopic())
                             .setBody(record.getBodyMessage())
-                            .setBodyMessage(record.getBodyMessage())
-                    ), topicPattern);
+                            .setBodyMessage(record.getBodyMessage())));
+            CompletableFuture.runAsync(() -> {
+                if (!StringUtils.isEmpty(topicPattern)) {
+                    this.psubscribe(dispatcher, topicPattern);
                 } else {
-                    this.subscribe(record -> function.apply(new MessageContent<String>()
-                            .setTopic(record.getTopic())
-                            .setBody(record.getBodyMessage())
-                            .setBodyMessage(record.getBodyMessage())
-                    ), topic);
+                    this.subscribe(dispatcher, topic);
                 }
             }, executorService).exceptionally(throwable -> {
                 if (log.isErrorEnabled()) {
@@ -148,6 +373,85 @@ public abstract class BaseRedisClient implements RedisClient {
         }
     }
 
+    /**
+     * stream 模式消费消息，每个监听作为消费组中的一个消费者批量拉取，由 consumptionThreadCount 个线程并行处理；
+     * 开启顺序消费时在拉取线程中依次处理
+     *
+     * @param consumerConfig 消费配置
+     * @param function       消费函数
+     */
+    private void streamConsumer(ConsumerConfig consumerConfig, Function<MessageContent<String>, Void> function) {
+        String topic = consumerConfig.getTopic();
+        if (StringUtils.isEmpty(topic)) {
+            if (log.isErrorEnabled()) {
+                log.error("BaseRedisClient# stream consumer error: topicPattern is not supported in stream mode");
+            }
+            return;
+        }
+        String group = StringUtils.isEmpty(consumerConfig.getConsumerGroup()) ? topic : consumerConfig.getConsumerGroup();
+        Integer threadCount = consumerConfig.getConsumptionThreadCount();
+        int batchSize = redisConfig.getStreamBatchSize();
+        ExecutorService executor = null;
+        if (!redisConfig.isListenerOrderly() && threadCount != null && threadCount > 1) {
+            String name = "redis-stream-" + topic + "-" + consumerConfig.getIndex();
+            executor = ExecutorUtils.register(name, new ExecutorConfig.PoolConfig()
+                    .setThreadNamePrefix("loki-" + name + "-")
+                    .setCorePoolSize(threadCount)
+                    .setMaxPoolSize(threadCount)
+                    .setKeepAliveSeconds(60)
+                    .setAllowCoreThreadTimeOut(true)
+                    .setQueueType(ExecutorQueueType.ARRAY)
+                    .setQueueCapacity(Math.max(batchSize, 1))
+                    .setRejectionPolicy(RejectionPolicyType.CALLER_RUNS)
+                    .setAwaitTerminationSeconds(10));
+        }
+        // pid@host 区分实例，重启后遗留的未确认消息由 XAUTOCLAIM 接管，旧的消费者空闲超时后删除
+        String consumerName = ManagementFactory.getRuntimeMXBean().getName() + "-" + consumerConfig.getIndex();
+        Function<ConsumerRecord, Void> recordFunction = record -> function.apply(new MessageContent<String>()
+                .setMessageId(record.getMessageId())
+                .setTopic(record.getTopic())
+                .setBody(record.getBodyMessage())
+                .setBodyMessage(record.getBodyMessage()));
+        RedisStreamConsumer streamConsumer = new RedisStreamConsumer(this, topic, group, consumerName, batchSize,
+                redisConfig.getStreamBlockMillis(), redisConfig.getStreamClaimIdleMillis(), recordFunction, executor)
+                .setMaxDeliveries(redisConfig.getStreamMaxDeliveries())
+                .setConsumerExpireMillis(redisConfig.getStreamConsumerExpireMillis())
+                .setMaxLen(redisConfig.getStreamMaxLen());
+        String loopName = "redis-stream-consumer-" + topic + "-" + consumerConfig.getIndex();
+        ExecutorUtils.runLoop(loopName, streamConsumer).exceptionally(throwable -> {
+            if (log.isErrorEnabled()) {
+                log.error("BaseRedisClient# stream consumer error: {}", throwable.getMessage());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 创建消息分发器，订阅线程只负责接收消息，由分发器中的线程处理
+     *
+     * @param name                   分发器名称
+     * @param consumptionThreadCount 消费线程数
+     * @param maxCacheMessageCount   最大缓存消息数
+     * @param function               消息处理函数
+     * @return 消息分发器
+     */
+    public RedisMessageDispatcher createDispatcher(String name, Integer consumptionThreadCount,
+                                                   Integer maxCacheMessageCount,
+                                                   Function<ConsumerRecord, Void> function) {
+        boolean orderly = redisConfig != null && redisConfig.isListenerOrderly();
+        return new RedisMessageDispatcher(name, consumptionThreadCount, maxCacheMessageCount, orderly,
+                getListenerOverflowPolicy(), function);
+    }
+
+    /**
+     * 获取监听缓存队列已满时的处理策略
+     *
+     * @return 处理策略，未配置时返回null
+     */
+    protected RejectionPolicyType getListenerOverflowPolicy() {
+        return redisConfig == null ? null : redisConfig.getListenerOverflowPolicy();
+    }
+
     /**
      * 发布消息
      *
@@ -157,6 +461,110 @@ public abstract class BaseRedisClient implements RedisClient {
      */
     abstract public long publish(String channel, String message);
 
+    /**
+     * 异步发布消息，默认在发送线程池中调用 {@link #publish(String, String)}，支持异步命令的客户端覆盖
+     *
+     * @param channel 频道
+     * @param message 消息
+     * @return 发布结果
+     */
+    public CompletableFuture<Long> publishAsync(String channel, String message) {
+        return CompletableFuture.supplyAsync(() -> publish(channel, message), ExecutorUtils.getSendExecutor());
+    }
+
+    /**
+     * 批量发布消息，默认逐条发布，支持 pipeline 的客户端覆盖
+     *
+     * @param channels 频道
+     * @param messages 消息，与频道一一对应
+     * @return 发布结果
+     */
+    public List<Long> publish(List<String> channels, List<String> messages) {
+        List<Long> results = new ArrayList<>(channels.size());
+        for (int i = 0; i < channels.size(); i++) {
+            results.add(publish(channels.get(i), messages.get(i)));
+        }
+        return results;
+    }
+
+    /**
+     * 写入 stream
+     *
+     * @param key    键
+     * @param fields 消息字段
+     * @param maxLen 最大长度，按 MAXLEN ~ 近似裁剪，小于等于 0 时不裁剪
+     * @return 消息id
+     */
+    abstract public String xadd(String key, Map<String, String> fields, long maxLen);
+
+    /**
+     * 批量写入 stream，默认逐条写入，支持 pipeline 的客户端覆盖
+     *
+     * @param keys   键
+     * @param fields 消息字段，与键一一对应
+     * @param maxLen 最大长度
+     * @return 消息id
+     */
+    public List<String> xadd(List<String> keys, List<Map<String, String>> fields, long maxLen) {
+        List<String> ids = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            ids.add(xadd(keys.get(i), fields.get(i), maxLen));
+        }
+        return ids;
+    }
+
+    /**
+     * 创建消费组，stream 不存在时自动创建，消费组已存在时忽略
+     *
+     * @param key   键
+     * @param group 消费组
+     */
+    abstract public void xgroupCreate(String key, String group);
+
+    /**
+     * 以消费组方式读取未投递的消息
+     *
+     * @param key         键
+     * @param group       消费组
+     * @param consumer    消费者
+     * @param count       最大消息数
+     * @param blockMillis 阻塞等待时间，单位毫秒
+     * @return 消息
+     */
+    abstract public List<StreamMessage> xreadgroup(String key, String group, String consumer, int count, long blockMillis);
+
+    /**
+     * 确认消息，一次命令确认全部id
+     *
+     * @param key   键
+     * @param group 消费组
+     * @param ids   消息id
+     * @return 确认数量
+     */
+    abstract public long xack(String key, String group, List<String> ids);
+
+    /**
+     * 接管空闲超时的未确认消息
+     *
+     * @param key           键
+     * @param group         消费组
+     * @param consumer      消费者
+     * @param minIdleMillis 最小空闲时间，单位毫秒
+     * @param count         最大消息数
+     * @return 接管的消息
+     */
+    abstract public List<StreamMessage> xautoclaim(String key, String group, String consumer, long minIdleMillis, int count);
+
+    /**
+     * 执行 lua 脚本
+     *
+     * @param script 脚本
+     * @param keys   键，集群模式下需位于同一 slot
+     * @param args   参数
+     * @return 脚本返回的列表，返回 nil 时为空列表
+     */
+    abstract public List<String> eval(String script, List<String> keys, List<String> args);
+
     /**
      * 判断key是否存在
      *
@@ -208,4 +616,13 @@ public abstract class BaseRedisClient implements RedisClient {
      */
     abstract public Set<String> hkeys(String key);
 
+    /**
+     * 通过 HSCAN 增量遍历 hash，每批交给处理函数，避免一次加载全部数据
+     *
+     * @param key      建
+     * @param count    每批数量
+     * @param function 批处理函数
+     */
+    abstract public void hscan(String key, int count, Function<Map<String, String>, Void> function);
+
 }
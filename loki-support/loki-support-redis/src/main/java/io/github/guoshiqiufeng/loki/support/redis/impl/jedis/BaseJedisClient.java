@@ -16,10 +16,26 @@
 package io.github.guoshiqiufeng.loki.support.redis.impl.jedis;
 
 import io.github.guoshiqiufeng.loki.support.core.consumer.ConsumerRecord;
-import io.github.guoshiqiufeng.loki.support.redis.consumer.DefaultJedisPubSub;
+import io.github.guoshiqiufeng.loki.support.core.util.ExecutorUtils;
+import io.github.guoshiqiufeng.loki.support.redis.consumer.JedisSubscriber;
+import io.github.guoshiqiufeng.loki.support.redis.consumer.StreamMessage;
 import io.github.guoshiqiufeng.loki.support.redis.impl.BaseRedisClient;
 import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.commands.StreamCommands;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.params.XAddParams;
+import redis.clients.jedis.params.XAutoClaimParams;
+import redis.clients.jedis.params.XReadGroupParams;
+import redis.clients.jedis.resps.StreamEntry;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 /**
@@ -29,6 +45,11 @@ import java.util.function.Function;
  */
 public abstract class BaseJedisClient extends BaseRedisClient {
 
+    /**
+     * 多路复用订阅者
+     */
+    private volatile JedisSubscriber[] subscribers;
+
     /**
      * 订阅消息
      *
@@ -46,25 +67,276 @@ public abstract class BaseJedisClient extends BaseRedisClient {
     abstract public void psubscribe(JedisPubSub jedisPubSub, String... patterns);
 
     /**
-     * 订阅消息
+     * 订阅消息，所有频道共用 subscriberConnections 个订阅连接，调用后立即返回
      *
      * @param function 回调
      * @param channels 频道
      */
     @Override
     public void subscribe(Function<ConsumerRecord, Void> function, String... channels) {
-        subscribe(new DefaultJedisPubSub(function), channels);
+        JedisSubscriber[] subscribers = getSubscribers();
+        for (String channel : channels) {
+            route(subscribers, channel).subscribe(function, channel);
+        }
     }
 
     /**
-     * 订阅消息
+     * 订阅消息，所有规则共用 subscriberConnections 个订阅连接，调用后立即返回
      *
      * @param function 回调
      * @param patterns 规则
      */
     @Override
     public void psubscribe(Function<ConsumerRecord, Void> function, String... patterns) {
-        psubscribe(new DefaultJedisPubSub(function), patterns);
+        JedisSubscriber[] subscribers = getSubscribers();
+        for (String pattern : patterns) {
+            route(subscribers, pattern).psubscribe(function, pattern);
+        }
+    }
+
+    private JedisSubscriber route(JedisSubscriber[] subscribers, String channel) {
+        return subscribers.length == 1 ? subscribers[0]
+                : subscribers[(channel.hashCode() & Integer.MAX_VALUE) % subscribers.length];
+    }
+
+    /**
+     * 获取订阅者，首次使用时创建并在独立线程中运行
+     *
+     * @return 订阅者
+     */
+    private JedisSubscriber[] getSubscribers() {
+        JedisSubscriber[] current = subscribers;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (subscribers == null) {
+                int count = getRedisConfig() == null || getRedisConfig().getSubscriberConnections() <= 0
+                        ? 1 : getRedisConfig().getSubscriberConnections();
+                JedisSubscriber[] created = new JedisSubscriber[count];
+                for (int i = 0; i < count; i++) {
+                    created[i] = new JedisSubscriber("redis-subscriber-" + i,
+                            (pubSub, chs) -> subscribe(pubSub, chs));
+                    ExecutorUtils.runLoop("redis-subscriber-" + i, created[i]);
+                }
+                subscribers = created;
+            }
+            return subscribers;
+        }
+    }
+
+    /**
+     * 通过 pipeline 批量发布消息
+     *
+     * @param pipeline pipeline
+     * @param channels 频道
+     * @param messages 消息
+     * @return 发布结果
+     */
+    protected List<Long> publish(Pipeline pipeline, List<String> channels, List<String> messages) {
+        List<Response<Long>> responses = new ArrayList<>(channels.size());
+        for (int i = 0; i < channels.size(); i++) {
+            responses.add(pipeline.publish(channels.get(i), messages.get(i)));
+        }
+        pipeline.sync();
+        List<Long> results = new ArrayList<>(responses.size());
+        for (Response<Long> response : responses) {
+            results.add(response.get());
+        }
+        return results;
     }
 
+    /**
+     * 执行 stream 命令
+     *
+     * @param action 命令
+     * @param <R>    返回类型
+     * @return 执行结果
+     */
+    abstract protected <R> R executeStream(Function<StreamCommands, R> action);
+
+    /**
+     * 执行 lua 脚本
+     *
+     * @param script 脚本
+     * @param keys   键，集群模式下需位于同一 slot
+     * @param args   参数
+     * @return 脚本返回的列表，返回 nil 时为空列表
+     */
+    @Override
+    public List<String> eval(String script, List<String> keys, List<String> args) {
+        return toStringList(evalScript(script, keys, args));
+    }
+
+    /**
+     * 执行 lua 脚本
+     *
+     * @param script 脚本
+     * @param keys   键
+     * @param args   参数
+     * @return 脚本原始返回值
+     */
+    abstract protected Object evalScript(String script, List<String> keys, List<String> args);
+
+    /**
+     * 写入 stream
+     *
+     * @param key    键
+     * @param fields 消息字段
+     * @param maxLen 最大长度，按 MAXLEN ~ 近似裁剪，小于等于 0 时不裁剪
+     * @return 消息id
+     */
+    @Override
+    public String xadd(String key, Map<String, String> fields, long maxLen) {
+        return executeStream(commands -> commands.xadd(key, createXAddParams(maxLen), fields)).toString();
+    }
+
+    /**
+     * 创建消费组，stream 不存在时自动创建，消费组已存在时忽略
+     *
+     * @param key   键
+     * @param group 消费组
+     */
+    @Override
+    public void xgroupCreate(String key, String group) {
+        try {
+            executeStream(commands -> commands.xgroupCreate(key, group, new StreamEntryID(), true));
+        } catch (JedisDataException e) {
+            if (e.getMessage() == null || !e.getMessage().startsWith("BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 以消费组方式读取未投递的消息
+     *
+     * @param key         键
+     * @param group       消费组
+     * @param consumer    消费者
+     * @param count       最大消息数
+     * @param blockMillis 阻塞等待时间，单位毫秒
+     * @return 消息
+     */
+    @Override
+    public List<StreamMessage> xreadgroup(String key, String group, String consumer, int count, long blockMillis) {
+        XReadGroupParams params = XReadGroupParams.xReadGroupParams().count(count);
+        if (blockMillis > 0) {
+            params.block((int) blockMillis);
+        }
+        List<Map.Entry<String, List<StreamEntry>>> result = executeStream(commands -> commands.xreadGroup(group,
+                consumer, params, Collections.singletonMap(key, StreamEntryID.UNRECEIVED_ENTRY)));
+        if (result == null || result.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<StreamMessage> messages = new ArrayList<>();
+        for (Map.Entry<String, List<StreamEntry>> entry : result) {
+            messages.addAll(toStreamMessages(entry.getValue()));
+        }
+        return messages;
+    }
+
+    /**
+     * 确认消息，一次命令确认全部id
+     *
+     * @param key   键
+     * @param group 消费组
+     * @param ids   消息id
+     * @return 确认数量
+     */
+    @Override
+    public long xack(String key, String group, List<String> ids) {
+        StreamEntryID[] entryIds = new StreamEntryID[ids.size()];
+        for (int i = 0; i < entryIds.length; i++) {
+            entryIds[i] = new StreamEntryID(ids.get(i));
+        }
+        return executeStream(commands -> commands.xack(key, group, entryIds));
+    }
+
+    /**
+     * 接管空闲超时的未确认消息
+     *
+     * @param key           键
+     * @param group         消费组
+     * @param consumer      消费者
+     * @param minIdleMillis 最小空闲时间，单位毫秒
+     * @param count         最大消息数
+     * @return 接管的消息
+     */
+    @Override
+    public List<StreamMessage> xautoclaim(String key, String group, String consumer, long minIdleMillis, int count) {
+        Map.Entry<StreamEntryID, List<StreamEntry>> result = executeStream(commands -> commands.xautoclaim(key,
+                group, consumer, minIdleMillis, new StreamEntryID(), XAutoClaimParams.xAutoClaimParams().count(count)));
+        return result == null ? Collections.emptyList() : toStreamMessages(result.getValue());
+    }
+
+    /**
+     * 通过 pipeline 批量写入 stream
+     *
+     * @param pipeline pipeline
+     * @param keys     键
+     * @param fields   消息字段
+     * @param maxLen   最大长度
+     * @return 消息id
+     */
+    protected List<String> xadd(Pipeline pipeline, List<String> keys, List<Map<String, String>> fields, long maxLen) {
+        XAddParams params = createXAddParams(maxLen);
+        List<Response<StreamEntryID>> responses = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            responses.add(pipeline.xadd(keys.get(i), params, fields.get(i)));
+        }
+        pipeline.sync();
+        List<String> ids = new ArrayList<>(responses.size());
+        for (Response<StreamEntryID> response : responses) {
+            ids.add(response.get().toString());
+        }
+        return ids;
+    }
+
+    private List<String> toStringList(Object result) {
+        if (!(result instanceof List)) {
+            return Collections.emptyList();
+        }
+        List<?> values = (List<?>) result;
+        List<String> list = new ArrayList<>(values.size());
+        for (Object value : values) {
+            list.add(value == null ? null : value.toString());
+        }
+        return list;
+    }
+
+    /**
+     * HSCAN 结果转换为 map
+     *
+     * @param entries 结果
+     * @return map
+     */
+    protected Map<String, String> toMap(List<Map.Entry<String, String>> entries) {
+        Map<String, String> map = new LinkedHashMap<>(entries.size() * 2);
+        for (Map.Entry<String, String> entry : entries) {
+            map.put(entry.getKey(), entry.getValue());
+        }
+        return map;
+    }
+
+    private XAddParams createXAddParams(long maxLen) {
+        XAddParams params = XAddParams.xAddParams();
+        if (maxLen > 0) {
+            params.maxLen(maxLen).approximateTrimming();
+        }
+        return params;
+    }
+
+    private List<StreamMessage> toStreamMessages(List<StreamEntry> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<StreamMessage> messages = new ArrayList<>(entries.size());
+        for (StreamEntry entry : entries) {
+            if (entry != null) {
+                messages.add(new StreamMessage(entry.getID().toString(), entry.getFields()));
+            }
+        }
+        return messages;
+    }
 }
@@ -15,11 +15,31 @@
  */
 package io.github.guoshiqiufeng.loki.support.redis.impl.jedis;
 
+import io.github.guoshiqiufeng.loki.support.core.consumer.ConsumerRecord;
+import io.github.guoshiqiufeng.loki.support.core.util.ExecutorUtils;
+import io.github.guoshiqiufeng.loki.support.redis.consumer.JedisShardedSubscriber;
+import lombok.extern.slf4j.Slf4j;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.ConnectionPool;
 import redis.clients.jedis.JedisCluster;
 import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.commands.StreamCommands;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.params.ScanParams;
 import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.resps.ScanResult;
+import redis.clients.jedis.util.JedisClusterCRC16;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * 集群版redis实现
@@ -28,10 +48,25 @@ import java.util.Set;
  * @version 1.0
  * @since 2023/12/25 17:26
  */
+@Slf4j
 public class RedisClusterImpl extends BaseJedisClient {
 
+    private static final long MIN_RESUBSCRIBE_BACKOFF_MILLIS = 100L;
+
+    private static final long MAX_RESUBSCRIBE_BACKOFF_MILLIS = 30000L;
+
     private final JedisCluster jedisCluster;
 
+    /**
+     * 分片订阅频道回调
+     */
+    private final Map<String, List<Function<ConsumerRecord, Void>>> shardedFunctions = new ConcurrentHashMap<>();
+
+    /**
+     * 分片订阅者，节点id -> 订阅者
+     */
+    private final Map<String, JedisShardedSubscriber> shardedSubscribers = new ConcurrentHashMap<>();
+
     public RedisClusterImpl(JedisCluster jedisCluster) {
         this.jedisCluster = jedisCluster;
     }
@@ -46,9 +81,135 @@ public class RedisClusterImpl extends BaseJedisClient {
      */
     @Override
     public long publish(String channel, String message) {
+        if (isShardedPubSub()) {
+            return jedisCluster.spublish(channel, message);
+        }
         return jedisCluster.publish(channel, message);
     }
 
+    /**
+     * 批量发布消息，集群中 publish 会广播到所有节点，任选一个节点通过 pipeline 发布
+     *
+     * @param channels 频道
+     * @param messages 消息
+     * @return 发布结果
+     */
+    @Override
+    public List<Long> publish(List<String> channels, List<String> messages) {
+        if (isShardedPubSub()) {
+            // 分片发布需路由到各频道所在节点，逐条发布
+            return super.publish(channels, messages);
+        }
+        Iterator<ConnectionPool> iterator = jedisCluster.getClusterNodes().values().iterator();
+        if (!iterator.hasNext()) {
+            return super.publish(channels, messages);
+        }
+        try (Connection connection = iterator.next().getResource()) {
+            return publish(new Pipeline(connection), channels, messages);
+        }
+    }
+
+    /**
+     * 执行 lua 脚本
+     *
+     * @param script 脚本
+     * @param keys   键，需位于同一 slot
+     * @param args   参数
+     * @return 脚本原始返回值
+     */
+    @Override
+    protected Object evalScript(String script, List<String> keys, List<String> args) {
+        return jedisCluster.eval(script, keys, args);
+    }
+
+    /**
+     * 执行 stream 命令
+     *
+     * @param action 命令
+     * @param <R>    返回类型
+     * @return 执行结果
+     */
+    @Override
+    protected <R> R executeStream(Function<StreamCommands, R> action) {
+        return action.apply(jedisCluster);
+    }
+
+    /**
+     * 订阅消息，开启分片发布订阅时按频道所在节点通过 SSUBSCRIBE 订阅，每个节点共用一个订阅连接，调用后立即返回
+     *
+     * @param function 回调
+     * @param channels 频道
+     */
+    @Override
+    public void subscribe(Function<ConsumerRecord, Void> function, String... channels) {
+        if (!isShardedPubSub()) {
+            super.subscribe(function, channels);
+            return;
+        }
+        for (String channel : channels) {
+            shardedFunctions.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(function);
+            route(channel, MIN_RESUBSCRIBE_BACKOFF_MILLIS);
+        }
+    }
+
+    /**
+     * 将频道交给所在节点的订阅者，节点获取失败时按指数退避重试
+     *
+     * @param channel 频道
+     * @param backoff 重试等待时间，单位毫秒
+     */
+    private void route(String channel, long backoff) {
+        try {
+            String nodeId = getNodeId(JedisClusterCRC16.getSlot(channel));
+            shardedSubscribers.computeIfAbsent(nodeId, id -> {
+                JedisShardedSubscriber subscriber = new JedisShardedSubscriber("redis-sharded-subscriber-" + id,
+                        jedisCluster::getConnectionFromSlot, shardedFunctions, this::reroute);
+                ExecutorUtils.runLoop("redis-sharded-subscriber-" + id, subscriber);
+                return subscriber;
+            }).subscribe(channel);
+        } catch (JedisException e) {
+            if (log.isWarnEnabled()) {
+                log.warn("RedisClusterImpl# {} route error:{}, retry after {}ms", channel, e.getMessage(), backoff);
+            }
+            long next = Math.min(backoff * 2, MAX_RESUBSCRIBE_BACKOFF_MILLIS);
+            ExecutorUtils.getScheduler().schedule(() -> route(channel, next), backoff, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * slot 迁移或连接异常后重新路由频道，不阻塞订阅线程
+     *
+     * @param channel 频道
+     */
+    private void reroute(String channel) {
+        ExecutorUtils.getScheduler().schedule(() -> {
+            try {
+                // 通过普通命令触发 MOVED 刷新 slot 缓存，频道与同名 key 位于同一 slot
+                jedisCluster.exists(channel);
+            } catch (JedisException ignored) {
+                // 由 route 重试
+            }
+            route(channel, MIN_RESUBSCRIBE_BACKOFF_MILLIS);
+        }, MIN_RESUBSCRIBE_BACKOFF_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 获取 slot 所在节点id
+     *
+     * @param slot slot
+     * @return 节点id
+     */
+    private String getNodeId(int slot) {
+        try (Connection connection = jedisCluster.getConnectionFromSlot(slot)) {
+            connection.sendCommand(Protocol.Command.CLUSTER, "MYID");
+            return connection.getBulkReply();
+        }
+    }
+
+    private boolean isShardedPubSub() {
+        return getRedisConfig() != null && getRedisConfig().isShardedPubSub();
+    }
+
     /**
      * 订阅消息
      *
@@ -143,4 +304,24 @@ public class RedisClusterImpl extends BaseJedisClient {
     public Set<String> hkeys(String key) {
         return jedisCluster.hkeys(key);
     }
+
+    /**
+     * 通过 HSCAN 增量遍历 hash，每批交给处理函数，避免一次加载全部数据
+     *
+     * @param key      建
+     * @param count    每批数量
+     * @param function 批处理函数
+     */
+    @Override
+    public void hscan(String key, int count, Function<Map<String, String>, Void> function) {
+        ScanParams params = new ScanParams().count(count);
+        String cursor = ScanParams.SCAN_POINTER_START;
+        do {
+            ScanResult<Map.Entry<String, String>> result = jedisCluster.hscan(key, cursor, params);
+            cursor = result.getCursor();
+            if (!result.getResult().isEmpty()) {
+                function.apply(toMap(result.getResult()));
+            }
+        } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+    }
 }
@@ -18,9 +18,15 @@ package io.github.guoshiqiufeng.loki.support.redis.impl.jedis;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPubSub;
 import redis.clients.jedis.JedisSentinelPool;
+import redis.clients.jedis.commands.StreamCommands;
+import redis.clients.jedis.params.ScanParams;
 import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.resps.ScanResult;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * 哨兵redis实现
@@ -51,6 +57,64 @@ public class RedisSentinelImpl extends BaseJedisClient {
         }
     }
 
+    /**
+     * 批量发布消息
+     *
+     * @param channels 频道
+     * @param messages 消息
+     * @return 发布结果
+     */
+    @Override
+    public List<Long> publish(List<String> channels, List<String> messages) {
+        try (Jedis jedis = jedisSentinelPool.getResource()) {
+            return publish(jedis.pipelined(), channels, messages);
+        }
+    }
+
+    /**
+     * 批量写入 stream
+     *
+     * @param keys   键
+     * @param fields 消息字段
+     * @param maxLen 最大长度
+     * @return 消息id
+     */
+    @Override
+    public List<String> xadd(List<String> keys, List<Map<String, String>> fields, long maxLen) {
+        try (Jedis jedis = jedisSentinelPool.getResource()) {
+            return xadd(jedis.pipelined(), keys, fields, maxLen);
+        }
+    }
+
+    /**
+     * 执行 lua 脚本
+     *
+     * @param script 脚本
+     * @param keys   键
+     * @param args   参数
+     * @return 脚本原始返回值
+     */
+    @Override
+    protected Object evalScript(String script, List<String> keys, List<String> args) {
+        try (Jedis jedis = jedisSentinelPool.getResource()) {
+            return jedis.eval(script, keys, args);
+        }
+    }
+
+    /**
+     * 执行 stream 命令
+     *
+     * @param action 命令
+     * @param <R>    返回类型
+     * @return 执行结果
+     */
+    @Override
+    protected <R> R executeStream(Function<StreamCommands, R> action) {
+        try (Jedis jedis = jedisSentinelPool.getResource()) {
+            return action.apply(jedis);
+        }
+    }
+
     /**
      * 订阅消息
      *
@@ -161,4 +225,27 @@ public class RedisSentinelImpl extends BaseJedisClient {
             return jedis.hkeys(key);
         }
     }
+
+    /**
+     * 通过 HSCAN 增量遍历 hash，每批交给处理函数，避免一次加载全部数据
+     *
+     * @param key      建
+     * @param count    每批数量
+     * @param function 批处理函数
+     */
+    @Override
+    public void hscan(String key, int count, Function<Map<String, String>, Void> function) {
+        ScanParams params = new ScanParams().count(count);
+        String cursor = ScanParams.SCAN_POINTER_START;
+        do {
+            ScanResult<Map.Entry<String, String>> result;
+            try (Jedis jedis = jedisSentinelPool.getResource()) {
+                result = jedis.hscan(key, cursor, params);
+            }
+            cursor = result.getCursor();
+            if (!result.getResult().isEmpty()) {
+                function.apply(toMap(result.getResult()));
+            }
+        } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+    }
 }
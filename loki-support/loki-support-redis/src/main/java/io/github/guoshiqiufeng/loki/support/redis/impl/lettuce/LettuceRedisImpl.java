@@ -0,0 +1,535 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.redis.impl.lettuce;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import io.github.guoshiqiufeng.loki.enums.RejectionPolicyType;
+import io.github.guoshiqiufeng.loki.support.core.consumer.ConsumerRecord;
+import io.github.guoshiqiufeng.loki.support.redis.consumer.StreamMessage;
+import io.github.guoshiqiufeng.loki.support.redis.impl.BaseRedisClient;
+import io.github.guoshiqiufeng.loki.support.redis.utils.RedisConsumeUtils;
+import io.lettuce.core.Consumer;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.MapScanCursor;
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.XAddArgs;
+import io.lettuce.core.XAutoClaimArgs;
+import io.lettuce.core.XGroupCreateArgs;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.models.stream.ClaimedMessages;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * lettuce 实现：单机、哨兵与集群
+ * <p>
+ * 所有命令通过一个共享连接异步发送，并发命令无需等待前一个响应即写入连接（自动 pipeline）；
+ * 订阅在 netty 事件循环中回调，不占用独立线程，断线重连后由 lettuce 自动重新订阅；
+ * 事件循环与命令连接共用，监听分发器不使用 block、caller-runs 策略，队列已满时丢弃消息；
+ * 阻塞读取 stream 会独占连接，因此每个读取线程使用独立连接，在 close 时统一关闭
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 22:20
+ */
+@Slf4j
+public class LettuceRedisImpl extends BaseRedisClient {
+
+    /**
+     * 连接工厂
+     */
+    private final Supplier<StatefulConnection<String, String>> connectionFactory;
+
+    /**
+     * 共享连接
+     */
+    private final StatefulConnection<String, String> connection;
+
+    /**
+     * 共享连接上的异步命令
+     */
+    private final RedisClusterAsyncCommands<String, String> commands;
+
+    /**
+     * 订阅连接
+     */
+    private final StatefulRedisPubSubConnection<String, String> pubSubConnection;
+
+    /**
+     * stream 阻塞读取连接，每个读取线程一个
+     */
+    private final ThreadLocal<RedisClusterAsyncCommands<String, String>> blockingCommands;
+
+    /**
+     * 已创建的阻塞读取连接，关闭时释放
+     */
+    private final Queue<StatefulConnection<String, String>> blockingConnections = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 命令超时时间
+     */
+    private final Duration timeout;
+
+    /**
+     * 脚本 sha1 缓存
+     */
+    private final Map<String, String> scriptDigests = new ConcurrentHashMap<>();
+
+    private final Map<String, List<Function<ConsumerRecord, Void>>> channels = new ConcurrentHashMap<>();
+
+    private final Map<String, List<Function<ConsumerRecord, Void>>> patterns = new ConcurrentHashMap<>();
+
+    /**
+     * 构造函数
+     *
+     * @param connectionFactory 连接工厂，返回 StatefulRedisConnection 或 StatefulRedisClusterConnection
+     * @param pubSubConnection  订阅连接
+     */
+    public LettuceRedisImpl(Supplier<StatefulConnection<String, String>> connectionFactory,
+                            StatefulRedisPubSubConnection<String, String> pubSubConnection) {
+        this.connectionFactory = connectionFactory;
+        this.connection = connectionFactory.get();
+        this.commands = async(connection);
+        this.timeout = connection.getTimeout();
+        this.blockingCommands = ThreadLocal.withInitial(() -> {
+            StatefulConnection<String, String> blockingConnection = this.connectionFactory.get();
+            blockingConnections.add(blockingConnection);
+            return async(blockingConnection);
+        });
+        this.pubSubConnection = pubSubConnection;
+        this.pubSubConnection.addListener(new RedisPubSubAdapter<String, String>() {
+            @Override
+            public void message(String channel, String message) {
+                if (log.isDebugEnabled()) {
+                    log.debug("{} onMessage : {}", channel, message);
+                }
+                RedisConsumeUtils.dispatch("LettuceRedisImpl", channels.get(channel), channel, message);
+            }
+
+            @Override
+            public void message(String pattern, String channel, String message) {
+                if (log.isDebugEnabled()) {
+                    log.debug("pattern: {}  channel: {} onPMessage : {}", pattern, channel, message);
+                }
+                RedisConsumeUtils.dispatch("LettuceRedisImpl", patterns.get(pattern), channel, message);
+            }
+        });
+    }
+
+    /**
+     * 发布消息
+     *
+     * @param channel 频道
+     * @param message 消息
+     * @return 发布结果
+     */
+    @Override
+    public long publish(String channel, String message) {
+        return await(commands.publish(channel, message));
+    }
+
+    /**
+     * 批量发布消息，先写入全部命令再等待结果
+     *
+     * @param channels 频道
+     * @param messages 消息
+     * @return 发布结果
+     */
+    @Override
+    public List<Long> publish(List<String> channels, List<String> messages) {
+        List<RedisFuture<Long>> futures = new ArrayList<>(channels.size());
+        for (int i = 0; i < channels.size(); i++) {
+            futures.add(commands.publish(channels.get(i), messages.get(i)));
+        }
+        return awaitAll(futures);
+    }
+
+    /**
+     * 异步发布消息，不占用发送线程
+     *
+     * @param channel 频道
+     * @param message 消息
+     * @return 发布结果
+     */
+    @Override
+    public CompletableFuture<Long> publishAsync(String channel, String message) {
+        return commands.publish(channel, message).toCompletableFuture();
+    }
+
+    /**
+     * 写入 stream
+     *
+     * @param key    键
+     * @param fields 消息字段
+     * @param maxLen 最大长度，按 MAXLEN ~ 近似裁剪，小于等于 0 时不裁剪
+     * @return 消息id
+     */
+    @Override
+    public String xadd(String key, Map<String, String> fields, long maxLen) {
+        return await(commands.xadd(key, createXAddArgs(maxLen), fields));
+    }
+
+    /**
+     * 批量写入 stream，先写入全部命令再等待结果
+     *
+     * @param keys   键
+     * @param fields 消息字段
+     * @param maxLen 最大长度
+     * @return 消息id
+     */
+    @Override
+    public List<String> xadd(List<String> keys, List<Map<String, String>> fields, long maxLen) {
+        XAddArgs args = createXAddArgs(maxLen);
+        List<RedisFuture<String>> futures = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            futures.add(commands.xadd(keys.get(i), args, fields.get(i)));
+        }
+        return awaitAll(futures);
+    }
+
+    /**
+     * 创建消费组，stream 不存在时自动创建，消费组已存在时忽略
+     *
+     * @param key   键
+     * @param group 消费组
+     */
+    @Override
+    public void xgroupCreate(String key, String group) {
+        try {
+            await(commands.xgroupCreate(XReadArgs.StreamOffset.from(key, "0"), group,
+                    XGroupCreateArgs.Builder.mkstream()));
+        } catch (RedisCommandExecutionException e) {
+            if (e.getMessage() == null || !e.getMessage().startsWith("BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 以消费组方式读取未投递的消息，在当前线程独立的连接上阻塞等待
+     *
+     * @param key         键
+     * @param group       消费组
+     * @param consumer    消费者
+     * @param count       最大消息数
+     * @param blockMillis 阻塞等待时间，单位毫秒
+     * @return 消息
+     */
+    @Override
+    public List<StreamMessage> xreadgroup(String key, String group, String consumer, int count, long blockMillis) {
+        XReadArgs args = XReadArgs.Builder.count(count);
+        RedisClusterAsyncCommands<String, String> readCommands = commands;
+        if (blockMillis > 0) {
+            args.block(blockMillis);
+            readCommands = blockingCommands.get();
+        }
+        RedisFuture<List<io.lettuce.core.StreamMessage<String, String>>> future = readCommands.xreadgroup(
+                Consumer.from(group, consumer), args, XReadArgs.StreamOffset.lastConsumed(key));
+        return toStreamMessages(await(future, Math.max(blockMillis, 0)));
+    }
+
+    /**
+     * 确认消息，一次命令确认全部id
+     *
+     * @param key   键
+     * @param group 消费组
+     * @param ids   消息id
+     * @return 确认数量
+     */
+    @Override
+    public long xack(String key, String group, List<String> ids) {
+        return await(commands.xack(key, group, ids.toArray(new String[0])));
+    }
+
+    /**
+     * 接管空闲超时的未确认消息
+     *
+     * @param key           键
+     * @param group         消费组
+     * @param consumer      消费者
+     * @param minIdleMillis 最小空闲时间，单位毫秒
+     * @param count         最大消息数
+     * @return 接管的消息
+     */
+    @Override
+    public List<StreamMessage> xautoclaim(String key, String group, String consumer, long minIdleMillis, int count) {
+        ClaimedMessages<String, String> result = await(commands.xautoclaim(key, XAutoClaimArgs.Builder
+                .xautoclaim(Consumer.from(group, consumer), Duration.ofMillis(minIdleMillis), "0-0").count(count)));
+        return result == null ? Collections.emptyList() : toStreamMessages(result.getMessages());
+    }
+
+    /**
+     * 执行 lua 脚本，优先使用 EVALSHA，脚本未加载时使用 EVAL
+     *
+     * @param script 脚本
+     * @param keys   键，集群模式下需位于同一 slot
+     * @param args   参数
+     * @return 脚本返回的列表，返回 nil 时为空列表
+     */
+    @Override
+    public List<String> eval(String script, List<String> keys, List<String> args) {
+        String digest = scriptDigests.computeIfAbsent(script, DigestUtil::sha1Hex);
+        String[] keyArray = keys.toArray(new String[0]);
+        String[] argArray = args.toArray(new String[0]);
+        Object result;
+        try {
+            result = await(commands.evalsha(digest, ScriptOutputType.MULTI, keyArray, argArray));
+        } catch (RedisNoScriptException e) {
+            result = await(commands.eval(script, ScriptOutputType.MULTI, keyArray, argArray));
+        }
+        if (!(result instanceof List)) {
+            return Collections.emptyList();
+        }
+        List<?> values = (List<?>) result;
+        List<String> list = new ArrayList<>(values.size());
+        for (Object value : values) {
+            list.add(value == null ? null : value.toString());
+        }
+        return list;
+    }
+
+    /**
+     * 订阅消息，在共享订阅连接上订阅，调用后立即返回
+     *
+     * @param function 回调
+     * @param channels 频道
+     */
+    @Override
+    public void subscribe(Function<ConsumerRecord, Void> function, String... channels) {
+        for (String channel : channels) {
+            this.channels.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(function);
+        }
+        await(pubSubConnection.async().subscribe(channels));
+    }
+
+    /**
+     * 订阅消息，在共享订阅连接上订阅，调用后立即返回
+     *
+     * @param function 回调
+     * @param patterns 规则
+     */
+    @Override
+    public void psubscribe(Function<ConsumerRecord, Void> function, String... patterns) {
+        for (String pattern : patterns) {
+            this.patterns.computeIfAbsent(pattern, p -> new CopyOnWriteArrayList<>()).add(function);
+        }
+        await(pubSubConnection.async().psubscribe(patterns));
+    }
+
+    /**
+     * 判断key是否存在
+     *
+     * @param key 建
+     * @return
+     */
+    @Override
+    public boolean exists(String key) {
+        Long count = await(commands.exists(key));
+        return count != null && count > 0;
+    }
+
+    /**
+     * set
+     *
+     * @param key          建
+     * @param value        值
+     * @param expireAtTime 过期时间戳
+     */
+    @Override
+    public void set(String key, String value, Long expireAtTime) {
+        if (expireAtTime != null) {
+            await(commands.set(key, value, SetArgs.Builder.pxAt(expireAtTime)));
+        } else {
+            await(commands.set(key, value));
+        }
+    }
+
+    /**
+     * hset
+     *
+     * @param key   建
+     * @param field 字段
+     * @param value 值
+     */
+    @Override
+    public void hset(String key, String field, String value) {
+        await(commands.hset(key, field, value));
+    }
+
+    /**
+     * hget
+     *
+     * @param key   建
+     * @param field 字段
+     * @return
+     */
+    @Override
+    public String hget(String key, String field) {
+        return await(commands.hget(key, field));
+    }
+
+    /**
+     * 删除
+     *
+     * @param key   建
+     * @param field 字段
+     */
+    @Override
+    public void hdel(String key, String... field) {
+        await(commands.hdel(key, field));
+    }
+
+    /**
+     * hkeys
+     *
+     * @param key 建
+     * @return
+     */
+    @Override
+    public Set<String> hkeys(String key) {
+        List<String> keys = await(commands.hkeys(key));
+        return keys == null ? Collections.emptySet() : new LinkedHashSet<>(keys);
+    }
+
+    /**
+     * 通过 HSCAN 增量遍历 hash，每批交给处理函数，避免一次加载全部数据
+     *
+     * @param key      建
+     * @param count    每批数量
+     * @param function 批处理函数
+     */
+    @Override
+    public void hscan(String key, int count, Function<Map<String, String>, Void> function) {
+        ScanArgs args = ScanArgs.Builder.limit(count);
+        ScanCursor cursor = ScanCursor.INITIAL;
+        do {
+            MapScanCursor<String, String> result = await(commands.hscan(key, cursor, args));
+            cursor = result;
+            if (!result.getMap().isEmpty()) {
+                function.apply(result.getMap());
+            }
+        } while (!cursor.isFinished());
+    }
+
+    /**
+     * 订阅回调运行在 netty 事件循环中，不能阻塞，也不能在回调中处理消息
+     *
+     * @return 处理策略，block、caller-runs 时使用 abort
+     */
+    @Override
+    protected RejectionPolicyType getListenerOverflowPolicy() {
+        RejectionPolicyType policy = super.getListenerOverflowPolicy();
+        if (policy == RejectionPolicyType.BLOCK || policy == RejectionPolicyType.CALLER_RUNS) {
+            if (log.isWarnEnabled()) {
+                log.warn("LettuceRedisImpl# listener overflow policy {} would block netty event loop, use abort",
+                        policy);
+            }
+            return RejectionPolicyType.ABORT;
+        }
+        return policy;
+    }
+
+    /**
+     * 关闭订阅连接、阻塞读取连接与共享连接
+     */
+    public void close() {
+        pubSubConnection.close();
+        StatefulConnection<String, String> blockingConnection;
+        while ((blockingConnection = blockingConnections.poll()) != null) {
+            blockingConnection.close();
+        }
+        connection.close();
+    }
+
+    private <T> T await(RedisFuture<T> future) {
+        return await(future, 0);
+    }
+
+    /**
+     * 等待命令结果，超时后取消命令
+     *
+     * @param future      命令
+     * @param extraMillis 超时时间之外的额外等待时间，用于阻塞命令
+     * @param <T>         返回类型
+     * @return 命令结果
+     */
+    private <T> T await(RedisFuture<T> future, long extraMillis) {
+        return LettuceFutures.awaitOrCancel(future, timeout.toMillis() + extraMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private <T> List<T> awaitAll(List<RedisFuture<T>> futures) {
+        List<T> results = new ArrayList<>(futures.size());
+        for (RedisFuture<T> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    private XAddArgs createXAddArgs(long maxLen) {
+        XAddArgs args = new XAddArgs();
+        if (maxLen > 0) {
+            args.maxlen(maxLen).approximateTrimming();
+        }
+        return args;
+    }
+
+    private List<StreamMessage> toStreamMessages(List<io.lettuce.core.StreamMessage<String, String>> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<StreamMessage> messages = new ArrayList<>(entries.size());
+        for (io.lettuce.core.StreamMessage<String, String> entry : entries) {
+            if (entry != null) {
+                messages.add(new StreamMessage(entry.getId(), entry.getBody()));
+            }
+        }
+        return messages;
+    }
+
+    private static RedisClusterAsyncCommands<String, String> async(StatefulConnection<String, String> connection) {
+        if (connection instanceof StatefulRedisClusterConnection) {
+            return ((StatefulRedisClusterConnection<String, String>) connection).async();
+        }
+        return ((StatefulRedisConnection<String, String>) connection).async();
+    }
+}
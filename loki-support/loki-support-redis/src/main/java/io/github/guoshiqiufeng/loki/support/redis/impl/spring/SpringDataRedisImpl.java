@@ -17,15 +17,42 @@ package io.github.guoshiqiufeng.loki.support.redis.impl.spring;
 
 import io.github.guoshiqiufeng.loki.support.core.consumer.ConsumerRecord;
 import io.github.guoshiqiufeng.loki.support.redis.consumer.SpringDataRedisMessageListener;
+import io.github.guoshiqiufeng.loki.support.redis.consumer.StreamMessage;
 import io.github.guoshiqiufeng.loki.support.redis.impl.BaseRedisClient;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.PatternTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.listener.adapter.MessageListenerAdapter;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -40,6 +67,12 @@ public class SpringDataRedisImpl extends BaseRedisClient {
     private final StringRedisTemplate stringRedisTemplate;
     private final RedisMessageListenerContainer container;
 
+    /**
+     * 脚本缓存，避免每次执行重复计算 sha1
+     */
+    @SuppressWarnings("rawtypes")
+    private final Map<String, RedisScript<List>> scriptCache = new ConcurrentHashMap<>();
+
     public SpringDataRedisImpl(StringRedisTemplate stringRedisTemplate, RedisMessageListenerContainer redisMessageListenerContainer) {
         this.stringRedisTemplate = stringRedisTemplate;
         this.container = redisMessageListenerContainer;
@@ -67,6 +100,215 @@ public class SpringDataRedisImpl extends BaseRedisClient {
     }
 
 
+    /**
+     * 批量发布消息
+     *
+     * @param channels 频道
+     * @param messages 消息
+     * @return 发布结果
+     */
+    @Override
+    public List<Long> publish(List<String> channels, List<String> messages) {
+        RedisSerializer<String> serializer = stringRedisTemplate.getStringSerializer();
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < channels.size(); i++) {
+                byte[] rawChannel = serializer.serialize(channels.get(i));
+                byte[] rawMessage = serializer.serialize(messages.get(i));
+                if (rawChannel != null && rawMessage != null) {
+                    connection.publish(rawChannel, rawMessage);
+                }
+            }
+            return null;
+        });
+        return results.stream().map(result -> result instanceof Long ? (Long) result : 0L)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 执行 lua 脚本
+     *
+     * @param script 脚本
+     * @param keys   键，集群模式下需位于同一 slot
+     * @param args   参数
+     * @return 脚本返回的列表，返回 nil 时为空列表
+     */
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public List<String> eval(String script, List<String> keys, List<String> args) {
+        RedisScript<List> redisScript = scriptCache.get(script);
+        if (redisScript == null) {
+            redisScript = scriptCache.computeIfAbsent(script, s -> new DefaultRedisScript<>(s, List.class));
+        }
+        List<Object> result = stringRedisTemplate.execute(redisScript, keys, args.toArray());
+        if (result == null) {
+            return Collections.emptyList();
+        }
+        return result.stream().map(value -> value == null ? null : value.toString()).collect(Collectors.toList());
+    }
+
+    /**
+     * 写入 stream
+     *
+     * @param key    键
+     * @param fields 消息字段
+     * @param maxLen 最大长度，按 MAXLEN ~ 近似裁剪，小于等于 0 时不裁剪
+     * @return 消息id
+     */
+    @Override
+    public String xadd(String key, Map<String, String> fields, long maxLen) {
+        RecordId recordId = stringRedisTemplate.execute((RedisCallback<RecordId>) connection ->
+                xadd(connection, key, fields, maxLen));
+        return recordId == null ? null : recordId.getValue();
+    }
+
+    /**
+     * 批量写入 stream
+     *
+     * @param keys   键
+     * @param fields 消息字段
+     * @param maxLen 最大长度
+     * @return 消息id
+     */
+    @Override
+    public List<String> xadd(List<String> keys, List<Map<String, String>> fields, long maxLen) {
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < keys.size(); i++) {
+                xadd(connection, keys.get(i), fields.get(i), maxLen);
+            }
+            return null;
+        });
+        return results.stream().map(result -> result instanceof RecordId ? ((RecordId) result).getValue() : null)
+                .collect(Collectors.toList());
+    }
+
+    private RecordId xadd(RedisConnection connection, String key, Map<String, String> fields, long maxLen) {
+        RedisSerializer<String> serializer = stringRedisTemplate.getStringSerializer();
+        Map<byte[], byte[]> rawFields = new LinkedHashMap<>(fields.size());
+        fields.forEach((field, value) -> rawFields.put(serializer.serialize(field), serializer.serialize(value)));
+        RedisStreamCommands.XAddOptions options = maxLen > 0
+                ? RedisStreamCommands.XAddOptions.maxlen(maxLen).approximateTrimming(true)
+                : RedisStreamCommands.XAddOptions.none();
+        return connection.xAdd(MapRecord.create(serializer.serialize(key), rawFields), options);
+    }
+
+    /**
+     * 创建消费组，stream 不存在时自动创建，消费组已存在时忽略
+     *
+     * @param key   键
+     * @param group 消费组
+     */
+    @Override
+    public void xgroupCreate(String key, String group) {
+        byte[] rawKey = stringRedisTemplate.getStringSerializer().serialize(key);
+        try {
+            stringRedisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.xGroupCreate(rawKey, group, ReadOffset.from("0-0"), true));
+        } catch (Exception e) {
+            if (!isBusyGroup(e)) {
+                throw e;
+            }
+        }
+    }
+
+    private boolean isBusyGroup(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("BUSYGROUP")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 以消费组方式读取未投递的消息
+     *
+     * @param key         键
+     * @param group       消费组
+     * @param consumer    消费者
+     * @param count       最大消息数
+     * @param blockMillis 阻塞等待时间，单位毫秒
+     * @return 消息
+     */
+    @Override
+    public List<StreamMessage> xreadgroup(String key, String group, String consumer, int count, long blockMillis) {
+        StreamReadOptions options = StreamReadOptions.empty().count(count);
+        if (blockMillis > 0) {
+            options = options.block(Duration.ofMillis(blockMillis));
+        }
+        List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream()
+                .read(Consumer.from(group, consumer), options, StreamOffset.create(key, ReadOffset.lastConsumed()));
+        if (records == null || records.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<StreamMessage> messages = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            record.getValue().forEach((field, value) -> fields.put(String.valueOf(field),
+                    value == null ? null : String.valueOf(value)));
+            messages.add(new StreamMessage(record.getId().getValue(), fields));
+        }
+        return messages;
+    }
+
+    /**
+     * 确认消息，一次命令确认全部id
+     *
+     * @param key   键
+     * @param group 消费组
+     * @param ids   消息id
+     * @return 确认数量
+     */
+    @Override
+    public long xack(String key, String group, List<String> ids) {
+        Long acknowledged = stringRedisTemplate.opsForStream().acknowledge(key, group, ids.toArray(new String[0]));
+        return acknowledged == null ? 0L : acknowledged;
+    }
+
+    /**
+     * 接管空闲超时的未确认消息<br>
+     * spring data redis 未提供 XAUTOCLAIM，通过 XPENDING 查询空闲超时的消息后 XCLAIM 接管
+     *
+     * @param key           键
+     * @param group         消费组
+     * @param consumer      消费者
+     * @param minIdleMillis 最小空闲时间，单位毫秒
+     * @param count         最大消息数
+     * @return 接管的消息
+     */
+    @Override
+    public List<StreamMessage> xautoclaim(String key, String group, String consumer, long minIdleMillis, int count) {
+        PendingMessages pendingMessages = stringRedisTemplate.opsForStream().pending(key, group, Range.unbounded(), count);
+        if (pendingMessages == null || pendingMessages.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Duration minIdle = Duration.ofMillis(minIdleMillis);
+        List<String> ids = new ArrayList<>();
+        for (PendingMessage pendingMessage : pendingMessages) {
+            if (pendingMessage.getElapsedTimeSinceLastDelivery().compareTo(minIdle) >= 0) {
+                ids.add(pendingMessage.getIdAsString());
+            }
+        }
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        RedisSerializer<String> serializer = stringRedisTemplate.getStringSerializer();
+        byte[] rawKey = serializer.serialize(key);
+        List<ByteRecord> records = stringRedisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                connection.xClaim(rawKey, group, consumer, RedisStreamCommands.XClaimOptions.minIdle(minIdle)
+                        .ids(ids.toArray(new String[0]))));
+        if (records == null || records.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<StreamMessage> messages = new ArrayList<>(records.size());
+        for (ByteRecord record : records) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            record.getValue().forEach((field, value) -> fields.put(serializer.deserialize(field),
+                    serializer.deserialize(value)));
+            messages.add(new StreamMessage(record.getId().getValue(), fields));
+        }
+        return messages;
+    }
+
     /**
      * 订阅消息
      *
@@ -166,4 +408,31 @@ public class SpringDataRedisImpl extends BaseRedisClient {
     public Set<String> hkeys(String key) {
         return stringRedisTemplate.opsForHash().keys(key).stream().map(Object::toString).collect(Collectors.toSet());
     }
+
+    /**
+     * 通过 HSCAN 增量遍历 hash，每批交给处理函数，避免一次加载全部数据
+     *
+     * @param key      建
+     * @param count    每批数量
+     * @param function 批处理函数
+     */
+    @Override
+    public void hscan(String key, int count, Function<Map<String, String>, Void> function) {
+        HashOperations<String, String, String> hashOperations = stringRedisTemplate.opsForHash();
+        Map<String, String> batch = new LinkedHashMap<>(count * 2);
+        try (Cursor<Map.Entry<String, String>> cursor = hashOperations.scan(key,
+                ScanOptions.scanOptions().count(count).build())) {
+            while (cursor.hasNext()) {
+                Map.Entry<String, String> entry = cursor.next();
+                batch.put(entry.getKey(), entry.getValue());
+                if (batch.size() >= count) {
+                    function.apply(batch);
+                    batch = new LinkedHashMap<>(count * 2);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            function.apply(batch);
+        }
+    }
 }
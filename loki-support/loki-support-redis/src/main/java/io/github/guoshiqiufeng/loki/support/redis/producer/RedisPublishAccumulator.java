@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.redis.producer;
+
+import io.github.guoshiqiufeng.loki.support.core.util.ExecutorUtils;
+import io.github.guoshiqiufeng.loki.support.redis.impl.BaseRedisClient;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * redis 发布消息累加器
+ * <p>
+ * 将并发的发布请求合并后通过 pipeline 一次发布，达到最大数量、最大字节数或等待时间后发送，
+ * 每条消息的 future 在 pipeline 返回结果后完成
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 21:50
+ */
+@Slf4j
+public class RedisPublishAccumulator {
+
+    private final BaseRedisClient redisClient;
+
+    private final int maxCount;
+
+    private final long maxBytes;
+
+    private final long lingerMillis;
+
+    private final Object lock = new Object();
+
+    private List<PendingMessage> buffer;
+
+    private long bufferBytes;
+
+    private ScheduledFuture<?> lingerTask;
+
+    /**
+     * 构造函数
+     *
+     * @param redisClient  redis 客户端
+     * @param maxCount     每批最大消息数
+     * @param maxBytes     每批最大字节数（按字符数估算）
+     * @param lingerMillis 未达到批次大小时的最大等待时间，单位毫秒
+     */
+    public RedisPublishAccumulator(BaseRedisClient redisClient, int maxCount, long maxBytes, long lingerMillis) {
+        this.redisClient = redisClient;
+        this.maxCount = Math.max(maxCount, 1);
+        this.maxBytes = maxBytes <= 0 ? Long.MAX_VALUE : maxBytes;
+        this.lingerMillis = Math.max(lingerMillis, 0);
+        this.buffer = new ArrayList<>(this.maxCount);
+    }
+
+    /**
+     * 添加待发布消息
+     *
+     * @param channel 频道
+     * @param message 消息
+     * @return 发布结果
+     */
+    public CompletableFuture<Long> append(String channel, String message) {
+        PendingMessage pendingMessage = new PendingMessage(channel, message);
+        List<PendingMessage> ready = null;
+        synchronized (lock) {
+            buffer.add(pendingMessage);
+            bufferBytes += channel.length() + (message == null ? 0 : message.length());
+            if (buffer.size() >= maxCount || bufferBytes >= maxBytes || lingerMillis == 0) {
+                ready = drain();
+            } else if (lingerTask == null) {
+                lingerTask = ExecutorUtils.getScheduler().schedule(this::lingerExpired, lingerMillis,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+        if (ready != null) {
+            // 凑满批次的线程直接发送
+            flush(ready);
+        }
+        return pendingMessage.future;
+    }
+
+    private void lingerExpired() {
+        List<PendingMessage> ready;
+        synchronized (lock) {
+            lingerTask = null;
+            ready = drain();
+        }
+        if (!ready.isEmpty()) {
+            // 调度线程只负责触发，发送交给发送线程池
+            ExecutorUtils.getSendExecutor().execute(() -> flush(ready));
+        }
+    }
+
+    /**
+     * 取出当前批次，需持有锁
+     *
+     * @return 当前批次
+     */
+    private List<PendingMessage> drain() {
+        List<PendingMessage> ready = buffer;
+        buffer = new ArrayList<>(maxCount);
+        bufferBytes = 0;
+        if (lingerTask != null) {
+            lingerTask.cancel(false);
+            lingerTask = null;
+        }
+        return ready;
+    }
+
+    private void flush(List<PendingMessage> ready) {
+        if (ready.isEmpty()) {
+            return;
+        }
+        List<String> channels = new ArrayList<>(ready.size());
+        List<String> messages = new ArrayList<>(ready.size());
+        for (PendingMessage pendingMessage : ready) {
+            channels.add(pendingMessage.channel);
+            messages.add(pendingMessage.message);
+        }
+        try {
+            List<Long> results = redisClient.publish(channels, messages);
+            for (int i = 0; i < ready.size(); i++) {
+                ready.get(i).future.complete(i < results.size() ? results.get(i) : 0L);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("RedisPublishAccumulator# flush size:{}", ready.size());
+            }
+        } catch (Exception e) {
+            for (PendingMessage pendingMessage : ready) {
+                pendingMessage.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static final class PendingMessage {
+
+        private final String channel;
+
+        private final String message;
+
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        private PendingMessage(String channel, String message) {
+            this.channel = channel;
+            this.message = message;
+        }
+    }
+}
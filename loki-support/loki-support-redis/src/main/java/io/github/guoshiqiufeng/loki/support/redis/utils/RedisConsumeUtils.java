@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2023-2024, fubluesky (fubluesky@foxmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.guoshiqiufeng.loki.support.redis.utils;
+
+import io.github.guoshiqiufeng.loki.support.core.consumer.ConsumerRecord;
+import io.github.guoshiqiufeng.loki.support.core.pipeline.PipelineUtils;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * redis消费工具类
+ *
+ * @author yanghq
+ * @version 1.0
+ * @since 2026/10/18 23:10
+ */
+@Slf4j
+@UtilityClass
+public class RedisConsumeUtils {
+
+    /**
+     * 将订阅消息经过监听管道处理后交给回调，单个回调异常不影响其他回调
+     *
+     * @param name      订阅者名称，用于日志
+     * @param functions 回调，为空时忽略
+     * @param channel   频道
+     * @param message   消息
+     */
+    public void dispatch(String name, Collection<Function<ConsumerRecord, Void>> functions, String channel,
+                         String message) {
+        if (functions == null || functions.isEmpty()) {
+            return;
+        }
+        ConsumerRecord consumerRecord = PipelineUtils.processListener(new ConsumerRecord(channel, null, null,
+                null, null, message));
+        if (consumerRecord == null) {
+            return;
+        }
+        for (Function<ConsumerRecord, Void> function : functions) {
+            try {
+                function.apply(consumerRecord);
+            } catch (Exception e) {
+                if (log.isErrorEnabled()) {
+                    log.error("RedisConsumeUtils# {} handle message error, channel:{}", name, channel, e);
+                }
+            }
+        }
+    }
+}
@@ -23,18 +23,22 @@ import io.github.guoshiqiufeng.loki.support.core.exception.LokiException;
 import io.github.guoshiqiufeng.loki.support.core.pipeline.PipelineUtils;
 import io.github.guoshiqiufeng.loki.support.core.producer.ProducerRecord;
 import io.github.guoshiqiufeng.loki.support.core.producer.ProducerResult;
+import io.github.guoshiqiufeng.loki.support.core.util.ExecutorUtils;
 import io.github.guoshiqiufeng.loki.support.core.util.StringUtils;
-import io.github.guoshiqiufeng.loki.support.core.util.ThreadPoolUtils;
 import io.github.guoshiqiufeng.loki.support.rocketmq.remoting.RocketRemotingClient;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.rocketmq.client.consumer.DefaultMQPushConsumer;
 import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyStatus;
 import org.apache.rocketmq.client.consumer.listener.MessageListenerConcurrently;
+import org.apache.rocketmq.client.producer.SendCallback;
 import org.apache.rocketmq.client.producer.SendResult;
 import org.apache.rocketmq.common.message.Message;
 import org.apache.rocketmq.common.message.MessageExt;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
@@ -48,6 +52,11 @@ import java.util.function.Function;
 @Slf4j
 public abstract class BaseRocketRemotingClient implements RocketRemotingClient {
 
+    /**
+     * 单次批量发送最大消息体积
+     */
+    private static final int MAX_BATCH_BYTES = 1024 * 1024;
+
     /**
      * 发送消息
      *
@@ -70,6 +79,8 @@ public abstract class BaseRocketRemotingClient implements RocketRemotingClient {
 
     /**
      * 发送消息
+     * <p>
+     * 由 SendCallback 直接完成，不占用额外线程；后续非 Async 阶段将在 rocketmq 回调线程中执行，不应阻塞
      *
      * @param groupName      组名称
      * @param producerRecord 发送信息
@@ -81,13 +92,69 @@ public abstract class BaseRocketRemotingClient implements RocketRemotingClient {
             throw new LokiException("sendAsync fail : producerRecord is null!");
         }
         Message message = covertMessage(producerRecord);
-        return CompletableFuture.supplyAsync(() -> send(groupName, message))
-                .thenApplyAsync(recordMetadata -> {
-                    ProducerResult result = new ProducerResult();
-                    result.setTopic(message.getTopic());
-                    result.setMsgId(recordMetadata.getMsgId());
-                    return result;
-                });
+        CompletableFuture<ProducerResult> future = new CompletableFuture<>();
+        sendAsync(groupName, message, new SendCallback() {
+            @Override
+            public void onSuccess(SendResult sendResult) {
+                ProducerResult result = new ProducerResult();
+                result.setTopic(message.getTopic());
+                result.setMsgId(sendResult.getMsgId());
+                future.complete(result);
+            }
+
+            @Override
+            public void onException(Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 批量发送消息，相同主题的非延时消息合并为一次批量发送
+     *
+     * @param groupName       组名称
+     * @param producerRecords 发送信息
+     * @return 发送消息结果，与发送信息顺序一致
+     */
+    @Override
+    public List<ProducerResult> sendBatch(String groupName, Collection<ProducerRecord> producerRecords) {
+        ProducerResult[] results = new ProducerResult[producerRecords.size()];
+        List<Message> batch = new ArrayList<>();
+        List<Integer> batchIndexes = new ArrayList<>();
+        int batchBytes = 0;
+        int index = 0;
+        for (ProducerRecord producerRecord : producerRecords) {
+            int i = index++;
+            Message message;
+            try {
+                if (producerRecord == null) {
+                    throw new LokiException("sendBatch fail : producerRecord is null!");
+                }
+                message = covertMessage(producerRecord);
+            } catch (Exception e) {
+                results[i] = ProducerResult.failure(producerRecord == null ? null : producerRecord.getTopic(), e);
+                continue;
+            }
+            if (message.getDeliverTimeMs() > 0) {
+                // 延时消息不支持批量发送
+                results[i] = sendOne(groupName, message);
+                continue;
+            }
+            int messageBytes = message.getBody().length + message.getTopic().length();
+            if (!batch.isEmpty() && (!batch.get(0).getTopic().equals(message.getTopic())
+                    || batchBytes + messageBytes > MAX_BATCH_BYTES)) {
+                flushBatch(groupName, batch, batchIndexes, results);
+                batchBytes = 0;
+            }
+            batch.add(message);
+            batchIndexes.add(i);
+            batchBytes += messageBytes;
+        }
+        if (!batch.isEmpty()) {
+            flushBatch(groupName, batch, batchIndexes, results);
+        }
+        return Arrays.asList(results);
     }
 
     /**
@@ -111,7 +178,7 @@ public abstract class BaseRocketRemotingClient implements RocketRemotingClient {
             if (StringUtils.isEmpty(tag)) {
                 tag = "*";
             }
-            ExecutorService executorService = ThreadPoolUtils.getSingleThreadPool();
+            ExecutorService executorService = ExecutorUtils.getConsumeExecutor();
             String finalTag = tag;
             DefaultMQPushConsumer consumer = this.getConsumer(consumerConfig.getConsumerGroup(), consumerConfig.getIndex());
             CompletableFuture.runAsync(() -> {
@@ -131,14 +198,7 @@ public abstract class BaseRocketRemotingClient implements RocketRemotingClient {
                                     if (consumerRecord == null) {
                                         return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
                                     }
-                                    function.apply(new MessageContent<String>()
-                                            .setMessageId(consumerRecord.getMessageId())
-                                            //.setMessageGroup(msgExt.getProperty(MessageConst.PROPERTY_PRODUCER_GROUP))
-                                            .setTopic(consumerRecord.getTopic())
-                                            .setTag(consumerRecord.getTag())
-                                            .setKeys(consumerRecord.getKeys())
-                                            .setBody(consumerRecord.getBodyMessage())
-                                            .setBodyMessage(consumerRecord.getBodyMessage()));
+                                    function.apply(consumerRecord.toMessageContent());
                                 }
                             } catch (Exception e) {
                                 if (log.isErrorEnabled()) {
@@ -174,7 +234,50 @@ public abstract class BaseRocketRemotingClient implements RocketRemotingClient {
     private ConsumerRecord covertConsumerRecord(MessageExt msgExt) {
         return new ConsumerRecord(msgExt.getTopic(), msgExt.getTags(),
                 msgExt.getMsgId(), null, Arrays.asList(msgExt.getKeys().split(",")),
-                new String(msgExt.getBody()));
+                null, msgExt.getBody());
+    }
+
+    private ProducerResult sendOne(String groupName, Message message) {
+        try {
+            SendResult sendResult = send(groupName, message);
+            if (sendResult == null) {
+                return ProducerResult.failure(message.getTopic(), new LokiException("send message fail"));
+            }
+            ProducerResult result = new ProducerResult();
+            result.setTopic(message.getTopic());
+            result.setMsgId(sendResult.getMsgId());
+            return result;
+        } catch (Exception e) {
+            return ProducerResult.failure(message.getTopic(), e);
+        }
+    }
+
+    /**
+     * 发送一批消息并按顺序回填结果，发送后清空批次
+     */
+    private void flushBatch(String groupName, List<Message> batch, List<Integer> batchIndexes,
+                            ProducerResult[] results) {
+        String topic = batch.get(0).getTopic();
+        if (batch.size() == 1) {
+            results[batchIndexes.get(0)] = sendOne(groupName, batch.get(0));
+        } else {
+            try {
+                SendResult sendResult = send(groupName, new ArrayList<>(batch));
+                String[] msgIds = sendResult.getMsgId() == null ? new String[0] : sendResult.getMsgId().split(",");
+                for (int j = 0; j < batchIndexes.size(); j++) {
+                    ProducerResult result = new ProducerResult();
+                    result.setTopic(topic);
+                    result.setMsgId(j < msgIds.length ? msgIds[j] : null);
+                    results[batchIndexes.get(j)] = result;
+                }
+            } catch (Exception e) {
+                for (Integer batchIndex : batchIndexes) {
+                    results[batchIndex] = ProducerResult.failure(topic, e);
+                }
+            }
+        }
+        batch.clear();
+        batchIndexes.clear();
     }
 
     private Message covertMessage(ProducerRecord producerRecord) {
@@ -182,7 +285,11 @@ public abstract class BaseRocketRemotingClient implements RocketRemotingClient {
         if (producerRecord == null) {
             throw new LokiException("producerRecord is null!");
         }
-        Message message = new Message(producerRecord.getTopic(), producerRecord.getTag(), producerRecord.getMessage().getBytes());
+        byte[] body = producerRecord.getMessageBody();
+        if (body == null) {
+            body = producerRecord.getMessage().getBytes(StandardCharsets.UTF_8);
+        }
+        Message message = new Message(producerRecord.getTopic(), producerRecord.getTag(), body);
         Long deliveryTimestamp = producerRecord.getDeliveryTimestamp();
         if (deliveryTimestamp != null && deliveryTimestamp != 0) {
             message.setDeliverTimeMs(System.currentTimeMillis() + deliveryTimestamp);
@@ -202,4 +309,22 @@ public abstract class BaseRocketRemotingClient implements RocketRemotingClient {
      * @return 结果
      */
     abstract SendResult send(String producerName, Message message);
+
+    /**
+     * 批量发送消息，消息主题需一致
+     *
+     * @param producerName 生产者名称
+     * @param messages     消息
+     * @return 结果
+     */
+    abstract SendResult send(String producerName, Collection<Message> messages);
+
+    /**
+     * 异步发送消息，发送失败时通过回调 onException 通知
+     *
+     * @param producerName 生产者名称
+     * @param message      消息
+     * @param sendCallback 发送回调
+     */
+    abstract void sendAsync(String producerName, Message message, SendCallback sendCallback);
 }
@@ -15,14 +15,18 @@
  */
 package io.github.guoshiqiufeng.loki.support.rocketmq.remoting.impl;
 
+import io.github.guoshiqiufeng.loki.support.core.exception.LokiException;
 import io.github.guoshiqiufeng.loki.support.rocketmq.remoting.config.RocketMQProperties;
 import io.github.guoshiqiufeng.loki.support.rocketmq.remoting.util.RocketRemotingConfigUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.rocketmq.client.consumer.DefaultMQPushConsumer;
 import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.apache.rocketmq.client.producer.SendCallback;
 import org.apache.rocketmq.client.producer.SendResult;
 import org.apache.rocketmq.common.message.Message;
 
+import java.util.Collection;
+
 /**
  * rocketmq remoting client 默认实现
  *
@@ -59,6 +63,46 @@ public class RocketRemotingDefaultImpl extends BaseRocketRemotingClient {
         return null;
     }
 
+    /**
+     * 批量发送消息
+     *
+     * @param producerName 生产者名称
+     * @param messages     消息
+     * @return 结果
+     */
+    @Override
+    public SendResult send(String producerName, Collection<Message> messages) {
+        DefaultMQProducer producer = RocketRemotingConfigUtils.getProducer(producerName, rocketProperties);
+        try {
+            return producer.send(messages);
+        } catch (Exception e) {
+            if (log.isErrorEnabled()) {
+                log.error("send batch message error, producerName:{}, size:{} ", producerName, messages.size(), e);
+            }
+            throw new LokiException(e.getMessage());
+        }
+    }
+
+    /**
+     * 异步发送消息
+     *
+     * @param producerName 生产者名称
+     * @param message      消息
+     * @param sendCallback 发送回调
+     */
+    @Override
+    public void sendAsync(String producerName, Message message, SendCallback sendCallback) {
+        try {
+            DefaultMQProducer producer = RocketRemotingConfigUtils.getProducer(producerName, rocketProperties);
+            producer.send(message, sendCallback);
+        } catch (Exception e) {
+            if (log.isErrorEnabled()) {
+                log.error("send async message error, producerName:{}, message:{} ", producerName, message, e);
+            }
+            sendCallback.onException(e);
+        }
+    }
+
     /**
      * 获取消费者
      *
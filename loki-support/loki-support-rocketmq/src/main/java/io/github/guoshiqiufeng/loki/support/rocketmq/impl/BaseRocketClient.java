@@ -37,10 +37,15 @@ import org.apache.rocketmq.client.apis.producer.SendReceipt;
 import org.apache.rocketmq.client.java.message.MessageBuilderImpl;
 import org.apache.rocketmq.shaded.com.google.common.base.Throwables;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Function;
 
 /**
@@ -93,6 +98,41 @@ public abstract class BaseRocketClient implements RocketClient {
                 });
     }
 
+    /**
+     * 批量发送消息，连续异步发送后统一等待结果
+     *
+     * @param groupName       组名称
+     * @param producerRecords 发送信息
+     * @return 发送消息结果，与发送信息顺序一致
+     */
+    @Override
+    public List<ProducerResult> sendBatch(String groupName, Collection<ProducerRecord> producerRecords) {
+        return sendBatchAsync(groupName, producerRecords).join();
+    }
+
+    /**
+     * 异步批量发送消息
+     *
+     * @param groupName       组名称
+     * @param producerRecords 发送信息
+     * @return 发送消息结果，与发送信息顺序一致
+     */
+    @Override
+    public CompletableFuture<List<ProducerResult>> sendBatchAsync(String groupName, Collection<ProducerRecord> producerRecords) {
+        List<CompletableFuture<ProducerResult>> futures = new ArrayList<>(producerRecords.size());
+        for (ProducerRecord producerRecord : producerRecords) {
+            try {
+                futures.add(sendAsync(groupName, producerRecord));
+            } catch (Exception e) {
+                CompletableFuture<ProducerResult> future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+                futures.add(future);
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .handle((v, throwable) -> joinResults(producerRecords, futures));
+    }
+
     /**
      * 消费消息
      *
@@ -132,14 +172,7 @@ public abstract class BaseRocketClient implements RocketClient {
                             return ConsumeResult.SUCCESS;
                         }
                         try {
-                            function.apply(new MessageContent<String>()
-                                    .setMessageId(consumerRecord.getMessageId())
-                                    .setMessageGroup(consumerRecord.getMessageGroup())
-                                    .setTopic(consumerRecord.getTopic())
-                                    .setTag(consumerRecord.getTag())
-                                    .setKeys(consumerRecord.getKeys())
-                                    .setBody(consumerRecord.getBodyMessage())
-                                    .setBodyMessage(consumerRecord.getBodyMessage()));
+                            function.apply(consumerRecord.toMessageContent());
                         } catch (Exception e) {
                             if (log.isErrorEnabled()) {
                                 log.error("RocketMqHandler# pushMessageListener error:{}", Throwables.getStackTraceAsString(e));
@@ -157,14 +190,32 @@ public abstract class BaseRocketClient implements RocketClient {
         }
     }
 
+    private List<ProducerResult> joinResults(Collection<ProducerRecord> producerRecords,
+                                             List<CompletableFuture<ProducerResult>> futures) {
+        List<ProducerResult> results = new ArrayList<>(futures.size());
+        int i = 0;
+        for (ProducerRecord producerRecord : producerRecords) {
+            CompletableFuture<ProducerResult> future = futures.get(i++);
+            try {
+                results.add(future.join());
+            } catch (CompletionException | CancellationException e) {
+                Throwable cause = e.getCause() == null ? e : e.getCause();
+                results.add(ProducerResult.failure(producerRecord == null ? null : producerRecord.getTopic(), cause));
+            }
+        }
+        return results;
+    }
+
     private ConsumerRecord covertConsumerRecord(MessageView messageView) {
         MessageId messageId = messageView.getMessageId();
         String messageGroup = messageView.getMessageGroup().orElse("");
         String tagName = messageView.getTag().orElse("");
         String topicName = messageView.getTopic();
-        String body = StandardCharsets.UTF_8.decode(messageView.getBody()).toString();
+        ByteBuffer buffer = messageView.getBody();
+        byte[] body = new byte[buffer.remaining()];
+        buffer.duplicate().get(body);
         return new ConsumerRecord(topicName, tagName, messageId.toString(), messageGroup,
-                messageView.getKeys(), body);
+                messageView.getKeys(), null, body);
     }
 
     private Message covertMessage(String groupName, ProducerRecord producerRecord) {
@@ -187,8 +238,12 @@ public abstract class BaseRocketClient implements RocketClient {
         if (keys != null && !keys.isEmpty()) {
             messageBuilder.setKeys(keys.toArray(new String[0]));
         }
+        byte[] body = producerRecord.getMessageBody();
+        if (body == null) {
+            body = producerRecord.getMessage().getBytes(StandardCharsets.UTF_8);
+        }
         return messageBuilder
-                .setBody(producerRecord.getMessage().getBytes())
+                .setBody(body)
                 .build();
     }
 
@@ -21,6 +21,7 @@ import io.github.guoshiqiufeng.loki.core.handler.impl.RedisHandler;
 import io.github.guoshiqiufeng.loki.enums.MqType;
 import io.github.guoshiqiufeng.loki.support.core.config.LokiProperties;
 import io.github.guoshiqiufeng.loki.support.core.exception.LokiException;
+import io.github.guoshiqiufeng.loki.support.core.util.ExecutorUtils;
 import io.github.guoshiqiufeng.loki.support.redis.RedisClient;
 import io.github.guoshiqiufeng.loki.support.redis.delivery.DeliveryMessageHandler;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -77,9 +78,9 @@ public class RedisAutoConfiguration {
 
 
     public RedisAutoConfiguration(RedisClient redisClient, LokiProperties properties) {
-        CompletableFuture.runAsync(() -> {
-            DeliveryMessageHandler.processingHistoricalData(redisClient, properties);
-            DeliveryMessageHandler.handleDeliveryMessage(redisClient);
-        });
+        // 先启动到期消息领取，历史数据恢复不阻塞新的延时消息
+        DeliveryMessageHandler.handleDeliveryMessage(redisClient);
+        CompletableFuture.runAsync(() -> DeliveryMessageHandler.processingHistoricalData(redisClient, properties),
+                ExecutorUtils.getConsumeExecutor());
     }
 }
@@ -67,15 +67,16 @@ public class BaseMapperFactoryBean<T> implements FactoryBean<T> {
      */
     @Override
     public T getObject() throws Exception {
-        // 创建 MapperProxy 实例
-        MapperProxy<T> esMapperProxy = new MapperProxy<>(mapperInterface);
-
         // 获取实体类
         Class<?> entityClass = TypeUtils.getInterfaceGenericType(mapperInterface, 0);
 
         // 初始化缓存和处理器
         BaseCache.initCache(mapperInterface, entityClass, lokiProperties, handlerHolder);
 
+        // 创建 MapperProxy 实例，预先生成方法调用表
+        MapperProxy<T> esMapperProxy = new MapperProxy<>(mapperInterface,
+                BaseCache.getBaseMapperInstance(mapperInterface));
+
         // 创建代理
         @SuppressWarnings("unchecked")
         T t = (T) Proxy.newProxyInstance(mapperInterface.getClassLoader(), new Class[]{mapperInterface}, esMapperProxy);
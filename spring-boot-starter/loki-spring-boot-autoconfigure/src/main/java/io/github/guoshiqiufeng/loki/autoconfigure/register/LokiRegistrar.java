@@ -15,10 +15,11 @@
  */
 package io.github.guoshiqiufeng.loki.autoconfigure.register;
 
-import com.alibaba.fastjson2.JSON;
 import io.github.guoshiqiufeng.loki.Listener;
 import io.github.guoshiqiufeng.loki.MessageContent;
 import io.github.guoshiqiufeng.loki.annotation.MessageListener;
+import io.github.guoshiqiufeng.loki.core.codec.MessageCodec;
+import io.github.guoshiqiufeng.loki.core.codec.MessageCodecUtils;
 import io.github.guoshiqiufeng.loki.core.entity.MessageInfo;
 import io.github.guoshiqiufeng.loki.core.handler.HandlerHolder;
 import io.github.guoshiqiufeng.loki.core.toolkit.EntityInfoHelper;
@@ -31,6 +32,7 @@ import io.github.guoshiqiufeng.loki.support.core.util.StringUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.CollectionUtils;
 
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 
@@ -120,7 +122,7 @@ public class LokiRegistrar<T> {
                 } catch (Exception ignored) {
                 }
 
-                String consumerGroup = null, topic = null, topicPattern = null, tag = null;
+                String consumerGroup = null, topic = null, topicPattern = null, tag = null, codecName = null;
                 Integer consumptionThreadCount = null, maxCacheMessageCount = null;
 
                 if (messageInfo != null) {
@@ -129,6 +131,7 @@ public class LokiRegistrar<T> {
                     tag = messageInfo.getTag();
                     consumptionThreadCount = messageInfo.getConsumptionThreadCount();
                     maxCacheMessageCount = messageInfo.getMaxCacheMessageCount();
+                    codecName = messageInfo.getCodec();
                 }
 
                 MessageListener annotation = listener.getClass().getAnnotation(MessageListener.class);
@@ -139,6 +142,9 @@ public class LokiRegistrar<T> {
                     topicPattern = annotation.topicPattern();
                     consumptionThreadCount = annotation.consumptionThreadCount();
                     maxCacheMessageCount = annotation.maxCacheMessageCount();
+                    if (StringUtils.isNotEmpty(annotation.codec())) {
+                        codecName = annotation.codec();
+                    }
                 }
                 if (messageInfo == null && annotation == null) {
                     if (log.isWarnEnabled()) {
@@ -152,6 +158,7 @@ public class LokiRegistrar<T> {
                     }
                     return;
                 }
+                MessageCodec codec = MessageCodecUtils.getCodec(codecName, lokiProperties.getGlobalConfig().getCodec());
                 handlerHolder.route(getMqType()).pushMessageListener(
                         new ConsumerConfig()
                                 .setTopic(topic)
@@ -164,13 +171,7 @@ public class LokiRegistrar<T> {
                         , messageContent -> {
                             // log.debug("messageContent:{}", messageContent)
                             String body = messageContent.getBody();
-                            // TODO 序列化
-                            T bodyObject = null;
-                            if (body != null && body.trim().startsWith("{")) {
-                                bodyObject = JSON.parseObject(body, interfaceGenericType);
-                            } else if (String.class.getName().equals(interfaceGenericType.getName())) {
-                                bodyObject = (T) body;
-                            }
+                            T bodyObject = decode(codec, messageContent.getBodyBytes(), body, interfaceGenericType);
 
                             MessageContent<T> tMessageContent = new MessageContent<T>()
                                     .setMessageId(messageContent.getMessageId())
@@ -179,7 +180,8 @@ public class LokiRegistrar<T> {
                                     .setKeys(messageContent.getKeys())
                                     .setMessageGroup(messageContent.getMessageGroup())
                                     .setBody(bodyObject)
-                                    .setBodyMessage(body);
+                                    .setBodyMessage(body)
+                                    .setBodyBytes(messageContent.getBodyBytes());
                             listener.onMessage(tMessageContent);
                             return null;
                         });
@@ -191,6 +193,29 @@ public class LokiRegistrar<T> {
         }
     }
 
+    /**
+     * 解码消息
+     *
+     * @param codec     编解码器
+     * @param bodyBytes 内容原始字节
+     * @param body      内容String 格式
+     * @param type      消息类型
+     * @return 消息实体
+     */
+    private T decode(MessageCodec codec, byte[] bodyBytes, String body, Class<T> type) {
+        if (!codec.isBinary()) {
+            if (body != null) {
+                return codec.decodeFromString(body, type);
+            }
+            return bodyBytes == null ? null : codec.decode(bodyBytes, type);
+        }
+        if (bodyBytes != null) {
+            return codec.decode(bodyBytes, type);
+        }
+        // 仅支持文本传输时二进制内容为 Base64
+        return body == null ? null : codec.decode(Base64.getDecoder().decode(body), type);
+    }
+
     /**
      * 获取mq类型
      *